@@ -1,5 +1,8 @@
 package com.hilgo.rotax.config;
 
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,10 +12,13 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.logout.LogoutHandler;
 
+import com.hilgo.rotax.entity.User;
 import com.hilgo.rotax.repository.UserRepository;
+import com.hilgo.rotax.service.PrincipalCache;
 
 import lombok.RequiredArgsConstructor;
 
@@ -21,23 +27,31 @@ import lombok.RequiredArgsConstructor;
 public class ApplicationConfig {
 
     private final UserRepository repository;
-
+    private final PrincipalCache principalCache;
 
     @Bean
     public UserDetailsService userDetailsService() {
-        UserDetailsService userNotFound = username -> repository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        // Eski token'larla gelen isteklerde aynı kullanıcının tekrar tekrar yüklenmesini önbellek karşılar;
+        // bulunamayan kullanıcılar saklanmaz
+        UserDetailsService userNotFound = username -> principalCache.get(username, this::loadUser);
         return userNotFound;
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        // Şifre kontrolü önbelleği atlar; başka bir örnekte değiştirilen şifre TTL beklenmeden geçerli olur
+        authProvider.setUserDetailsService(this::loadUser);
+        // Hash yenilemesi burada (istek thread'inde) değil, girişten sonra PasswordUpgradeService ile yapılır
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
+    private User loadUser(String username) {
+        return repository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authenticationConfiguration)
             throws Exception {
@@ -45,8 +59,13 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int bcryptStrength) {
+        // Yeni hash'ler {bcrypt} önekiyle ve ayarlanan maliyetle üretilir. Öneksiz eski hash'ler de BCrypt ile
+        // doğrulanır; bunlar ve daha düşük maliyetli hash'ler upgradeEncoding ile yenilenmesi gereken olarak görülür
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
     @Bean
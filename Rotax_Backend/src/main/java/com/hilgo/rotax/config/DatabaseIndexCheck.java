@@ -0,0 +1,75 @@
+package com.hilgo.rotax.config;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Açılışta sık kullanılan sorguların dayandığı indekslerin veritabanında olup olmadığını kontrol eder.
+ * Eksik indeks uygulamayı durdurmaz; yalnızca uyarı yazılır (ör. migration'ı uygulanmamış bir ortam).
+ * İndeksler db/migration/postgresql altındaki migration'larla oluşturulur.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatabaseIndexCheck {
+
+    // tablo -> beklenen indeksler
+    static final Map<String, List<String>> EXPECTED_INDEXES = Map.of(
+            "cargo", List.of(
+                    "uq_cargo_verification_code",
+                    "idx_cargo_situation",
+                    "idx_cargo_distributor_id",
+                    "idx_cargo_distributor_created",
+                    "idx_cargo_distributor_updated",
+                    "idx_cargo_distributor_situation",
+                    "idx_cargo_driver_situation",
+                    "idx_cargo_self_geog"),
+            "driver", List.of("idx_driver_location_geog"),
+            "app_user", List.of("idx_app_user_updated_at"),
+            "driver_location_history", List.of(
+                    "idx_driver_location_history_recorded_at_brin",
+                    "idx_driver_location_history_driver_time"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        try {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equalsIgnoreCase(database)) {
+                return;
+            }
+            List<String> missing = findMissing();
+            if (missing.isEmpty()) {
+                log.info("Beklenen {} veritabanı indeksinin tümü mevcut", EXPECTED_INDEXES.values().stream().mapToInt(List::size).sum());
+            } else {
+                log.warn("Eksik veritabanı indeksleri: {}. Migration'ların uygulandığını kontrol edin; bu sorgular tablo taramasına düşer.", missing);
+            }
+        } catch (Exception e) {
+            log.warn("Veritabanı indeks kontrolü yapılamadı: {}", e.getMessage());
+        }
+    }
+
+    List<String> findMissing() {
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema() AND tablename = ANY (?)",
+                String.class, (Object) EXPECTED_INDEXES.keySet().toArray(new String[0])));
+        return EXPECTED_INDEXES.values().stream()
+                .flatMap(List::stream)
+                .filter(index -> !existing.contains(index))
+                .sorted()
+                .toList();
+    }
+}
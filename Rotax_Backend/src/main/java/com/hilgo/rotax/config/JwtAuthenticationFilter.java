@@ -10,10 +10,13 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.hilgo.rotax.entity.User;
+import com.hilgo.rotax.dto.AuthenticatedUser;
 import com.hilgo.rotax.exception.UserNotActiveException;
+import com.hilgo.rotax.service.AccountStateRegistry;
 import com.hilgo.rotax.service.JwtService;
 
+import io.jsonwebtoken.Claims;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,8 +27,11 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String NOT_ACTIVE_MESSAGE = "Kullanıcı hesabı aktif değil. Lütfen yönetici ile iletişime geçin.";
+
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final AccountStateRegistry accountStateRegistry;
 
     // JwtAuthenticationFilter.java - doFilterInternal metodunun daha verimli hali
 
@@ -37,6 +43,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final Claims claims;
         final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -45,22 +52,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        // Token istek başına bir kez çözülür; kullanıcı adı ve süre aynı claim'lerden okunur
+        claims = jwtService.parse(jwt);
+        username = claims.getSubject();
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // 1. Kullanıcıyı SADECE BİR KEZ UserDetailsService ile çekiyoruz.
+            AuthenticatedUser principal = jwtService.toPrincipal(claims);
+            if (principal != null) {
+                authenticate(principal, claims, request);
+                filterChain.doFilter(request, response);
+                return;
+            }
+
+            // Hesap claim'lerini taşımayan eski token'lar: kullanıcı veritabanından yüklenir
+            // 1. Kullanıcıyı SADECE BİR KEZ UserDetailsService ile çekiyoruz (önbellekteki CachedUser özeti).
             UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
-            // 2. 'active' kontrolü için UserDetails'i kendi User tipimize cast ediyoruz.
-            // Bu işlem veritabanına TEKRAR gitmez.
-            if (userDetails instanceof User) {
-                User user = (User) userDetails;
-                if (!user.getEnabled()) {
-                    throw new UserNotActiveException("Kullanıcı hesabı aktif değil. Lütfen yönetici ile iletişime geçin.");
-                }
+            // 2. 'active' kontrolü özet üzerinden yapılır; veritabanına TEKRAR gidilmez.
+            if (!userDetails.isEnabled()) {
+                throw new UserNotActiveException(NOT_ACTIVE_MESSAGE);
             }
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (jwtService.isTokenValid(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -72,4 +85,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    // Kimlik doğrudan imzalı claim'lerden kurulur; pasiflik ve iptal bellek içi kayıttan kontrol edilir
+    private void authenticate(AuthenticatedUser principal, Claims claims, HttpServletRequest request) {
+        if (jwtService.isIssuedToDisabledAccount(claims) || accountStateRegistry.isDisabled(principal.id())) {
+            throw new UserNotActiveException(NOT_ACTIVE_MESSAGE);
+        }
+        if (accountStateRegistry.isRevoked(principal.id(), principal.tokenVersion())) {
+            return;
+        }
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                principal.authorities()
+        );
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
\ No newline at end of file
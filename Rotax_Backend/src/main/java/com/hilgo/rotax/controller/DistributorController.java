@@ -1,5 +1,6 @@
 package com.hilgo.rotax.controller;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -8,21 +9,28 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.hilgo.rotax.dto.BulkCargoResponse;
 import com.hilgo.rotax.dto.CargoDTO;
+import com.hilgo.rotax.dto.CargoSliceResponse;
 import com.hilgo.rotax.dto.CreateCargoRequest;
 import com.hilgo.rotax.dto.DistributorDashboardResponse;
 import com.hilgo.rotax.dto.UserDTO;
 import com.hilgo.rotax.dto.ProfileUpdateRequestDTO;
+import com.hilgo.rotax.enums.CargoSortField;
+import com.hilgo.rotax.exception.BadRequestException;
 import com.hilgo.rotax.service.DistributorService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -63,6 +71,16 @@ public class DistributorController {
         return ResponseEntity.ok(distributorService.createCargo(request));
     }
 
+    @PostMapping(value = "/cargos/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @Operation(summary = "Manifestten toplu kargo oluşturur",
+            description = "Gövde JSON dizisi, NDJSON (satır başına bir CreateCargoRequest) veya başlıklı CSV olabilir; CSV sütun adları " +
+                    "JSON alan yollarıdır (ör. selfLocation.latitude, measure.size, phoneNumber). Manifest akış halinde işlenir. " +
+                    "Yanıt oluşturulan kargoların takip kodlarını ve hatalı satırları satır numarasıyla döndürür.")
+    public ResponseEntity<BulkCargoResponse> createCargos(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                          InputStream manifest) {
+        return ResponseEntity.ok(distributorService.createCargos(manifest, MediaType.parseMediaType(contentType)));
+    }
+
     @GetMapping("/cargos")
     @Operation(summary = "Dağıtıcıya ait tüm kargoları listeler", description = "Giriş yapmış olan dağıtıcının gönderdiği tüm kargoların listesini döndürür. 'Page türünde'")
     public ResponseEntity<Map<String , Object>> getAllCargos(@RequestParam(defaultValue = "0") int page,
@@ -85,6 +103,20 @@ public class DistributorController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/cargos/scroll")
+    @Operation(summary = "Dağıtıcıya ait kargoları imleçle sayfalar",
+            description = "Kargoları (sortBy, id) anahtarına göre sıralı döndürür. Sonraki sayfa için yanıttaki 'nextCursor' değeri 'cursor' parametresiyle gönderilir. " +
+                    "sortBy yalnızca id, createdAt veya updatedAt olabilir. Toplam kargo sayısı yalnızca includeTotal=true ise eklenir.")
+    public ResponseEntity<CargoSliceResponse> scrollCargos(@RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "10") int size,
+                                                           @RequestParam(defaultValue = "id") String sortBy,
+                                                           @RequestParam(defaultValue = "ASC") String direction,
+                                                           @RequestParam(defaultValue = "false") boolean includeTotal) {
+        Sort.Direction sortDirection = Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new BadRequestException("Geçersiz sıralama yönü: " + direction));
+        return ResponseEntity.ok(distributorService.scrollCargos(CargoSortField.fromProperty(sortBy), sortDirection, cursor, size, includeTotal));
+    }
+
     @GetMapping("/cargos/{cargoId}")
     @Operation(summary = "Belirtilen ID'ye sahip kargo detayını getirir", description = "Tek bir kargonun detaylı bilgilerini döndürür.")
     public ResponseEntity<CargoDTO> getCargoById(@PathVariable Long cargoId) {
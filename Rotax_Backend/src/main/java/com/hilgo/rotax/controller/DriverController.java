@@ -2,6 +2,8 @@ package com.hilgo.rotax.controller;
 
 import java.util.List;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.hilgo.rotax.dto.*;
 import com.hilgo.rotax.dto.MessageResponse;
@@ -38,6 +41,20 @@ public class DriverController {
         return ResponseEntity.ok(new MessageResponse("Driver status updated successfully", true));
     }
 
+    @PostMapping("/location")
+    @Operation(summary = "Sürücünün anlık GPS konumunu bildirir", description = "Yüksek frekanslı konum bildirimi. Bildirim hemen kabul edilir ve bellekte tamponlanır; her sürücünün yalnızca en yeni konumu periyodik olarak toplu şekilde veritabanına yazılır.")
+    public ResponseEntity<MessageResponse> reportLocation(@Valid @RequestBody LocationPingRequest request) {
+        driverService.recordLocationPing(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new MessageResponse("Location accepted", true));
+    }
+
+    @PostMapping("/location/batch")
+    @Operation(summary = "Biriktirilmiş GPS konumlarını toplu bildirir", description = "Bağlantısı kesik kalan cihazların zaman damgalı konum dizisini tek istekte gönderir. Tüm noktalar konum geçmişine yazılır, sürücünün anlık konumu yalnızca en yeni noktayla güncellenir.")
+    public ResponseEntity<MessageResponse> reportLocationBatch(@Valid @RequestBody LocationBatchRequest request) {
+        int stored = driverService.recordLocationBatch(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new MessageResponse(stored + " locations accepted", true));
+    }
+
     @PutMapping("/profile")
     @Operation(summary = "Sürücü profil bilgilerini günceller", description = "Giriş yapmış olan sürücünün ad, soyad, telefon ve araç tipi gibi kişisel bilgilerini güncellemesini sağlar.")
     public ResponseEntity<UserDTO> updateProfile(@Valid @RequestBody ProfileUpdateRequestDTO request) {
@@ -63,6 +80,12 @@ public class DriverController {
         return ResponseEntity.ok(driverService.getAvailableOffers());
     }
 
+    @GetMapping(value = "/offers/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Kargo tekliflerini canlı akış olarak alır (SSE)", description = "Sürücüyü teklif akışına abone eder. İlk 'snapshot' olayı mevcut teklifleri içerir; ardından sürücünün yarıçapına giren kargolar için 'offer-added', kabul edilen, iptal edilen ya da yarıçaptan çıkan kargolar için 'offer-withdrawn' olayları gönderilir.")
+    public ResponseEntity<SseEmitter> streamOffers() {
+        return ResponseEntity.ok(driverService.subscribeToOffers());
+    }
+
     @PostMapping("/offers/{cargoId}/accept")
     @Operation(summary = "Bir kargo teklifini kabul eder", description = "Sürücünün bir kargo teklifini kabul ederek teslimat sürecini başlatmasını sağlar.")
     public ResponseEntity<CargoDTO> acceptOffer(@PathVariable Long cargoId) {
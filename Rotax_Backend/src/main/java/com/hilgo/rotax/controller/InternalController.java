@@ -1,15 +1,34 @@
 package com.hilgo.rotax.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.hilgo.rotax.dto.MatchingRunDTO;
+import com.hilgo.rotax.dto.NearbyDriverDTO;
+import com.hilgo.rotax.dto.PrincipalCacheStatsDTO;
 import com.hilgo.rotax.entity.Driver;
 import com.hilgo.rotax.enums.DriverStatus;
+import com.hilgo.rotax.exception.BadRequestException;
 import com.hilgo.rotax.repository.DriverRepository;
+import com.hilgo.rotax.service.CargoMatchingEngine;
+import com.hilgo.rotax.service.DriverLocationHistoryService;
+import com.hilgo.rotax.service.DriverLocationIndex;
+import com.hilgo.rotax.service.PrincipalCache;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -22,6 +41,11 @@ import lombok.RequiredArgsConstructor;
 public class InternalController {
 
     private final DriverRepository driverRepository;
+    private final DriverLocationIndex driverLocationIndex;
+    private final DriverLocationHistoryService driverLocationHistoryService;
+    private final ObjectMapper objectMapper;
+    private final CargoMatchingEngine cargoMatchingEngine;
+    private final PrincipalCache principalCache;
 
     @GetMapping("/drivers/available")
     @Operation(summary = "Uygun sürücüleri listeler", description = "Eşleştirme servisi (Python) tarafından kullanılmak üzere, durumu 'ACTIVE' olan sürücülerin listesini döndürür.")
@@ -29,4 +53,50 @@ public class InternalController {
         // This endpoint is for internal use by the Python matching service
         return ResponseEntity.ok(driverRepository.findAllByDriverStatus(DriverStatus.ACTIVE));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/drivers/nearby")
+    @Operation(summary = "Yakındaki uygun sürücüleri listeler", description = "Verilen konuma belirtilen yarıçap (metre) içindeki ACTIVE / DESTINATION_BASED sürücüleri yakından uzağa sıralı döndürür. Sonuçlar bellek içi konum indeksinden gelir.")
+    public ResponseEntity<List<NearbyDriverDTO>> getNearbyDrivers(@RequestParam Double latitude,
+                                                                  @RequestParam Double longitude,
+                                                                  @RequestParam(defaultValue = "10000") Double radiusInMeters) {
+        return ResponseEntity.ok(driverLocationIndex.findNearbyDrivers(latitude, longitude, radiusInMeters));
+    }
+
+    @GetMapping(value = "/drivers/{driverId}/locations", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Sürücünün konum geçmişini döndürür", description = "Sürücünün [from, to) aralığındaki konum noktalarını zaman sırasıyla JSON dizisi olarak akış halinde döndürür. Rota tekrarı ve anlaşmazlık incelemesi için kullanılır; uzun aralıklar belleğe yüklenmeden yazılır.")
+    public ResponseEntity<StreamingResponseBody> getLocationHistory(
+            @PathVariable Long driverId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        // Yanıt akmaya başladıktan sonra hata döndürülemeyeceği için aralık önceden doğrulanır
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                driverLocationHistoryService.forEachPoint(driverId, from, to, point -> {
+                    try {
+                        generator.writeObject(point);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok(body);
+    }
+
+    @PostMapping("/matching/run")
+    @Operation(summary = "Eşleştirme turunu hemen çalıştırır", description = "Açık (CREATED) kargoları boştaki ACTIVE sürücülere atayan eşleştirme motorunu bir tur çalıştırır ve tur özetini döndürür. Zamanlanmış tur devre dışı olsa bile çalışır; önceki tur sürüyorsa 'skipped' döner.")
+    public ResponseEntity<MatchingRunDTO> runMatching() {
+        return ResponseEntity.ok(cargoMatchingEngine.runOnce());
+    }
+
+    @GetMapping("/principal-cache/stats")
+    @Operation(summary = "Kullanıcı önbelleği istatistiklerini döndürür", description = "Kimlik doğrulamada kullanılan kullanıcı önbelleğinin doluluk, isabet (hit), ıskalama (miss), boyut nedeniyle atılma (eviction) ve süre dolması sayaçlarını döndürür. Sayaçlar uygulama açılışından beri birikir.")
+    public ResponseEntity<PrincipalCacheStatsDTO> getPrincipalCacheStats() {
+        return ResponseEntity.ok(principalCache.stats());
+    }
+}
@@ -1,5 +1,6 @@
 package com.hilgo.rotax.controller;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -7,11 +8,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.hilgo.rotax.dto.DeliveryNoteRequest;
 import com.hilgo.rotax.dto.MessageResponse;
 import com.hilgo.rotax.dto.ReviewDTO;
 import com.hilgo.rotax.dto.TrackingResponse;
+import com.hilgo.rotax.service.CargoTrackingHub;
 import com.hilgo.rotax.service.PublicService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -26,6 +29,7 @@ import lombok.RequiredArgsConstructor;
 public class PublicController {
 
     private final PublicService publicService;
+    private final CargoTrackingHub cargoTrackingHub;
 
     @GetMapping("/track/{trackingCode}")
     @Operation(summary = "Kargo takip bilgilerini getirir", description = "Verilen takip kodu ile kargonun anlık durumunu, sürücü konumunu ve tahmini varış süresini döndürür.")
@@ -33,6 +37,12 @@ public class PublicController {
         return ResponseEntity.ok(publicService.trackCargo(trackingCode));
     }
 
+    @GetMapping(value = "/track/{trackingCode}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Kargoyu canlı takip eder (SSE)", description = "Takip koduna Server-Sent Events ile abone olur. İlk 'snapshot' olayı tam takip bilgisini, sonraki 'update' olayları yalnızca değişen konum, durum ve tahmini varış süresini içerir. Kargo teslim edildiğinde veya iptal olduğunda akış kapanır.")
+    public ResponseEntity<SseEmitter> streamTracking(@PathVariable String trackingCode) {
+        return ResponseEntity.ok(cargoTrackingHub.subscribe(trackingCode));
+    }
+
     @PostMapping("/track/{trackingCode}/note")
     @Operation(summary = "Kargo için teslimat notu ekler", description = "Son kullanıcının kargo için 'Komşuma bırak' gibi bir teslimat notu eklemesini sağlar.")
     public ResponseEntity<MessageResponse> addDeliveryNote(
@@ -0,0 +1,30 @@
+package com.hilgo.rotax.dto;
+
+import com.hilgo.rotax.enums.Roles;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * JWT claim'lerinden oluşturulan principal; kimlik doğrulama sırasında kullanıcı veritabanından yüklenmez.
+ * {@code userType} kullanıcının alt tipidir (DRIVER, DISTRIBUTOR ya da USER).
+ */
+public record AuthenticatedUser(
+        Long id,
+        String username,
+        Roles role,
+        String userType,
+        long tokenVersion
+) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+}
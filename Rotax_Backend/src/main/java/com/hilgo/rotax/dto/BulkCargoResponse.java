@@ -0,0 +1,38 @@
+package com.hilgo.rotax.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkCargoResponse {
+    private int received;  // Okunan satır sayısı
+    private int created;
+    private int failed;
+    private boolean truncated; // Satır sınırı aşıldıysa kalan satırlar okunmadı
+    private List<CreatedCargo> cargos;
+    private List<RowError> errors;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class CreatedCargo {
+        private int row; // Manifestteki sıra (1'den başlar, CSV başlık satırı sayılmaz)
+        private Long cargoId;
+        private String trackingCode;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private int row;
+        private String message;
+    }
+}
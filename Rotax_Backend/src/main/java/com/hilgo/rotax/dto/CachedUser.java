@@ -0,0 +1,47 @@
+package com.hilgo.rotax.dto;
+
+import com.hilgo.rotax.entity.User;
+import com.hilgo.rotax.enums.Roles;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Önbellekte tutulan değişmez kullanıcı özeti; Hibernate oturumuna bağlı değildir ve ilişkileri taşımaz.
+ * Hesap claim'leri olmayan eski token'larla gelen isteklerde principal olarak kullanılır.
+ */
+public record CachedUser(
+        Long id,
+        String username,
+        String password,
+        boolean enabled,
+        Roles role
+) implements UserDetails {
+
+    public static CachedUser from(User user) {
+        return new CachedUser(user.getId(), user.getUsername(), user.getPassword(), user.isEnabled(), user.getRole());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
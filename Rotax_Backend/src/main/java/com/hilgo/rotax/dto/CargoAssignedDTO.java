@@ -0,0 +1,14 @@
+package com.hilgo.rotax.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CargoAssignedDTO {
+    private Long cargoId;
+}
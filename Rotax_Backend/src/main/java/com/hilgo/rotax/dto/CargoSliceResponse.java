@@ -0,0 +1,23 @@
+package com.hilgo.rotax.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CargoSliceResponse {
+    private List<CargoDTO> content;
+    private Integer size;
+    private Integer numberOfElements;
+    private String sortBy;
+    private String direction;
+    private Boolean hasNext;
+    private String nextCursor;  // Sonraki sayfa için opak imleç; son sayfada null
+    private Long totalElements; // Yalnızca istenirse, dağıtıcı sayaçlarından (COUNT sorgusu çalıştırılmaz)
+}
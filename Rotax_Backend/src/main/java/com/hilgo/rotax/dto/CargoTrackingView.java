@@ -0,0 +1,53 @@
+package com.hilgo.rotax.dto;
+
+import com.hilgo.rotax.enums.CargoSituation;
+
+import java.time.LocalDateTime;
+
+/**
+ * Kargo takip sayfasının ihtiyaç duyduğu alanlar; takip kodu sorgusunda doğrudan JPQL {@code SELECT new} ile oluşturulur.
+ */
+public record CargoTrackingView(
+        String trackingCode,
+        CargoSituation status,
+        LocalDateTime deliveredTime,
+        String description,
+        Double selfLatitude,
+        Double selfLongitude,
+        String selfAddress,
+        String selfCity,
+        String selfDistrict,
+        String selfPostalCode,
+        Double targetLatitude,
+        Double targetLongitude,
+        String targetAddress,
+        String targetCity,
+        String targetDistrict,
+        String targetPostalCode,
+        Long driverId,
+        String driverFirstName,
+        String driverLastName,
+        String driverPhone,
+        Double driverLatitude,
+        Double driverLongitude,
+        String driverAddress,
+        String driverCity,
+        String driverDistrict,
+        String driverPostalCode) {
+
+    public LocationDTO selfLocation() {
+        return CargoView.location(selfLatitude, selfLongitude, selfAddress, selfCity, selfDistrict, selfPostalCode);
+    }
+
+    public LocationDTO targetLocation() {
+        return CargoView.location(targetLatitude, targetLongitude, targetAddress, targetCity, targetDistrict, targetPostalCode);
+    }
+
+    public LocationDTO driverLocation() {
+        return CargoView.location(driverLatitude, driverLongitude, driverAddress, driverCity, driverDistrict, driverPostalCode);
+    }
+
+    public String driverName() {
+        return driverId != null ? driverFirstName + " " + driverLastName : null;
+    }
+}
@@ -0,0 +1,86 @@
+package com.hilgo.rotax.dto;
+
+import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.enums.Size;
+
+import java.time.LocalDateTime;
+
+/**
+ * Kargonun okuma görünümü; JPQL {@code SELECT new} ile doğrudan sorgu satırından oluşturulur.
+ * Kargo ve kullanıcı entity'leri persistence context'e yüklenmez.
+ * Gömülü konumun ya da ölçünün tüm alanları boşsa DTO'da o nesne null olur (Hibernate'in entity'de yaptığı gibi).
+ */
+public record CargoView(
+        Long id,
+        CargoSituation cargoSituation,
+        String phoneNumber,
+        String description,
+        LocalDateTime takingTime,
+        LocalDateTime deliveredTime,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Double selfLatitude,
+        Double selfLongitude,
+        String selfAddress,
+        String selfCity,
+        String selfDistrict,
+        String selfPostalCode,
+        Double targetLatitude,
+        Double targetLongitude,
+        String targetAddress,
+        String targetCity,
+        String targetDistrict,
+        String targetPostalCode,
+        Double weight,
+        Double width,
+        Double height,
+        Double length,
+        Size size,
+        Long distributorId,
+        String distributorFirstName,
+        String distributorLastName,
+        Long driverId,
+        String driverFirstName,
+        String driverLastName) {
+
+    public CargoDTO toDTO() {
+        return CargoDTO.builder()
+                .id(id)
+                .selfLocation(location(selfLatitude, selfLongitude, selfAddress, selfCity, selfDistrict, selfPostalCode))
+                .targetLocation(location(targetLatitude, targetLongitude, targetAddress, targetCity, targetDistrict, targetPostalCode))
+                .measure(weight != null || width != null || height != null || length != null || size != null ? MeasureDTO.builder()
+                        .weight(weight)
+                        .width(width)
+                        .height(height)
+                        .length(length)
+                        .size(size)
+                        .build() : null)
+                .cargoSituation(cargoSituation)
+                .phoneNumber(phoneNumber)
+                .description(description)
+                .takingTime(takingTime)
+                .deliveredTime(deliveredTime)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .distributorId(distributorId)
+                .distributorName(distributorFirstName + " " + distributorLastName)
+                .driverId(driverId)
+                .driverName(driverId != null ? driverFirstName + " " + driverLastName : null)
+                .build();
+    }
+
+    static LocationDTO location(Double latitude, Double longitude, String address,
+                                String city, String district, String postalCode) {
+        if (latitude == null && longitude == null && address == null && city == null && district == null && postalCode == null) {
+            return null;
+        }
+        return LocationDTO.builder()
+                .latitude(latitude)
+                .longitude(longitude)
+                .address(address)
+                .city(city)
+                .district(district)
+                .postalCode(postalCode)
+                .build();
+    }
+}
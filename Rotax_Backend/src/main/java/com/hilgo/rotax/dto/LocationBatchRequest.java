@@ -0,0 +1,23 @@
+package com.hilgo.rotax.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LocationBatchRequest {
+    // Bağlantı koptuğunda cihazda biriken konumlar, eskiden yeniye sıralı
+    @NotEmpty(message = "Points are required")
+    @Size(max = 1000, message = "At most 1000 points can be sent at once")
+    private List<@Valid LocationPointDTO> points;
+}
@@ -0,0 +1,21 @@
+package com.hilgo.rotax.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MatchingRunDTO {
+    private int openCargos;
+    private int availableDrivers;
+    private int groups;    // Ortak aday sürücüsü olmayan, ayrı çözülen kargo grupları
+    private int proposed;  // Eşleştirme motorunun önerdiği atamalar
+    private int assigned;  // Veritabanına yazılan atamalar
+    private int conflicts; // Bu arada başka bir sürücü tarafından alınan kargolar
+    private long durationMs;
+    private boolean skipped; // Önceki tur hâlâ sürüyorsa
+}
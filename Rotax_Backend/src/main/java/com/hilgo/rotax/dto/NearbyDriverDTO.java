@@ -0,0 +1,21 @@
+package com.hilgo.rotax.dto;
+
+import com.hilgo.rotax.enums.CarType;
+import com.hilgo.rotax.enums.DriverStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NearbyDriverDTO {
+    private Long driverId;
+    private Double latitude;
+    private Double longitude;
+    private Double distance; // in kilometers
+    private DriverStatus driverStatus;
+    private CarType carType;
+}
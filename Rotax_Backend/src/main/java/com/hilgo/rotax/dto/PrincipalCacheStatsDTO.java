@@ -0,0 +1,20 @@
+package com.hilgo.rotax.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PrincipalCacheStatsDTO {
+    private int size;
+    private int maxSize;
+    private long hits;
+    private long misses;
+    private long evictions;   // Boyut sınırı nedeniyle atılan kayıtlar
+    private long expirations; // Süresi dolduğu için yeniden yüklenen kayıtlar
+    private double hitRate;
+}
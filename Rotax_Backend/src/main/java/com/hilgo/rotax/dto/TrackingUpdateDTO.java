@@ -0,0 +1,29 @@
+package com.hilgo.rotax.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.hilgo.rotax.enums.CargoSituation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Canlı takip akışında gönderilen değişiklik. Yalnızca değişen alanlar doludur.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TrackingUpdateDTO {
+    private String trackingCode;
+    private CargoSituation status;
+    private LocationDTO currentLocation;
+    private Double estimatedTimeOfArrival; // in minutes
+    private String driverName;
+    private String driverPhone;
+    private LocalDateTime deliveryTime;
+    private LocalDateTime updatedAt;
+}
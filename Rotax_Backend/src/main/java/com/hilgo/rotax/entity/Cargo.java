@@ -14,19 +14,43 @@ import java.time.LocalDateTime;
 @Setter
 @Builder
 @Entity
+@NamedEntityGraph(name = Cargo.VIEW_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("distributor"),
+                @NamedAttributeNode("driver")})
 public class Cargo {
 
+    // Kargo görünümü (CargoDTO) için gereken ilişkiler; konumlar ve ölçü zaten kargo satırındadır, tek SQL ile yüklenir
+    public static final String VIEW_GRAPH = "Cargo.view";
+
+    // Id'ler sequence'tan 50'lik bloklar halinde (pooled-lo) alınır; IDENTITY'nin aksine insert'ler JDBC batch ile gönderilebilir.
+    // Tabloda ayrıca self_latitude/self_longitude'dan üretilen self_geog sütunu vardır; yakınlık sorguları onu kullanır (bkz. V5 migration)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cargo_seq")
+    @SequenceGenerator(name = "cargo_seq", sequenceName = "cargo_seq", allocationSize = 50)
     private Long id;
 
-    @OneToOne
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "latitude", column = @Column(name = "self_latitude")),
+            @AttributeOverride(name = "longitude", column = @Column(name = "self_longitude")),
+            @AttributeOverride(name = "address", column = @Column(name = "self_address")),
+            @AttributeOverride(name = "city", column = @Column(name = "self_city")),
+            @AttributeOverride(name = "district", column = @Column(name = "self_district")),
+            @AttributeOverride(name = "postalCode", column = @Column(name = "self_postal_code"))})
     private Location selfLocation;
 
-    @OneToOne
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "latitude", column = @Column(name = "target_latitude")),
+            @AttributeOverride(name = "longitude", column = @Column(name = "target_longitude")),
+            @AttributeOverride(name = "address", column = @Column(name = "target_address")),
+            @AttributeOverride(name = "city", column = @Column(name = "target_city")),
+            @AttributeOverride(name = "district", column = @Column(name = "target_district")),
+            @AttributeOverride(name = "postalCode", column = @Column(name = "target_postal_code"))})
     private Location targetLocation;
 
-    @OneToOne
+    @Embedded
     private Measure measure;
 
     @Enumerated(EnumType.STRING)
@@ -2,10 +2,12 @@ package com.hilgo.rotax.entity;
 
 import java.util.List;
 
+import jakarta.persistence.AttributeOverride;
+import jakarta.persistence.AttributeOverrides;
 import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.OneToMany;
-import jakarta.persistence.OneToOne;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -24,7 +26,14 @@ public class Distributor extends User{
     @Column
     private String vkn;
 
-    @OneToOne
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "latitude", column = @Column(name = "location_latitude")),
+            @AttributeOverride(name = "longitude", column = @Column(name = "location_longitude")),
+            @AttributeOverride(name = "address", column = @Column(name = "location_address")),
+            @AttributeOverride(name = "city", column = @Column(name = "location_city")),
+            @AttributeOverride(name = "district", column = @Column(name = "location_district")),
+            @AttributeOverride(name = "postalCode", column = @Column(name = "location_postal_code"))})
     private Location location;
 
     @OneToMany(mappedBy = "distributor")
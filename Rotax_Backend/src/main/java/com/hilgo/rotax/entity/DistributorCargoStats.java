@@ -0,0 +1,65 @@
+package com.hilgo.rotax.entity;
+
+import com.hilgo.rotax.enums.CargoSituation;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dağıtıcı başına kargo sayaçları. Kargo oluşturma ve durum değişikliklerinde aynı transaction
+ * içinde fark (delta) olarak güncellenir; panel bu satırı tek okumada döndürür.
+ * Sayaçlar gece çalışan uzlaştırma işiyle kargo tablosundan yeniden hesaplanır.
+ */
+@Entity
+@Table(name = "distributor_cargo_stats")
+@NoArgsConstructor
+@Getter
+@Setter
+public class DistributorCargoStats {
+
+    @Id
+    @Column(name = "distributor_id")
+    private Long distributorId;
+
+    private long totalCargos;
+    private long createdCargos;
+    private long assignedCargos;
+    private long pickedUpCargos;
+    private long deliveredCargos;
+    private long cancelledCargos;
+    private long expiredCargos;
+    private long failedCargos;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    public DistributorCargoStats(Long distributorId) {
+        this.distributorId = distributorId;
+    }
+
+    public long count(CargoSituation situation) {
+        return switch (situation) {
+            case CREATED -> createdCargos;
+            case ASSIGNED -> assignedCargos;
+            case PICKED_UP -> pickedUpCargos;
+            case DELIVERED -> deliveredCargos;
+            case CANCELLED -> cancelledCargos;
+            case EXPIRED -> expiredCargos;
+            case FAILED -> failedCargos;
+        };
+    }
+
+    public void add(CargoSituation situation, long delta) {
+        switch (situation) {
+            case CREATED -> createdCargos += delta;
+            case ASSIGNED -> assignedCargos += delta;
+            case PICKED_UP -> pickedUpCargos += delta;
+            case DELIVERED -> deliveredCargos += delta;
+            case CANCELLED -> cancelledCargos += delta;
+            case EXPIRED -> expiredCargos += delta;
+            case FAILED -> failedCargos += delta;
+        }
+    }
+}
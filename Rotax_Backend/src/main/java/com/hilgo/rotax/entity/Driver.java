@@ -1,16 +1,19 @@
 package com.hilgo.rotax.entity;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import com.hilgo.rotax.enums.CarType;
 import com.hilgo.rotax.enums.DriverStatus;
 
+import jakarta.persistence.AttributeOverride;
+import jakarta.persistence.AttributeOverrides;
 import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.OneToMany;
-import jakarta.persistence.OneToOne;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -26,9 +29,21 @@ public class Driver extends User{
     @Column
     private String tc;
 
-    @OneToOne
+    // Tabloda ayrıca location_latitude/location_longitude'dan üretilen location_geog sütunu vardır (bkz. V5 migration)
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "latitude", column = @Column(name = "location_latitude")),
+            @AttributeOverride(name = "longitude", column = @Column(name = "location_longitude")),
+            @AttributeOverride(name = "address", column = @Column(name = "location_address")),
+            @AttributeOverride(name = "city", column = @Column(name = "location_city")),
+            @AttributeOverride(name = "district", column = @Column(name = "location_district")),
+            @AttributeOverride(name = "postalCode", column = @Column(name = "location_postal_code"))})
     private Location location;
 
+    // Konumun en son yazıldığı an (GPS bildirimi ya da durum güncellemesi)
+    @Column(name = "location_updated_at")
+    private LocalDateTime locationUpdatedAt;
+
     @Enumerated(EnumType.STRING)
     private DriverStatus driverStatus =  DriverStatus.OFFLINE;
 
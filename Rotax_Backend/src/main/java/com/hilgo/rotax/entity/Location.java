@@ -3,20 +3,16 @@ package com.hilgo.rotax.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.time.LocalDateTime;
-
-@Entity
+@Embeddable
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 @Builder
+// Konum ayrı bir tablo değil, sahibinin satırına gömülür (kargo alış/teslim noktası, sürücü ve dağıtıcı konumu).
+// Sütun adları sahip entity'de @AttributeOverride ile öneklenir. Tüm sütunlar boşsa Hibernate konumu null okur.
 public class Location {
 
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
     @Column
     private Double latitude;
 
@@ -34,7 +30,4 @@ public class Location {
 
     @Column
     private String postalCode;
-
-    @Column
-    private LocalDateTime updatedAt;
 }
@@ -8,17 +8,14 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-@Entity
+// Kargo satırına gömülü ölçüler (weight, width, length, height, size sütunları)
+@Embeddable
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 public class Measure {
 
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
     @Column
     private Double weight;
 
@@ -34,4 +31,4 @@ public class Measure {
     @Enumerated(EnumType.STRING)
     private Size size;
 
-}
\ No newline at end of file
+}
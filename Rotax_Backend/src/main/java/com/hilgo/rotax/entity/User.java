@@ -65,6 +65,10 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private Boolean credentialsNonExpired = true;
 
+    // Hesap durumu sürümü; şifre veya aktiflik değiştiğinde artırılır, eski sürümü taşıyan token'lar reddedilir
+    @Column(nullable = false)
+    private long tokenVersion;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -85,6 +89,10 @@ public class User implements UserDetails {
         updatedAt = LocalDateTime.now();
     }
 
+    public void revokeTokens() {
+        tokenVersion++;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
@@ -1,10 +1,25 @@
 package com.hilgo.rotax.enums;
 
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Araç tipleri ve yaklaşık taşıma kapasiteleri (azami yük kg, azami bagaj hacmi m³).
+ */
+@Getter
+@RequiredArgsConstructor
 public enum CarType {
-    SUV,
-    SEDAN,
-    HATCHBACK,
-    MINIVAN,
-    PICKUP,
-    MOTORCYCLE
+    SUV(500, 1.5),
+    SEDAN(350, 0.5),
+    HATCHBACK(300, 1.0),
+    MINIVAN(700, 3.0),
+    PICKUP(1000, 3.5),
+    MOTORCYCLE(30, 0.15);
+
+    private final double maxWeightKg;
+    private final double maxVolumeM3;
+
+    public boolean canCarry(double weightKg, double volumeM3) {
+        return weightKg <= maxWeightKg && volumeM3 <= maxVolumeM3;
+    }
 }
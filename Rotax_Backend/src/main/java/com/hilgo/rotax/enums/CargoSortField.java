@@ -0,0 +1,37 @@
+package com.hilgo.rotax.enums;
+
+import java.util.function.Function;
+
+import com.hilgo.rotax.dto.CargoView;
+import com.hilgo.rotax.exception.BadRequestException;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Dağıtıcı kargo listesinin sıralanabileceği alanlar. Yalnızca (distributor, alan, id) indeksi olan
+ * sütunlara izin verilir; rastgele bir alanla sıralama tüm kargoların taranmasına yol açar.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CargoSortField {
+    ID("id", CargoView::id),
+    CREATED_AT("createdAt", CargoView::createdAt),
+    UPDATED_AT("updatedAt", CargoView::updatedAt);
+
+    private final String property;
+    private final Function<CargoView, Object> accessor;
+
+    public Object extract(CargoView cargo) {
+        return accessor.apply(cargo);
+    }
+
+    public static CargoSortField fromProperty(String property) {
+        for (CargoSortField field : values()) {
+            if (field.property.equalsIgnoreCase(property)) {
+                return field;
+            }
+        }
+        throw new BadRequestException("Geçersiz sıralama alanı: " + property + " (id, createdAt, updatedAt kullanılabilir)");
+    }
+}
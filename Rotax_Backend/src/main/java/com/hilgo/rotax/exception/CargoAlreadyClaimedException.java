@@ -0,0 +1,11 @@
+package com.hilgo.rotax.exception;
+
+/**
+ * Kargo, sürücü kabul etmeye çalışırken başka bir sürücü tarafından alınmış ya da
+ * artık teklif edilemez bir duruma geçmişse fırlatılır.
+ */
+public class CargoAlreadyClaimedException extends CargoStateChangedException {
+    public CargoAlreadyClaimedException(String message) {
+        super(message);
+    }
+}
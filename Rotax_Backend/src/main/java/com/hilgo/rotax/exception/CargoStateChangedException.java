@@ -0,0 +1,11 @@
+package com.hilgo.rotax.exception;
+
+/**
+ * Kargo, okunduktan sonra ve koşullu güncelleme yapılmadan önce başka bir isteğin
+ * etkisiyle farklı bir duruma geçmişse fırlatılır.
+ */
+public class CargoStateChangedException extends OperationNotAllowedException {
+    public CargoStateChangedException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,7 @@
 package com.hilgo.rotax.exception;
 
 import com.hilgo.rotax.dto.MessageResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -28,6 +29,13 @@ public class GlobalExceptionHandler {
                 .body(new MessageResponse(ex.getMessage(), false));
     }
 
+    @ExceptionHandler(CargoStateChangedException.class)
+    public ResponseEntity<MessageResponse> handleCargoStateChangedException(CargoStateChangedException ex) {
+        // Aynı kargo için yarışı kaybeden istek (ör. kabul ile iptal); istek geçerli ama kaynağın durumu değişmiş (409)
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new MessageResponse(ex.getMessage(), false));
+    }
+
     @ExceptionHandler(OperationNotAllowedException.class)
     public ResponseEntity<MessageResponse> handleOperationNotAllowedException(OperationNotAllowedException ex) {
         // Bu tür hatalar genellikle iş kuralı ihlalidir ve 'Forbidden' (403) olarak değerlendirilebilir.
@@ -43,6 +51,14 @@ public class GlobalExceptionHandler {
                 .body(new MessageResponse(ex.getMessage(), false));
     }
 
+    @ExceptionHandler(LoginCapacityExceededException.class)
+    public ResponseEntity<MessageResponse> handleLoginCapacityExceededException(LoginCapacityExceededException ex) {
+        // Giriş anlarındaki yığılmada BCrypt işi sınırlıdır; istemci kısa süre sonra tekrar denemeli (503)
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponse(ex.getMessage(), false));
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<MessageResponse> handleAccessDeniedException(AccessDeniedException ex) {
         return ResponseEntity.status(HttpStatus.FORBIDDEN)
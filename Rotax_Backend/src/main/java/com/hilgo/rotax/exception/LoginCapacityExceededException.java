@@ -0,0 +1,11 @@
+package com.hilgo.rotax.exception;
+
+/**
+ * Giriş doğrulama havuzu dolu olduğunda ya da doğrulama sırası beklenen sürede gelmediğinde fırlatılır.
+ * İstemci kısa bir süre sonra tekrar denemelidir (503).
+ */
+public class LoginCapacityExceededException extends RuntimeException {
+    public LoginCapacityExceededException(String message) {
+        super(message);
+    }
+}
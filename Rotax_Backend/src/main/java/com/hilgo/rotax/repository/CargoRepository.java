@@ -1,36 +1,178 @@
 package com.hilgo.rotax.repository;
 
+import com.hilgo.rotax.dto.CargoTrackingView;
+import com.hilgo.rotax.dto.CargoView;
 import com.hilgo.rotax.entity.Cargo;
 import com.hilgo.rotax.entity.Distributor;
 import com.hilgo.rotax.entity.Driver;
 import com.hilgo.rotax.enums.CargoSituation;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Repository
-public interface CargoRepository extends JpaRepository<Cargo, Long> {
+public interface CargoRepository extends JpaRepository<Cargo, Long>, CargoViewScrollRepository {
+
+    /**
+     * {@link CargoView} projeksiyonunun ortak SELECT/FROM kısmı; sorgular buna kendi WHERE koşulunu ekler.
+     */
+    String CARGO_VIEW_QUERY = "SELECT new com.hilgo.rotax.dto.CargoView(c.id, c.cargoSituation, c.phoneNumber, c.description, " +
+            "c.takingTime, c.deliveredTime, c.createdAt, c.updatedAt, " +
+            "c.selfLocation.latitude, c.selfLocation.longitude, c.selfLocation.address, c.selfLocation.city, " +
+            "c.selfLocation.district, c.selfLocation.postalCode, " +
+            "c.targetLocation.latitude, c.targetLocation.longitude, c.targetLocation.address, c.targetLocation.city, " +
+            "c.targetLocation.district, c.targetLocation.postalCode, " +
+            "c.measure.weight, c.measure.width, c.measure.height, c.measure.length, c.measure.size, " +
+            "d.id, d.firstName, d.lastName, dr.id, dr.firstName, dr.lastName) " +
+            "FROM Cargo c JOIN c.distributor d LEFT JOIN c.driver dr ";
+
     List<Cargo> findByDistributor(Distributor distributor);
     
     List<Cargo> findByDriver(Driver driver);
     
+    @EntityGraph(Cargo.VIEW_GRAPH)
     List<Cargo> findByCargoSituation(CargoSituation situation);
     
     List<Cargo> findByDistributorAndCargoSituation(Distributor distributor, CargoSituation situation);
     
     List<Cargo> findByDriverAndCargoSituation(Driver driver, CargoSituation situation);
     
+    @EntityGraph(Cargo.VIEW_GRAPH)
     Optional<Cargo> findByVerificationCode(String verificationCode);
     
-    @Query("SELECT c FROM Cargo c WHERE c.cargoSituation = :situation AND " +
-           "ST_DistanceSphere(ST_MakePoint(c.selfLocation.longitude, c.selfLocation.latitude), " +
-           "ST_MakePoint(:longitude, :latitude)) <= :radiusInMeters")
-    List<Cargo> findNearbyCargos(CargoSituation situation, Double latitude, Double longitude, Double radiusInMeters);
+    /**
+     * Alış noktası verilen noktaya {@code radiusInMeters} mesafedeki kargoların id'leri, yakından uzağa.
+     * {@code cargo.self_geog} üzerindeki GiST indeksi hem ST_DWithin filtresi hem de {@code <->} KNN sıralaması için kullanılır.
+     */
+    @Query(value = "SELECT c.id FROM cargo c " +
+                   "WHERE c.cargo_situation = :situation " +
+                   "AND ST_DWithin(c.self_geog, CAST(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) AS geography), :radiusInMeters) " +
+                   "ORDER BY c.self_geog <-> CAST(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) AS geography) " +
+                   "LIMIT :limit", nativeQuery = true)
+    List<Long> findNearbyCargoIds(String situation, Double latitude, Double longitude, Double radiusInMeters, int limit);
+
+    /**
+     * En yakın {@code limit} kargo, kargo görünümüyle birlikte ve mesafeye göre sıralı.
+     */
+    default List<Cargo> findNearbyCargos(CargoSituation situation, Double latitude, Double longitude,
+                                         Double radiusInMeters, int limit) {
+        List<Long> ids = findNearbyCargoIds(situation.name(), latitude, longitude, radiusInMeters, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Cargo> cargos = findAllById(ids).stream().collect(Collectors.toMap(Cargo::getId, Function.identity()));
+        return ids.stream().map(cargos::get).filter(Objects::nonNull).toList();
+    }
 
+    @EntityGraph(Cargo.VIEW_GRAPH)
     Page<Cargo> findByDistributorId(Long id, Pageable pageable);
-}
\ No newline at end of file
+
+    @Override
+    @EntityGraph(Cargo.VIEW_GRAPH)
+    List<Cargo> findAllById(Iterable<Long> ids);
+
+    /**
+     * Sürücünün kargo sayıları, duruma göre gruplanmış. Kargolar belleğe yüklenmez.
+     */
+    @Query("SELECT c.cargoSituation AS situation, COUNT(c) AS total FROM Cargo c " +
+           "WHERE c.driver.id = :driverId GROUP BY c.cargoSituation")
+    List<SituationCount> countByDriverGroupedBySituation(Long driverId);
+
+    /**
+     * Dağıtıcının kargo sayfası, entity yüklemeden doğrudan {@link CargoView} olarak.
+     */
+    @Query(value = CARGO_VIEW_QUERY + "WHERE d.id = :distributorId",
+           countQuery = "SELECT COUNT(c) FROM Cargo c WHERE c.distributor.id = :distributorId")
+    Page<CargoView> findViewsByDistributorId(Long distributorId, Pageable pageable);
+
+    @Query(CARGO_VIEW_QUERY + "WHERE c.id = :id")
+    Optional<CargoView> findViewById(Long id);
+
+    /**
+     * Sürücünün verilen durumlardaki kargoları, tek sorguda {@link CargoView} olarak.
+     * Sonuç sayısı {@code pageable} ile sınırlandırılabilir.
+     */
+    @Query(CARGO_VIEW_QUERY + "WHERE dr.id = :driverId AND c.cargoSituation IN :situations")
+    List<CargoView> findViewsByDriverAndSituationIn(Long driverId, Collection<CargoSituation> situations, Pageable pageable);
+
+    /**
+     * Dağıtıcının verilen durumlardaki kargoları, tek sorguda {@link CargoView} olarak.
+     */
+    @Query(CARGO_VIEW_QUERY + "WHERE d.id = :distributorId AND c.cargoSituation IN :situations")
+    List<CargoView> findViewsByDistributorAndSituationIn(Long distributorId, Collection<CargoSituation> situations, Pageable pageable);
+
+    /**
+     * Takip sayfası için kargo, teslimat noktası ve sürücü bilgileri tek sorguda.
+     */
+    @Query("SELECT new com.hilgo.rotax.dto.CargoTrackingView(c.verificationCode, c.cargoSituation, c.deliveredTime, c.description, " +
+           "c.selfLocation.latitude, c.selfLocation.longitude, c.selfLocation.address, c.selfLocation.city, " +
+           "c.selfLocation.district, c.selfLocation.postalCode, " +
+           "c.targetLocation.latitude, c.targetLocation.longitude, c.targetLocation.address, c.targetLocation.city, " +
+           "c.targetLocation.district, c.targetLocation.postalCode, " +
+           "dr.id, dr.firstName, dr.lastName, dr.phoneNumber, " +
+           "dr.location.latitude, dr.location.longitude, dr.location.address, dr.location.city, " +
+           "dr.location.district, dr.location.postalCode) " +
+           "FROM Cargo c LEFT JOIN c.driver dr WHERE c.verificationCode = :verificationCode")
+    Optional<CargoTrackingView> findTrackingViewByVerificationCode(String verificationCode);
+
+    @Query("SELECT DISTINCT c.driver.id FROM Cargo c WHERE c.driver.id IN :driverIds AND c.cargoSituation IN :situations")
+    List<Long> findDriverIdsWithCargoIn(Collection<Long> driverIds, Collection<CargoSituation> situations);
+
+    /**
+     * Kargoyu yalnızca hâlâ {@code expected} durumundaysa sürücüye atar. Kontrol ve güncelleme
+     * tek bir koşullu UPDATE ile yapılır; aynı anda gelen isteklerden yalnızca biri satırı günceller.
+     * @return Güncellenen satır sayısı (1: kargo alındı, 0: kargo başka bir durumda ya da mevcut değil).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cargo c SET c.driver = :driver, c.cargoSituation = :claimed, c.updatedAt = :now " +
+           "WHERE c.id = :cargoId AND c.cargoSituation = :expected")
+    int claim(Long cargoId, Driver driver, CargoSituation expected, CargoSituation claimed, LocalDateTime now);
+
+    /**
+     * Kargoyu yalnızca hâlâ {@code expected} durumundaysa {@code next} durumuna geçirir (ör. dağıtıcının iptali).
+     * Okuma ile yazma arasında başka bir istek kargoyu ilerlettiyse (ör. sürücü kabul etti) üzerine yazılmaz.
+     * @return Güncellenen satır sayısı (1: geçiş yapıldı, 0: kargo bu arada başka bir duruma geçti).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cargo c SET c.cargoSituation = :next, c.updatedAt = :now " +
+           "WHERE c.id = :cargoId AND c.cargoSituation = :expected")
+    int transition(Long cargoId, CargoSituation expected, CargoSituation next, LocalDateTime now);
+
+    /**
+     * Sürücünün kargosunu bir sonraki duruma geçirir; kargo hâlâ bu sürücüde ve {@code expected} durumundaysa yazılır.
+     * Alış ve teslim zamanı null verilirse mevcut değer korunur.
+     * @return Güncellenen satır sayısı (1: geçiş yapıldı, 0: kargo bu arada değişti ya da sürücüye ait değil).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cargo c SET c.cargoSituation = :next, c.takingTime = COALESCE(:takingTime, c.takingTime), " +
+           "c.deliveredTime = COALESCE(:deliveredTime, c.deliveredTime), c.updatedAt = :now " +
+           "WHERE c.id = :cargoId AND c.driver.id = :driverId AND c.cargoSituation = :expected")
+    int advance(Long cargoId, Long driverId, CargoSituation expected, CargoSituation next,
+                LocalDateTime takingTime, LocalDateTime deliveredTime, LocalDateTime now);
+
+    /**
+     * Yalnızca açıklamayı yazar; eşzamanlı bir durum değişikliğini eski entity ile ezmez.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cargo c SET c.description = :description, c.updatedAt = :now WHERE c.id = :cargoId")
+    int updateDescription(Long cargoId, String description, LocalDateTime now);
+
+    interface SituationCount {
+        CargoSituation getSituation();
+
+        long getTotal();
+    }
+}
@@ -0,0 +1,22 @@
+package com.hilgo.rotax.repository;
+
+import com.hilgo.rotax.dto.CargoView;
+import com.hilgo.rotax.enums.CargoSortField;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+/**
+ * Dağıtıcı kargolarının (sıralama alanı, id) anahtarıyla ileri doğru sayfalanması.
+ * OFFSET ve COUNT kullanılmaz; her sayfa önceki sayfanın son satırından sonra başlayan bir indeks aralığı okur.
+ */
+public interface CargoViewScrollRepository {
+
+    /**
+     * @param afterValue Önceki sayfanın son satırındaki sıralama alanı değeri; ilk sayfa için null
+     * @param afterId    Önceki sayfanın son satırının id'si; ilk sayfa için null
+     * @param limit      Okunacak en fazla satır
+     */
+    List<CargoView> scrollViewsByDistributorId(Long distributorId, CargoSortField sortField, Sort.Direction direction,
+                                               Object afterValue, Long afterId, int limit);
+}
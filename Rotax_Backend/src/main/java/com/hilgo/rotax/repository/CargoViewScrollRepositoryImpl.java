@@ -0,0 +1,53 @@
+package com.hilgo.rotax.repository;
+
+import com.hilgo.rotax.dto.CargoView;
+import com.hilgo.rotax.enums.CargoSortField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+class CargoViewScrollRepositoryImpl implements CargoViewScrollRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<CargoView> scrollViewsByDistributorId(Long distributorId, CargoSortField sortField, Sort.Direction direction,
+                                                      Object afterValue, Long afterId, int limit) {
+        // Sütun adı yalnızca enum'dan gelir; istekten gelen metin sorguya eklenmez
+        String column = "c." + sortField.getProperty();
+        String order = direction.isAscending() ? "ASC" : "DESC";
+        String after = direction.isAscending() ? ">" : "<";
+
+        StringBuilder jpql = new StringBuilder(CargoRepository.CARGO_VIEW_QUERY)
+                .append("WHERE c.distributor.id = :distributorId");
+        if (afterId != null) {
+            if (sortField == CargoSortField.ID) {
+                jpql.append(" AND c.id ").append(after).append(" :afterId");
+            } else {
+                // İlk koşul indeks aralığının başlangıcını verir, ikincisi eşit değerli satırları id ile ayırır
+                jpql.append(" AND ").append(column).append(' ').append(after).append("= :afterValue")
+                        .append(" AND (").append(column).append(' ').append(after).append(" :afterValue")
+                        .append(" OR c.id ").append(after).append(" :afterId)");
+            }
+        }
+        jpql.append(" ORDER BY ").append(column).append(' ').append(order);
+        if (sortField != CargoSortField.ID) {
+            jpql.append(", c.id ").append(order);
+        }
+
+        TypedQuery<CargoView> query = entityManager.createQuery(jpql.toString(), CargoView.class)
+                .setParameter("distributorId", distributorId)
+                .setMaxResults(limit);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+            if (sortField != CargoSortField.ID) {
+                query.setParameter("afterValue", afterValue);
+            }
+        }
+        return query.getResultList();
+    }
+}
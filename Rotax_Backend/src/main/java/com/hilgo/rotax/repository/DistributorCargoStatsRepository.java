@@ -0,0 +1,22 @@
+package com.hilgo.rotax.repository;
+
+import com.hilgo.rotax.entity.DistributorCargoStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DistributorCargoStatsRepository extends JpaRepository<DistributorCargoStats, Long> {
+
+    /**
+     * Sayaç satırını güncellemek üzere kilitleyerek okur; aynı dağıtıcının eşzamanlı
+     * kargo işlemleri bu satırda sıraya girer, farklı dağıtıcılar birbirini beklemez.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DistributorCargoStats s WHERE s.distributorId = :distributorId")
+    Optional<DistributorCargoStats> findForUpdate(Long distributorId);
+}
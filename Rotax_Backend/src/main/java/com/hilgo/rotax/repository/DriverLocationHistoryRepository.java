@@ -0,0 +1,186 @@
+package com.hilgo.rotax.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sürücü konum geçmişi için yalnızca ekleme yapılan (append-only) tablo.
+ * Yazma yolu yüksek hacimli olduğundan JPA yerine doğrudan JDBC kullanılır.
+ * <p>
+ * PostgreSQL'de tablo {@code recorded_at} üzerinden aylık bölümlere (partition) ayrılır;
+ * eski veriler satır silmek yerine bölümün tamamı düşürülerek temizlenir.
+ * Ana tablo ve indeksleri Flyway migration'ı (V7) ile oluşturulur; burada yalnızca aylık bölümler yönetilir.
+ * Flyway'in çalışmadığı H2 test veritabanında tablo bölümlenmeden açılışta oluşturulur.
+ * Bölümler ana tabloya bağlı olduğundan bean migration'lar uygulandıktan sonra başlatılır.
+ */
+@Slf4j
+@Repository
+@DependsOnDatabaseInitialization
+@RequiredArgsConstructor
+public class DriverLocationHistoryRepository implements InitializingBean {
+
+    private static final String TABLE = "driver_location_history";
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    // PostgreSQL tek ifadede en fazla 65535 parametre kabul eder; satır başına 4 parametre
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+    // Akış halinde okurken sunucudan tek seferde çekilen satır sayısı
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private boolean partitioned;
+
+    @Override
+    public void afterPropertiesSet() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        partitioned = "PostgreSQL".equalsIgnoreCase(database);
+
+        if (!partitioned) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                    "driver_id BIGINT NOT NULL, " +
+                    "latitude DOUBLE PRECISION NOT NULL, " +
+                    "longitude DOUBLE PRECISION NOT NULL, " +
+                    "recorded_at TIMESTAMP NOT NULL)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + TABLE + "_driver_time ON " + TABLE + " (driver_id, recorded_at)");
+            return;
+        }
+
+        String relkind = jdbcTemplate.query("SELECT c.relkind FROM pg_class c WHERE c.relname = ? AND pg_table_is_visible(c.oid)",
+                rs -> rs.next() ? rs.getString(1) : null, TABLE);
+        if (relkind == null) {
+            log.warn("{} tablosu bulunamadı; migration'ların uygulandığını kontrol edin", TABLE);
+            partitioned = false;
+            return;
+        }
+        if (!"p".equals(relkind)) {
+            log.warn("{} tablosu bölümlenmemiş olarak mevcut; aylık bölümleme ve bölüm düşürme devre dışı", TABLE);
+            partitioned = false;
+            return;
+        }
+
+        // Zamanlanmış bakım çalışmadan gelen ilk yazmalar için içinde bulunulan ay ve sonraki ay hazır olsun
+        createMonthlyPartition(YearMonth.now());
+        createMonthlyPartition(YearMonth.now().plusMonths(1));
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    /**
+     * Noktaları çok satırlı INSERT ifadeleriyle yazar (ifade başına en fazla {@value #MAX_ROWS_PER_STATEMENT} satır).
+     * @return Eklenen satır sayısı.
+     */
+    public int insertAll(List<HistoryPoint> points) {
+        int inserted = 0;
+        for (int from = 0; from < points.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<HistoryPoint> chunk = points.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, points.size()));
+            inserted += insertChunk(chunk);
+        }
+        return inserted;
+    }
+
+    private int insertChunk(List<HistoryPoint> points) {
+        if (points.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO " + TABLE + " (driver_id, latitude, longitude, recorded_at) VALUES ");
+        List<Object> args = new ArrayList<>(points.size() * 4);
+        for (int i = 0; i < points.size(); i++) {
+            HistoryPoint point = points.get(i);
+            sql.append(i == 0 ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+            args.add(point.getDriverId());
+            args.add(point.getLatitude());
+            args.add(point.getLongitude());
+            args.add(Timestamp.valueOf(point.getRecordedAt()));
+        }
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    /**
+     * Sürücünün [from, to) aralığındaki noktalarını zaman sırasıyla akış olarak döndürür.
+     * Satırlar sunucu tarafı imleçle parça parça çekilir, bu yüzden aralığın tamamı belleğe yüklenmez.
+     * PostgreSQL imleci yalnızca açık bir transaction içinde kullanır; akış çağıran tarafından kapatılmalıdır.
+     */
+    public Stream<HistoryPoint> streamByDriverBetween(Long driverId, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.queryForStream((Connection connection) -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "SELECT driver_id, latitude, longitude, recorded_at FROM " + TABLE +
+                    " WHERE driver_id = ? AND recorded_at >= ? AND recorded_at < ? ORDER BY recorded_at");
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            ps.setLong(1, driverId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            return ps;
+        }, (rs, rowNum) -> new HistoryPoint(
+                rs.getLong("driver_id"),
+                rs.getDouble("latitude"),
+                rs.getDouble("longitude"),
+                rs.getTimestamp("recorded_at").toLocalDateTime()));
+    }
+
+    /**
+     * Verilen ay için bölüm yoksa oluşturur.
+     */
+    public void createMonthlyPartition(YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) +
+                " PARTITION OF " + TABLE +
+                " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    /**
+     * Mevcut aylık bölümlerin ayları.
+     */
+    public List<YearMonth> findPartitionMonths() {
+        return jdbcTemplate.queryForList(
+                "SELECT child.relname FROM pg_inherits i " +
+                "JOIN pg_class parent ON parent.oid = i.inhparent " +
+                "JOIN pg_class child ON child.oid = i.inhrelid " +
+                "WHERE parent.relname = ?", String.class, TABLE).stream()
+                .filter(name -> name.startsWith(PARTITION_PREFIX))
+                .map(name -> YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Bölümü tablodan ayırıp siler; satır bazlı DELETE ve ardından gelen VACUUM yükü oluşmaz.
+     */
+    public void dropPartition(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(month));
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    @Value
+    public static class HistoryPoint {
+        Long driverId;
+        double latitude;
+        double longitude;
+        LocalDateTime recordedAt;
+    }
+}
@@ -6,8 +6,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Repository
 public interface DriverRepository extends JpaRepository<Driver, Long> {
@@ -15,11 +20,32 @@ public interface DriverRepository extends JpaRepository<Driver, Long> {
     
     @Query("SELECT d FROM Driver d WHERE d.driverStatus = :status")
     List<Driver> findAllByDriverStatus(DriverStatus status);
+
+    List<Driver> findAllByDriverStatusIn(Collection<DriverStatus> statuses);
     
-    @Query("SELECT d FROM Driver d WHERE d.driverStatus = :status AND " +
-           "ST_DistanceSphere(ST_MakePoint(d.location.longitude, d.location.latitude), " +
-           "ST_MakePoint(:longitude, :latitude)) <= :radiusInMeters")
-    List<Driver> findNearbyDrivers(DriverStatus status, Double latitude, Double longitude, Double radiusInMeters);
+    /**
+     * Verilen noktaya {@code radiusInMeters} mesafedeki sürücülerin id'leri, yakından uzağa.
+     * {@code driver.location_geog} üzerindeki GiST indeksi hem ST_DWithin filtresi hem de {@code <->} KNN sıralaması için kullanılır.
+     */
+    @Query(value = "SELECT d.user_id FROM driver d " +
+                   "WHERE d.driver_status IN (:statuses) " +
+                   "AND ST_DWithin(d.location_geog, CAST(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) AS geography), :radiusInMeters) " +
+                   "ORDER BY d.location_geog <-> CAST(ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326) AS geography) " +
+                   "LIMIT :limit", nativeQuery = true)
+    List<Long> findNearbyDriverIds(Collection<String> statuses, Double latitude, Double longitude, Double radiusInMeters, int limit);
+
+    /**
+     * En yakın {@code limit} sürücü, mesafeye göre sıralı.
+     */
+    default List<Driver> findNearbyDrivers(Collection<DriverStatus> statuses, Double latitude, Double longitude,
+                                           Double radiusInMeters, int limit) {
+        List<Long> ids = findNearbyDriverIds(statuses.stream().map(Enum::name).toList(), latitude, longitude, radiusInMeters, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Driver> drivers = findAllById(ids).stream().collect(Collectors.toMap(Driver::getId, Function.identity()));
+        return ids.stream().map(drivers::get).filter(Objects::nonNull).toList();
+    }
 
     boolean existsByTc(String tc);
 }
\ No newline at end of file
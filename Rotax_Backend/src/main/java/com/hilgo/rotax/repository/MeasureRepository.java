@@ -1,9 +0,0 @@
-package com.hilgo.rotax.repository;
-
-import com.hilgo.rotax.entity.Measure;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-
-@Repository
-public interface MeasureRepository extends JpaRepository<Measure, Long> {
-}
\ No newline at end of file
@@ -2,16 +2,33 @@ package com.hilgo.rotax.repository;
 
 import com.hilgo.rotax.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User,Long> {
     Optional<User> findByUsername(String username);
+
+    // Yalnızca id gerektiğinde kullanıcı satırının tamamı yüklenmez
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(String username);
+
     Optional<User> findByEmail(String email);
     Optional<User> findByPhoneNumber(String phoneNumber);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
     boolean existsByPhoneNumber(String phoneNumber);
+
+    /**
+     * Şifre hash'ini yalnızca okunduğundan beri değişmediyse değiştirir (arka plan hash yenilemesi için).
+     * @return Güncellenen satır sayısı (0: şifre bu arada değişmiş).
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :upgradedHash WHERE u.id = :id AND u.password = :currentHash")
+    int updatePasswordIfUnchanged(Long id, String currentHash, String upgradedHash);
 }
@@ -0,0 +1,106 @@
+package com.hilgo.rotax.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.hilgo.rotax.entity.User;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stateless JWT doğrulaması için hesap durumlarının bellek içi kopyası; istek başına veritabanına gidilmez.
+ * Yalnızca varsayılandan farklı hesaplar tutulur: pasif hesaplar (denylist) ve token sürümü artırılmış
+ * hesaplar. Token'daki sürüm buradakinden küçükse token iptal edilmiş sayılır.
+ * Açılışta veritabanından yüklenir ve updated_at üzerinden periyodik olarak tazelenir; diğer uygulama
+ * örneklerindeki değişiklikler en geç bir tazeleme aralığında görülür. Bu örnekteki değişiklikler
+ * {@link #update(User)} ile commit sonrasında hemen uygulanır.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountStateRegistry {
+
+    private static final String LOAD_SQL =
+            "SELECT user_id, enabled, token_version FROM app_user WHERE enabled = false OR token_version > 0";
+
+    private static final String CHANGED_SQL =
+            "SELECT user_id, enabled, token_version FROM app_user WHERE updated_at > ?";
+
+    // Commit'i geciken işlemler ve örnekler arası saat farkı için önceki turla örtüşen pencere
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, AccountState> states = new ConcurrentHashMap<>();
+    private volatile LocalDateTime refreshedAt;
+
+    @PostConstruct
+    void load() {
+        try {
+            LocalDateTime started = LocalDateTime.now();
+            jdbcTemplate.query(LOAD_SQL, rs -> {
+                apply(rs.getLong("user_id"), rs.getBoolean("enabled"), rs.getLong("token_version"));
+            });
+            refreshedAt = started;
+            log.info("Hesap durumu kaydı yüklendi: {} hesap", states.size());
+        } catch (Exception e) {
+            // Şema henüz hazır değilse ilk tazelemede yeniden denenir
+            log.warn("Hesap durumu kaydı yüklenemedi: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.account-state-refresh-ms:30000}")
+    public void refresh() {
+        if (refreshedAt == null) {
+            load();
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        jdbcTemplate.query(CHANGED_SQL, rs -> {
+            apply(rs.getLong("user_id"), rs.getBoolean("enabled"), rs.getLong("token_version"));
+        }, Timestamp.valueOf(refreshedAt.minus(REFRESH_OVERLAP)));
+        refreshedAt = started;
+    }
+
+    /**
+     * Kaydedilen hesabın durumunu işlem commit edildikten sonra uygular.
+     */
+    public void update(User user) {
+        Long userId = user.getId();
+        boolean enabled = user.isEnabled();
+        long tokenVersion = user.getTokenVersion();
+        AfterCommit.run(() -> apply(userId, enabled, tokenVersion));
+    }
+
+    public boolean isDisabled(Long userId) {
+        AccountState state = states.get(userId);
+        return state != null && !state.enabled();
+    }
+
+    public boolean isRevoked(Long userId, long tokenVersion) {
+        AccountState state = states.get(userId);
+        return state != null && tokenVersion < state.tokenVersion();
+    }
+
+    // Aynı hesabın eski bir okuması (ör. commit'ten önce başlamış tazeleme) daha yeni sürümü ezmesin
+    private void apply(Long userId, boolean enabled, long tokenVersion) {
+        states.compute(userId, (id, current) -> {
+            if (current != null && current.tokenVersion() > tokenVersion) {
+                return current;
+            }
+            return enabled && tokenVersion == 0 ? null : new AccountState(enabled, tokenVersion);
+        });
+    }
+
+    private record AccountState(boolean enabled, long tokenVersion) {
+    }
+}
@@ -28,6 +28,8 @@ public class AdminService {
     private final UserDocumentRepository userDocumentRepository;
     private final UserRepository userRepository;
     private final EmailService emailService;
+    private final AccountStateRegistry accountStateRegistry;
+    private final PrincipalCache principalCache;
 
     /**
      * Onay bekleyen tüm belgeleri listeler.
@@ -77,7 +79,10 @@ public class AdminService {
 
             if (!user.getEnabled()) {
                 user.setEnabled(true);
+                user.revokeTokens(); // Pasifken verilen token'lar yerine yeni giriş gerekir
                 userRepository.save(user);
+                accountStateRegistry.update(user);
+                principalCache.invalidate(user.getUsername());
                 log.info("Tüm belgeler onaylandı. Kullanıcı hesabı aktive edildi: {}", user.getUsername());
             }
         }
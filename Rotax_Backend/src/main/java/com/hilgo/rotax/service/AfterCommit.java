@@ -0,0 +1,28 @@
+package com.hilgo.rotax.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Bellek içi yapılara yapılan değişiklikleri veritabanı işlemiyle hizalamak için yardımcı sınıf.
+ * Aktif bir işlem varsa eylem commit sonrasına ertelenir (rollback olursa hiç çalışmaz),
+ * yoksa hemen çalıştırılır.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
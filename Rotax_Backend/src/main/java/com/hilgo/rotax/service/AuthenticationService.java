@@ -51,6 +51,10 @@ public class AuthenticationService {
     private final DistributorRepository distributorRepository;
     private final FileStorageService fileStorageService;
     private final UserDocumentRepository userDocumentRepository;
+    private final AccountStateRegistry accountStateRegistry;
+    private final PrincipalCache principalCache;
+    private final LoginVerificationExecutor loginVerificationExecutor;
+    private final PasswordUpgradeService passwordUpgradeService;
 
     @Transactional(readOnly = true)
     public UserDTO getCurrentUser() {
@@ -120,7 +124,10 @@ public class AuthenticationService {
         // Şifreyi güncelle
         User user = resetToken.getUser();
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        user.revokeTokens(); // Eski şifreyle alınmış token'lar geçersiz olsun
         userRepository.save(user);
+        accountStateRegistry.update(user);
+        principalCache.invalidate(user.getUsername());
 
         // Token'ı kullanılmış olarak işaretle
         resetToken.setUsed(true);
@@ -148,7 +155,10 @@ public class AuthenticationService {
 
         // Yeni şifreyi kaydet
         user.setPassword(passwordEncoder.encode(newPassword));
+        user.revokeTokens(); // Eski şifreyle alınmış token'lar geçersiz olsun
         userRepository.save(user);
+        accountStateRegistry.update(user);
+        principalCache.invalidate(user.getUsername());
 
         log.info("Şifre başarıyla değiştirildi: {}", username);
 
@@ -293,13 +303,16 @@ public class AuthenticationService {
         User user = userRepository.findByUsername(request.getUsernameOrEmail())
                 .orElseThrow(() -> new UsernameNotFoundException("Kullanıcı bulunamadı"));
 
-        // Authentication işlemi
-        Authentication authentication = authenticationManager.authenticate(
+        // Authentication işlemi (BCrypt doğrulaması sınırlı havuzda çalışır)
+        Authentication authentication = loginVerificationExecutor.verify(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         user.getUsername(),
                         request.getPassword()
                 )
-        );
+        ));
+
+        // Eski biçimdeki hash girişi bekletmeden arka planda yenilenir
+        passwordUpgradeService.upgradeIfNeeded(user, request.getPassword());
 
         log.info("Login oldum {} - Role: {}", user.getUsername(), user.getRole());
 
@@ -0,0 +1,290 @@
+package com.hilgo.rotax.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hilgo.rotax.dto.BulkCargoResponse;
+import com.hilgo.rotax.dto.CreateCargoRequest;
+import com.hilgo.rotax.dto.LocationDTO;
+import com.hilgo.rotax.dto.MeasureDTO;
+import com.hilgo.rotax.entity.Cargo;
+import com.hilgo.rotax.entity.Distributor;
+import com.hilgo.rotax.entity.Location;
+import com.hilgo.rotax.entity.Measure;
+import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.exception.BadRequestException;
+import com.hilgo.rotax.service.CargoManifestReader.ManifestRow;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dağıtıcının yüklediği kargo manifestinden (JSON dizisi, NDJSON veya CSV) toplu kargo oluşturur.
+ * Manifest akış halinde okunur ve parçalar halinde işlenir: her parçanın satırları fork-join havuzunda
+ * paralel doğrulanır, geçerli satırlar tek transaction içinde tek bir JDBC batch'i ile yazılır (konumlar ve ölçü
+ * kargo satırına gömülüdür). Id'ler Hibernate'in de kullandığı sequence'tan 50'lik bloklar halinde alınır (pooled-lo).
+ * Bir parçanın batch'i başarısız olursa satırları tek tek yazılır; hata yalnızca ilgili satıra raporlanır.
+ */
+@Slf4j
+@Service
+public class CargoBulkImportService {
+
+    // Sequence'ın INCREMENT BY değeri ve Cargo eşlemesindeki allocationSize ile aynı olmalıdır
+    static final int ID_BLOCK_SIZE = 50;
+
+    private static final String INSERT_CARGO_SQL =
+            "INSERT INTO cargo (id, self_latitude, self_longitude, self_address, self_city, self_district, self_postal_code, " +
+            "target_latitude, target_longitude, target_address, target_city, target_district, target_postal_code, " +
+            "weight, width, height, length, size, cargo_situation, phone_number, verification_code, description, " +
+            "distributor_user_id, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DistributorCargoStatsService distributorCargoStatsService;
+    private final CargoOfferIndex cargoOfferIndex;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxRows;
+    private final ForkJoinPool pool;
+
+    public CargoBulkImportService(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  DistributorCargoStatsService distributorCargoStatsService,
+                                  CargoOfferIndex cargoOfferIndex,
+                                  Validator validator,
+                                  ObjectMapper objectMapper,
+                                  @Value("${cargo.bulk.chunk-size:500}") int chunkSize,
+                                  @Value("${cargo.bulk.max-rows:20000}") int maxRows,
+                                  @Value("${cargo.bulk.validation-parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.distributorCargoStatsService = distributorCargoStatsService;
+        this.cargoOfferIndex = cargoOfferIndex;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxRows = maxRows;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Manifestteki kargoları dağıtıcı adına oluşturur. Her parça kendi transaction'ında commit edilir;
+     * okuma ya da yazma hatası önceki parçaları geri almaz, yanıt hangi satırların oluşturulduğunu bildirir.
+     */
+    public BulkCargoResponse importCargos(Distributor distributor, InputStream manifest, MediaType contentType) {
+        long started = System.nanoTime();
+        List<BulkCargoResponse.CreatedCargo> created = new ArrayList<>();
+        List<BulkCargoResponse.RowError> errors = new ArrayList<>();
+        int received = 0;
+        boolean truncated = false;
+
+        try (CargoManifestReader reader = CargoManifestReader.open(objectMapper, manifest, contentType)) {
+            List<ManifestRow> chunk = new ArrayList<>(chunkSize);
+            ManifestRow row;
+            while ((row = reader.next()) != null) {
+                if (received == maxRows) {
+                    truncated = true;
+                    break;
+                }
+                received++;
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    process(distributor, chunk, created, errors);
+                    chunk.clear();
+                }
+            }
+            process(distributor, chunk, created, errors);
+        } catch (IOException e) {
+            if (received == 0) {
+                throw new BadRequestException("Manifest okunamadı: " + e.getMessage());
+            }
+            errors.add(new BulkCargoResponse.RowError(received, "Manifest okunamadı: " + e.getMessage()));
+        }
+
+        log.info("Toplu kargo oluşturma: dağıtıcı {}, {} satır, {} kargo oluşturuldu, {} hata, {} ms",
+                distributor.getId(), received, created.size(), errors.size(), (System.nanoTime() - started) / 1_000_000);
+        return BulkCargoResponse.builder()
+                .received(received)
+                .created(created.size())
+                .failed(errors.size())
+                .truncated(truncated)
+                .cargos(created)
+                .errors(errors)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void process(Distributor distributor, List<ManifestRow> chunk,
+                         List<BulkCargoResponse.CreatedCargo> created, List<BulkCargoResponse.RowError> errors) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // Doğrulama satırlar arasında bağımsız; sıralı toplama satır sırasını korur
+        List<Object> checked = pool.submit(() -> chunk.parallelStream()
+                .map(this::check)
+                .collect(Collectors.toList())).join();
+
+        List<PendingCargo> valid = new ArrayList<>(checked.size());
+        for (Object result : checked) {
+            if (result instanceof PendingCargo pending) {
+                valid.add(pending);
+            } else {
+                errors.add((BulkCargoResponse.RowError) result);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            created.addAll(transactionTemplate.execute(status -> insert(distributor, valid)));
+        } catch (DataAccessException e) {
+            log.warn("Toplu kargo parçası yazılamadı ({} satır), satırlar tek tek deneniyor: {}",
+                    valid.size(), e.getMostSpecificCause().getMessage());
+            for (PendingCargo pending : valid) {
+                try {
+                    created.addAll(transactionTemplate.execute(status -> insert(distributor, List.of(pending))));
+                } catch (DataAccessException rowFailure) {
+                    errors.add(new BulkCargoResponse.RowError(pending.row(),
+                            "Kargo kaydedilemedi: " + rowFailure.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+    }
+
+    // Geçerli satır için PendingCargo, değilse RowError döner
+    private Object check(ManifestRow row) {
+        if (row.getError() != null) {
+            return new BulkCargoResponse.RowError(row.getRow(), row.getError());
+        }
+        CreateCargoRequest request = row.getRequest();
+        Set<ConstraintViolation<CreateCargoRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return new BulkCargoResponse.RowError(row.getRow(), violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        // Teklif indeksi ve eşleştirme iki uç noktanın koordinatlarına ihtiyaç duyar
+        if (!hasCoordinates(request.getSelfLocation()) || !hasCoordinates(request.getTargetLocation())) {
+            return new BulkCargoResponse.RowError(row.getRow(), "Alış ve teslim konumlarının koordinatları geçerli olmalıdır");
+        }
+        return new PendingCargo(row.getRow(), request);
+    }
+
+    private List<BulkCargoResponse.CreatedCargo> insert(Distributor distributor, List<PendingCargo> rows) {
+        int count = rows.size();
+        long[] cargoIds = allocateIds("cargo_seq", count);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // Takip kodları her yazma denemesinde yeniden üretilir: parça benzersizlik ihlaliyle başarısız olursa
+        // satırlar tek tek denenirken çakışan kod tekrar kullanılmaz
+        String[] verificationCodes = new String[count];
+
+        List<Object[]> cargos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PendingCargo pending = rows.get(i);
+            verificationCodes[i] = DistributorService.generateVerificationCode();
+            CreateCargoRequest request = pending.request();
+            LocationDTO self = request.getSelfLocation();
+            LocationDTO target = request.getTargetLocation();
+            MeasureDTO measure = request.getMeasure();
+            cargos.add(new Object[]{cargoIds[i],
+                    self.getLatitude(), self.getLongitude(), self.getAddress(), self.getCity(), self.getDistrict(), self.getPostalCode(),
+                    target.getLatitude(), target.getLongitude(), target.getAddress(), target.getCity(), target.getDistrict(), target.getPostalCode(),
+                    measure.getWeight(), measure.getWidth(), measure.getHeight(), measure.getLength(),
+                    measure.getSize() != null ? measure.getSize().name() : null,
+                    CargoSituation.CREATED.name(), request.getPhoneNumber(), verificationCodes[i], request.getDescription(),
+                    distributor.getId(), now, now});
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_CARGO_SQL, cargos);
+        distributorCargoStatsService.cargoCreated(distributor.getId(), count);
+
+        List<BulkCargoResponse.CreatedCargo> created = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PendingCargo pending = rows.get(i);
+            // İndeks güncellemesi commit sonrasına ertelenir
+            cargoOfferIndex.add(toCargo(cargoIds[i], verificationCodes[i], pending, distributor));
+            created.add(new BulkCargoResponse.CreatedCargo(pending.row(), cargoIds[i], verificationCodes[i]));
+        }
+        return created;
+    }
+
+    /**
+     * {@code count} adet id ayırır. Her nextval çağrısı 50'lik bir bloğun en küçük değerini verir (pooled-lo);
+     * blokların kullanılmayan kısmı Hibernate'te olduğu gibi boşluk olarak kalır.
+     */
+    long[] allocateIds(String sequence, int count) {
+        long[] ids = new long[count];
+        int next = 0;
+        while (next < count) {
+            Long low = jdbcTemplate.queryForObject("SELECT nextval('" + sequence + "')", Long.class);
+            for (int offset = 0; offset < ID_BLOCK_SIZE && next < count; offset++) {
+                ids[next++] = low + offset;
+            }
+        }
+        return ids;
+    }
+
+    private static boolean hasCoordinates(LocationDTO location) {
+        return location.getLatitude() != null && location.getLongitude() != null
+                && Math.abs(location.getLatitude()) <= 90 && Math.abs(location.getLongitude()) <= 180;
+    }
+
+    private static Cargo toCargo(long cargoId, String verificationCode, PendingCargo pending, Distributor distributor) {
+        CreateCargoRequest request = pending.request();
+        Measure measure = new Measure();
+        measure.setWeight(request.getMeasure().getWeight());
+        measure.setWidth(request.getMeasure().getWidth());
+        measure.setHeight(request.getMeasure().getHeight());
+        measure.setLength(request.getMeasure().getLength());
+        measure.setSize(request.getMeasure().getSize());
+        return Cargo.builder()
+                .id(cargoId)
+                .selfLocation(toLocation(request.getSelfLocation()))
+                .targetLocation(toLocation(request.getTargetLocation()))
+                .measure(measure)
+                .cargoSituation(CargoSituation.CREATED)
+                .distributor(distributor)
+                .verificationCode(verificationCode)
+                .build();
+    }
+
+    private static Location toLocation(LocationDTO location) {
+        return Location.builder()
+                .latitude(location.getLatitude())
+                .longitude(location.getLongitude())
+                .address(location.getAddress())
+                .city(location.getCity())
+                .district(location.getDistrict())
+                .postalCode(location.getPostalCode())
+                .build();
+    }
+
+    private record PendingCargo(int row, CreateCargoRequest request) {
+    }
+}
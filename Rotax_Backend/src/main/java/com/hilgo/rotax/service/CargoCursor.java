@@ -0,0 +1,60 @@
+package com.hilgo.rotax.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.springframework.data.domain.Sort;
+
+import com.hilgo.rotax.dto.CargoView;
+import com.hilgo.rotax.enums.CargoSortField;
+import com.hilgo.rotax.exception.BadRequestException;
+
+import lombok.Value;
+
+/**
+ * Kargo listesinde bir sonraki sayfanın başlangıç noktası: son satırın sıralama değeri ve id'si.
+ * İstemciye base64url ile kodlanmış opak bir metin olarak verilir; sıralama alanı ve yönü de içinde taşınır,
+ * böylece farklı bir sıralamayla kullanılan imleç reddedilir.
+ */
+@Value
+public class CargoCursor {
+
+    private static final String SEPARATOR = "|";
+
+    CargoSortField sortField;
+    Sort.Direction direction;
+    Object value;
+    Long id;
+
+    public static CargoCursor after(CargoView last, CargoSortField sortField, Sort.Direction direction) {
+        return new CargoCursor(sortField, direction, sortField.extract(last), last.id());
+    }
+
+    public String encode() {
+        String raw = sortField.name() + SEPARATOR + direction.name() + SEPARATOR
+                + (value != null ? value.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CargoCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException(raw);
+            }
+            CargoSortField sortField = CargoSortField.valueOf(parts[0]);
+            Sort.Direction direction = Sort.Direction.valueOf(parts[1]);
+            Long id = Long.valueOf(parts[3]);
+            Object value = switch (sortField) {
+                case ID -> id;
+                case CREATED_AT, UPDATED_AT -> parts[2].isEmpty() ? null : LocalDateTime.parse(parts[2]);
+            };
+            return new CargoCursor(sortField, direction, value, id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Geçersiz sayfa imleci");
+        }
+    }
+}
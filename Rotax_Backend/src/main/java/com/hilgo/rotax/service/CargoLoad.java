@@ -0,0 +1,77 @@
+package com.hilgo.rotax.service;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.hilgo.rotax.dto.MeasureDTO;
+import com.hilgo.rotax.enums.CarType;
+import com.hilgo.rotax.enums.Size;
+
+import lombok.Value;
+
+/**
+ * Kargonun ağırlık/hacim sınıfı. Kargo teklif indeksine eklenirken bir kez hesaplanır;
+ * böylece indeks taraması sırasında araç uygunluğu tek bir küme kontrolüyle yapılır.
+ * Ağırlık kg, boyutlar cm kabul edilir. Boyutlar eksikse hacim {@link Size} üzerinden tahmin edilir.
+ */
+@Value
+public class CargoLoad {
+
+    public static final CargoLoad UNKNOWN = of(null);
+
+    double weightKg;
+    double volumeM3;
+    Set<CarType> carriers; // kargoyu taşıyabilen araç tipleri
+
+    public static CargoLoad of(MeasureDTO measure) {
+        double weightKg = measure != null && measure.getWeight() != null ? measure.getWeight() : 0.0;
+        double volumeM3 = volumeOf(measure);
+
+        EnumSet<CarType> carriers = EnumSet.noneOf(CarType.class);
+        for (CarType carType : CarType.values()) {
+            if (carType.canCarry(weightKg, volumeM3)) {
+                carriers.add(carType);
+            }
+        }
+        return new CargoLoad(weightKg, volumeM3, Collections.unmodifiableSet(carriers));
+    }
+
+    /**
+     * Araç tipi bilinmiyorsa kargo filtrelenmez.
+     */
+    public boolean fits(CarType carType) {
+        return carType == null || carriers.contains(carType);
+    }
+
+    /**
+     * Bu kargoyu taşıyabilen, verilen araçtan daha küçük (hacimce) araç tipi sayısı.
+     * Eşleştirmede büyük araçların küçük yüklere harcanmasını cezalandırmak için kullanılır.
+     */
+    public int oversize(CarType carType) {
+        int smaller = 0;
+        for (CarType carrier : carriers) {
+            if (carrier.getMaxVolumeM3() < carType.getMaxVolumeM3()) {
+                smaller++;
+            }
+        }
+        return smaller;
+    }
+
+    private static double volumeOf(MeasureDTO measure) {
+        if (measure == null) {
+            return 0.0;
+        }
+        if (measure.getWidth() != null && measure.getLength() != null && measure.getHeight() != null) {
+            return measure.getWidth() * measure.getLength() * measure.getHeight() / 1_000_000.0;
+        }
+        if (measure.getSize() == null) {
+            return 0.0;
+        }
+        return switch (measure.getSize()) {
+            case SMALL -> 0.03;
+            case MEDIUM -> 0.2;
+            case LARGE -> 0.6;
+        };
+    }
+}
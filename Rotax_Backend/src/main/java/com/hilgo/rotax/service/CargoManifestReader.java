@@ -0,0 +1,149 @@
+package com.hilgo.rotax.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.hilgo.rotax.dto.CreateCargoRequest;
+import com.hilgo.rotax.exception.BadRequestException;
+
+import lombok.Value;
+
+/**
+ * Toplu kargo manifestini akış halinde satır satır okur; dosyanın tamamı belleğe alınmaz.
+ * JSON dizisi ve NDJSON (satır başına bir nesne) {@link CreateCargoRequest} biçimindedir.
+ * CSV'de başlık satırı zorunludur; sütun adları JSON alan yollarıdır
+ * (ör. {@code selfLocation.latitude}, {@code measure.size}, {@code phoneNumber}), boş hücreler null sayılır.
+ * Hatalı satır okumayı durdurmaz; yalnızca sözdizimi bozuk bir JSON'dan sonra okuma biter.
+ */
+final class CargoManifestReader implements Closeable {
+
+    static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    private final ObjectMapper objectMapper;
+    private final MappingIterator<?> rows;
+    private final boolean csv;
+    private int row;
+    private boolean finished;
+
+    private CargoManifestReader(ObjectMapper objectMapper, MappingIterator<?> rows, boolean csv) {
+        this.objectMapper = objectMapper;
+        this.rows = rows;
+        this.csv = csv;
+    }
+
+    static CargoManifestReader open(ObjectMapper objectMapper, InputStream in, MediaType contentType) throws IOException {
+        if (contentType != null && TEXT_CSV.isCompatibleWith(contentType)) {
+            MappingIterator<Map<String, String>> rows = CSV_MAPPER.readerFor(Map.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .readValues(in);
+            return new CargoManifestReader(objectMapper, rows, true);
+        }
+        if (contentType == null || MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                || MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            // Kök dizi ise elemanları, değilse art arda gelen nesneleri tek tek okur
+            return new CargoManifestReader(objectMapper, objectMapper.readerFor(CreateCargoRequest.class).readValues(in), false);
+        }
+        throw new BadRequestException("Desteklenmeyen manifest türü: " + contentType);
+    }
+
+    /**
+     * Sıradaki satır; manifest bittiyse null.
+     */
+    ManifestRow next() {
+        if (finished) {
+            return null;
+        }
+        try {
+            if (!rows.hasNextValue()) {
+                finished = true;
+                return null;
+            }
+        } catch (IOException e) {
+            return fail(e);
+        }
+
+        row++;
+        try {
+            Object value = rows.nextValue();
+            CreateCargoRequest request = csv ? fromCsv(asStringMap(value)) : (CreateCargoRequest) value;
+            return new ManifestRow(row, request, null);
+        } catch (JsonParseException e) {
+            return fail(e);
+        } catch (JsonProcessingException e) {
+            return new ManifestRow(row, null, "Satır okunamadı: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            return new ManifestRow(row, null, "Satır okunamadı: " + rootMessage(e));
+        } catch (IOException e) {
+            return fail(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        rows.close();
+    }
+
+    // Bozuk sözdiziminden sonra bir sonraki satırın başı güvenilir biçimde bulunamaz
+    private ManifestRow fail(IOException e) {
+        finished = true;
+        String message = e instanceof JsonProcessingException processing ? processing.getOriginalMessage() : e.getMessage();
+        return new ManifestRow(row == 0 ? 1 : row, null, "Manifest okunamadı, kalan satırlar işlenmedi: " + message);
+    }
+
+    private CreateCargoRequest fromCsv(Map<String, String> columns) {
+        Map<String, Object> tree = new LinkedHashMap<>();
+        columns.forEach((column, value) -> {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            String[] path = column.trim().split("\\.");
+            Map<String, Object> node = tree;
+            for (int i = 0; i < path.length - 1; i++) {
+                node = child(node, path[i]);
+            }
+            node.put(path[path.length - 1], value.trim());
+        });
+        return objectMapper.convertValue(tree, CreateCargoRequest.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> child(Map<String, Object> node, String name) {
+        Object child = node.computeIfAbsent(name, key -> new LinkedHashMap<String, Object>());
+        if (!(child instanceof Map)) {
+            throw new IllegalArgumentException("Sütun hem değer hem alan grubu olarak kullanılmış: " + name);
+        }
+        return (Map<String, Object>) child;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> asStringMap(Object value) {
+        return (Map<String, String>) value;
+    }
+
+    private static String rootMessage(IllegalArgumentException e) {
+        return e.getCause() instanceof JsonProcessingException processing ? processing.getOriginalMessage() : e.getMessage();
+    }
+
+    /**
+     * Okunan manifest satırı; satır okunamadıysa {@code request} null, {@code error} doludur.
+     */
+    @Value
+    static class ManifestRow {
+        int row;
+        CreateCargoRequest request;
+        String error;
+    }
+}
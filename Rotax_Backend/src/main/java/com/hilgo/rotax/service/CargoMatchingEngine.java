@@ -0,0 +1,290 @@
+package com.hilgo.rotax.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hilgo.rotax.dto.MatchingRunDTO;
+import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.enums.DriverStatus;
+import com.hilgo.rotax.repository.CargoRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Açık (CREATED) kargoları boştaki ACTIVE sürücülere atayan uygulama içi eşleştirme motoru.
+ * Her turda kargolar ve sürücüler bellek içi indekslerden okunur; her kargo için teklif yarıçapındaki
+ * uygun sürücüler (aday çiftler) fork-join havuzunda paralel bulunur. Ortak aday sürücüsü olan kargolar
+ * aynı gruba düşer (yarıçap grafiğinin bağlı bileşenleri); gruplar birbirinden bağımsızdır ve paralel olarak
+ * açgözlü (greedy) yöntemle çözülür: araç kapasitesine uyan çiftler arasından en düşük maliyetliden
+ * (alış noktasına mesafe + gereğinden büyük araç cezası) başlanarak atanır.
+ * Atamalar tek transaction içinde tek bir JDBC batch'i olarak koşullu UPDATE ile yazılır; bu arada
+ * başka bir sürücünün kabul ettiği kargolar ve bu arada kendisi bir kargo kabul etmiş sürücüler sessizce atlanır.
+ * Atanan sürücüye teklif akışından {@code cargo-assigned} olayı gönderilir.
+ */
+@Slf4j
+@Service
+public class CargoMatchingEngine {
+
+    private static final String ASSIGN_SQL =
+            "UPDATE cargo SET driver_user_id = ?, cargo_situation = 'ASSIGNED', updated_at = ? " +
+            "WHERE id = ? AND cargo_situation = 'CREATED' " +
+            // Tur başındaki müsaitlik anlık görüntüsü eskimiş olabilir; sürücü bu arada kargo kabul ettiyse atlanır
+            "AND NOT EXISTS (SELECT 1 FROM cargo busy WHERE busy.driver_user_id = ? " +
+            "AND busy.cargo_situation IN ('ASSIGNED', 'PICKED_UP'))";
+
+    // Kargoyu taşıyabilecek daha küçük her araç tipi için maliyete eklenen mesafe (km)
+    private static final double OVERSIZE_PENALTY_KM = 2.0;
+
+    // Elinde bu durumlarda kargo olan sürücülere yeni iş atanmaz
+    private static final Set<CargoSituation> BUSY_SITUATIONS = EnumSet.of(CargoSituation.ASSIGNED, CargoSituation.PICKED_UP);
+
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private final CargoOfferIndex cargoOfferIndex;
+    private final DriverLocationIndex driverLocationIndex;
+    private final CargoRepository cargoRepository;
+    private final CargoTrackingHub cargoTrackingHub;
+    private final DistributorCargoStatsService distributorCargoStatsService;
+    private final DriverOfferFeed driverOfferFeed;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final ForkJoinPool pool;
+    private final ReentrantLock running = new ReentrantLock();
+
+    public CargoMatchingEngine(CargoOfferIndex cargoOfferIndex,
+                               DriverLocationIndex driverLocationIndex,
+                               CargoRepository cargoRepository,
+                               CargoTrackingHub cargoTrackingHub,
+                               DistributorCargoStatsService distributorCargoStatsService,
+                               DriverOfferFeed driverOfferFeed,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${matching.enabled:false}") boolean enabled,
+                               @Value("${matching.parallelism:0}") int parallelism) {
+        this.cargoOfferIndex = cargoOfferIndex;
+        this.driverLocationIndex = driverLocationIndex;
+        this.cargoRepository = cargoRepository;
+        this.cargoTrackingHub = cargoTrackingHub;
+        this.distributorCargoStatsService = distributorCargoStatsService;
+        this.driverOfferFeed = driverOfferFeed;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Scheduled(fixedDelayString = "${matching.tick-ms:5000}", initialDelayString = "${matching.tick-ms:5000}")
+    public void tick() {
+        if (!enabled || !cargoOfferIndex.isReady() || !driverLocationIndex.isReady()) {
+            return;
+        }
+        try {
+            MatchingRunDTO run = runOnce();
+            if (run.getAssigned() > 0 || run.getConflicts() > 0) {
+                log.info("Eşleştirme turu: {} kargo atandı, {} çakışma, {} ms", run.getAssigned(), run.getConflicts(), run.getDurationMs());
+            }
+        } catch (Exception e) {
+            log.error("Eşleştirme turu başarısız oldu", e);
+        }
+    }
+
+    /**
+     * Tek bir eşleştirme turu çalıştırır. Önceki tur hâlâ sürüyorsa beklemeden döner.
+     */
+    public MatchingRunDTO runOnce() {
+        if (!running.tryLock()) {
+            return MatchingRunDTO.builder().skipped(true).build();
+        }
+        try {
+            long started = System.nanoTime();
+
+            List<GeoGridIndex.Entry<CargoOfferIndex.OpenCargo>> cargos = new ArrayList<>(cargoOfferIndex.entries());
+            Map<Long, GeoGridIndex.Entry<DriverLocationIndex.IndexedDriver>> drivers =
+                    cargos.isEmpty() ? Map.of() : availableDrivers();
+
+            // Yarıçap araması hücre sınırlarına bakmaz; komşu hücredeki yakın sürücü de aday olur
+            List<Assignment> candidates = drivers.isEmpty() ? List.of() : pool.submit(() -> cargos.parallelStream()
+                    .flatMap(cargo -> candidates(cargo, drivers.keySet()).stream())
+                    .collect(Collectors.toList())).join();
+
+            // Gruplar ortak sürücü paylaşmaz; her biri fork-join havuzunda ayrı çözülür
+            List<List<Assignment>> groups = group(candidates);
+            List<Assignment> proposed = pool.submit(() -> groups.parallelStream()
+                    .flatMap(group -> solve(group).stream())
+                    .collect(Collectors.toList())).join();
+
+            List<Assignment> assigned = commit(proposed);
+
+            return MatchingRunDTO.builder()
+                    .openCargos(cargos.size())
+                    .availableDrivers(drivers.size())
+                    .groups(groups.size())
+                    .proposed(proposed.size())
+                    .assigned(assigned.size())
+                    .conflicts(proposed.size() - assigned.size())
+                    .durationMs((System.nanoTime() - started) / 1_000_000)
+                    .build();
+        } finally {
+            running.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Map<Long, GeoGridIndex.Entry<DriverLocationIndex.IndexedDriver>> availableDrivers() {
+        Map<Long, GeoGridIndex.Entry<DriverLocationIndex.IndexedDriver>> available = new HashMap<>();
+        for (GeoGridIndex.Entry<DriverLocationIndex.IndexedDriver> entry : driverLocationIndex.entries()) {
+            if (entry.getValue().getDriverStatus() == DriverStatus.ACTIVE) {
+                available.put(entry.getId(), entry);
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(available.keySet());
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()));
+            cargoRepository.findDriverIdsWithCargoIn(chunk, BUSY_SITUATIONS).forEach(available::remove);
+        }
+        return available;
+    }
+
+    private List<Assignment> candidates(GeoGridIndex.Entry<CargoOfferIndex.OpenCargo> cargo, Set<Long> availableDriverIds) {
+        CargoLoad load = cargo.getValue().getLoad();
+        // Araç tipi bilinmeyen sürücülere otomatik atama yapılmaz
+        return driverLocationIndex.findWithin(cargo.getLatitude(), cargo.getLongitude(), CargoOfferIndex.OFFER_RADIUS_KM,
+                        driver -> availableDriverIds.contains(driver.getDriverId())
+                                && driver.getCarType() != null && load.fits(driver.getCarType()))
+                .stream()
+                .map(hit -> new Assignment(cargo.getId(), cargo.getValue().getDistributorId(), hit.getId(),
+                        hit.getDistanceKm() + OVERSIZE_PENALTY_KM * load.oversize(hit.getValue().getCarType())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Aday çiftleri, ortak sürücü üzerinden birbirine bağlı kargo gruplarına ayırır (union-find).
+     * Farklı gruplar hiçbir sürücüyü paylaşmadığından ayrı ayrı çözülmeleri tek seferde çözmekle aynı sonucu verir.
+     */
+    private static List<List<Assignment>> group(List<Assignment> candidates) {
+        Map<Long, Long> parent = new HashMap<>();
+        Map<Long, Long> firstCargoOfDriver = new HashMap<>();
+        for (Assignment candidate : candidates) {
+            parent.putIfAbsent(candidate.getCargoId(), candidate.getCargoId());
+            Long other = firstCargoOfDriver.putIfAbsent(candidate.getDriverId(), candidate.getCargoId());
+            if (other != null) {
+                parent.put(root(parent, candidate.getCargoId()), root(parent, other));
+            }
+        }
+        Map<Long, List<Assignment>> groups = new HashMap<>();
+        for (Assignment candidate : candidates) {
+            groups.computeIfAbsent(root(parent, candidate.getCargoId()), key -> new ArrayList<>()).add(candidate);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    private static Long root(Map<Long, Long> parent, Long cargoId) {
+        Long current = cargoId;
+        while (!parent.get(current).equals(current)) {
+            // Yol yarılama: ağaç derinliği sınırlı kalır
+            Long grandParent = parent.get(parent.get(current));
+            parent.put(current, grandParent);
+            current = grandParent;
+        }
+        return current;
+    }
+
+    private List<Assignment> solve(List<Assignment> group) {
+        List<Assignment> candidates = new ArrayList<>(group);
+        candidates.sort(Comparator.comparingDouble(Assignment::getCost));
+        Set<Long> usedCargos = new HashSet<>();
+        Set<Long> usedDrivers = new HashSet<>();
+        List<Assignment> assignments = new ArrayList<>();
+        for (Assignment candidate : candidates) {
+            if (!usedCargos.contains(candidate.getCargoId()) && !usedDrivers.contains(candidate.getDriverId())) {
+                usedCargos.add(candidate.getCargoId());
+                usedDrivers.add(candidate.getDriverId());
+                assignments.add(candidate);
+            }
+        }
+        return assignments;
+    }
+
+    /**
+     * Atamaları tek transaction içinde tek bir JDBC batch'i olarak yazar.
+     * @return Veritabanına gerçekten yazılan atamalar.
+     */
+    private List<Assignment> commit(List<Assignment> assignments) {
+        if (assignments.isEmpty()) {
+            return List.of();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Assignment> assigned = transactionTemplate.execute(status -> {
+            int[][] counts = jdbcTemplate.batchUpdate(ASSIGN_SQL, assignments, assignments.size(), (ps, assignment) -> {
+                ps.setLong(1, assignment.getDriverId());
+                ps.setTimestamp(2, now);
+                ps.setLong(3, assignment.getCargoId());
+                ps.setLong(4, assignment.getDriverId());
+            });
+
+            List<Assignment> written = new ArrayList<>();
+            // Dağıtıcı sayaçları kilitlenme olmaması için id sırasıyla güncellenir
+            Map<Long, Integer> assignedPerDistributor = new TreeMap<>();
+            int index = 0;
+            for (int[] chunk : counts) {
+                for (int count : chunk) {
+                    // 0: kargo bu arada başka bir sürücü tarafından alınmış ya da sürücü artık boşta değil
+                    if (count != 0) {
+                        Assignment assignment = assignments.get(index);
+                        written.add(assignment);
+                        cargoOfferIndex.remove(assignment.getCargoId());
+                        if (assignment.getDistributorId() != null) {
+                            assignedPerDistributor.merge(assignment.getDistributorId(), 1, Integer::sum);
+                        }
+                    }
+                    index++;
+                }
+            }
+            assignedPerDistributor.forEach((distributorId, count) -> distributorCargoStatsService
+                    .cargoMoved(distributorId, CargoSituation.CREATED, CargoSituation.ASSIGNED, count));
+            return written;
+        });
+
+        // Canlı takip ekranlarına ve atanan sürücülere bildirim (commit sonrasında)
+        if (!assigned.isEmpty()) {
+            cargoRepository.findAllById(assigned.stream().map(Assignment::getCargoId).collect(Collectors.toList()))
+                    .forEach(cargoTrackingHub::cargoChanged);
+            assigned.forEach(assignment -> driverOfferFeed.cargoAssigned(assignment.getDriverId(), assignment.getCargoId()));
+        }
+        return assigned;
+    }
+
+    @lombok.Value
+    static class Assignment {
+        Long cargoId;
+        Long distributorId;
+        Long driverId;
+        double cost;
+    }
+}
@@ -0,0 +1,231 @@
+package com.hilgo.rotax.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hilgo.rotax.dto.CargoOfferDTO;
+import com.hilgo.rotax.dto.LocationDTO;
+import com.hilgo.rotax.dto.MeasureDTO;
+import com.hilgo.rotax.entity.Cargo;
+import com.hilgo.rotax.entity.Location;
+import com.hilgo.rotax.entity.Measure;
+import com.hilgo.rotax.enums.CarType;
+import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.repository.CargoRepository;
+
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Henüz bir sürücü tarafından alınmamış (CREATED) kargoların, alış noktasına göre
+ * hücrelere bölünmüş bellek içi indeksi. Teklif sorguları SQL çalıştırmadan
+ * sürücünün çevresindeki hücreler taranarak cevaplanır.
+ * Teklif için gereken tüm alanlar (adresler, ölçüler, toplam mesafe, yük sınıfı) kargo eklenirken
+ * bir kez hesaplanıp saklanır; araca sığmayan kargolar tarama sırasında elenir.
+ * İndeks değiştiğinde (commit sonrasında) kayıtlı {@link Listener}'lar bilgilendirilir.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CargoOfferIndex {
+
+    // Sürücüye gösterilen tekliflerin arama yarıçapı
+    public static final double OFFER_RADIUS_KM = 10.0;
+
+    private static final double CELL_SIZE_DEGREES = 0.05;
+
+    private final CargoRepository cargoRepository;
+
+    private final GeoGridIndex<OpenCargo> index = new GeoGridIndex<>(CELL_SIZE_DEGREES);
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        try {
+            index.clear();
+            cargoRepository.findByCargoSituation(CargoSituation.CREATED).forEach(this::put);
+            ready = true;
+            log.info("Açık kargo teklif indeksi oluşturuldu: {} kargo", index.size());
+        } catch (Exception e) {
+            log.error("Açık kargo teklif indeksi oluşturulamadı, teklifler veritabanından sorgulanacak", e);
+        }
+    }
+
+    /**
+     * Yeni oluşturulan kargoyu indekse ekler. Aktif bir işlem varsa commit sonrasında uygulanır.
+     */
+    public void add(Cargo cargo) {
+        OpenCargo openCargo = toOpenCargo(cargo);
+        if (openCargo == null) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            index.put(openCargo.getCargoId(), openCargo.getPickupLocation().getLatitude(),
+                    openCargo.getPickupLocation().getLongitude(), openCargo);
+            notifyListeners(listener -> listener.offerAdded(openCargo));
+        });
+    }
+
+    /**
+     * Artık teklif edilemeyen (kabul edilen / iptal edilen) kargoyu indeksten çıkarır.
+     * Aktif bir işlem varsa commit sonrasında uygulanır.
+     */
+    public void remove(Long cargoId) {
+        AfterCommit.run(() -> {
+            GeoGridIndex.Entry<OpenCargo> entry = index.get(cargoId);
+            index.remove(cargoId);
+            if (entry != null) {
+                notifyListeners(listener -> listener.offerWithdrawn(entry.getValue()));
+            }
+        });
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public Collection<GeoGridIndex.Entry<OpenCargo>> entries() {
+        return index.entries();
+    }
+
+    /**
+     * Verilen konuma {@code radiusKm} yarıçapındaki, {@code carType} aracına sığan açık kargoları
+     * yakından uzağa sıralı döndürür. Her sonucun mesafesi, sürücünün alış noktasına olan uzaklığıdır (km).
+     * Araç tipi bilinmiyorsa ({@code null}) kapasite filtresi uygulanmaz.
+     */
+    public List<GeoGridIndex.Hit<OpenCargo>> findWithin(double latitude, double longitude, double radiusKm, CarType carType) {
+        return index.findWithin(latitude, longitude, radiusKm, cargo -> cargo.getLoad().fits(carType));
+    }
+
+    // Base fare + per km rate
+    public static double estimateEarning(double distance) {
+        return 20.0 + (distance * 2.5);
+    }
+
+    private void notifyListeners(Consumer<Listener> event) {
+        for (Listener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (Exception e) {
+                log.error("Teklif indeksi dinleyicisi hata verdi", e);
+            }
+        }
+    }
+
+    private void put(Cargo cargo) {
+        OpenCargo openCargo = toOpenCargo(cargo);
+        if (openCargo != null) {
+            index.put(openCargo.getCargoId(), openCargo.getPickupLocation().getLatitude(),
+                    openCargo.getPickupLocation().getLongitude(), openCargo);
+        }
+    }
+
+    private OpenCargo toOpenCargo(Cargo cargo) {
+        Location pickup = cargo.getSelfLocation();
+        Location delivery = cargo.getTargetLocation();
+        if (pickup == null || pickup.getLatitude() == null || pickup.getLongitude() == null
+                || delivery == null || delivery.getLatitude() == null || delivery.getLongitude() == null) {
+            log.warn("Kargo {} konum bilgisi eksik olduğu için teklif indeksine eklenmedi", cargo.getId());
+            return null;
+        }
+
+        MeasureDTO measure = toMeasureDTO(cargo.getMeasure());
+        return OpenCargo.builder()
+                .cargoId(cargo.getId())
+                .pickupLocation(toLocationDTO(pickup))
+                .deliveryLocation(toLocationDTO(delivery))
+                .totalDistance(GeoGridIndex.distanceKm(pickup.getLatitude(), pickup.getLongitude(),
+                        delivery.getLatitude(), delivery.getLongitude()))
+                .measure(measure)
+                .load(CargoLoad.of(measure))
+                .distributorId(cargo.getDistributor() != null ? cargo.getDistributor().getId() : null)
+                .distributorName(cargo.getDistributor() != null
+                        ? cargo.getDistributor().getFirstName() + " " + cargo.getDistributor().getLastName() : null)
+                .build();
+    }
+
+    private static LocationDTO toLocationDTO(Location location) {
+        return LocationDTO.builder()
+                .latitude(location.getLatitude())
+                .longitude(location.getLongitude())
+                .address(location.getAddress())
+                .city(location.getCity())
+                .district(location.getDistrict())
+                .postalCode(location.getPostalCode())
+                .build();
+    }
+
+    private static MeasureDTO toMeasureDTO(Measure measure) {
+        if (measure == null) {
+            return null;
+        }
+        return MeasureDTO.builder()
+                .weight(measure.getWeight())
+                .width(measure.getWidth())
+                .height(measure.getHeight())
+                .length(measure.getLength())
+                .size(measure.getSize())
+                .build();
+    }
+
+    /**
+     * İndekste tutulan, teklif oluşturmak için gereken değişmez kargo özeti.
+     */
+    @Value
+    @Builder
+    public static class OpenCargo {
+        Long cargoId;
+        LocationDTO pickupLocation;
+        LocationDTO deliveryLocation;
+        double totalDistance; // in kilometers
+        MeasureDTO measure;
+        Long distributorId;
+        String distributorName;
+        @Builder.Default
+        CargoLoad load = CargoLoad.UNKNOWN; // teklif filtrelemesi için önceden hesaplanan yük sınıfı
+
+        /**
+         * Sürücüye gösterilecek teklif; {@code distanceToPickup} sürücünün alış noktasına uzaklığıdır (km).
+         */
+        public CargoOfferDTO toOffer(double distanceToPickup) {
+            return CargoOfferDTO.builder()
+                    .cargoId(cargoId)
+                    .pickupLocation(pickupLocation)
+                    .deliveryLocation(deliveryLocation)
+                    .distanceToPickup(distanceToPickup)
+                    .totalDistance(totalDistance)
+                    .estimatedEarning(estimateEarning(totalDistance))
+                    .measure(measure)
+                    .distributorName(distributorName)
+                    .build();
+        }
+    }
+
+    /**
+     * Teklif indeksine kargo eklendiğinde ya da çıkarıldığında commit sonrasında çağrılır.
+     */
+    public interface Listener {
+        void offerAdded(OpenCargo cargo);
+
+        void offerWithdrawn(OpenCargo cargo);
+    }
+}
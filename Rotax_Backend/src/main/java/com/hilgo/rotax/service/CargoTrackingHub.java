@@ -0,0 +1,288 @@
+package com.hilgo.rotax.service;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.hilgo.rotax.dto.LocationDTO;
+import com.hilgo.rotax.dto.TrackingResponse;
+import com.hilgo.rotax.dto.TrackingUpdateDTO;
+import com.hilgo.rotax.entity.Cargo;
+import com.hilgo.rotax.entity.Driver;
+import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.exception.ResourceNotFoundException;
+import com.hilgo.rotax.repository.CargoRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Takip kodu bazında canlı kargo takibi (Server-Sent Events).
+ * İzlenen her kargonun son durumu bellekte tutulur; sürücü konumu ya da kargo durumu
+ * değiştiğinde yalnızca değişen alanlar tüm izleyicilere gönderilir. İzleyici başına
+ * veritabanı sorgusu yapılmaz; veritabanı yalnızca bir kargo ilk kez izlenmeye başladığında okunur.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CargoTrackingHub {
+
+    private static final Set<CargoSituation> TERMINAL_SITUATIONS =
+            EnumSet.of(CargoSituation.DELIVERED, CargoSituation.CANCELLED, CargoSituation.EXPIRED, CargoSituation.FAILED);
+
+    private final CargoRepository cargoRepository;
+    private final PublicService publicService;
+
+    @Value("${tracking.stream.timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    // takip kodu -> izlenen kargo (yalnızca en az bir izleyici varken)
+    private final Map<String, TrackedCargo> tracked = new ConcurrentHashMap<>();
+    // sürücü id -> sürücünün taşıdığı izlenen kargoların takip kodları
+    private final Map<Long, Set<String>> codesByDriver = new ConcurrentHashMap<>();
+
+    /**
+     * Takip koduna abone olur. İlk olay ({@code snapshot}) kargonun tam takip bilgisidir,
+     * sonraki olaylar ({@code update}) yalnızca değişiklikleri içerir.
+     */
+    public SseEmitter subscribe(String trackingCode) {
+        SseSubscriber subscriber = new SseSubscriber(streamTimeoutMs, sender);
+        // Kargo kilit dışında yüklenir. Kayıt mevcut görünüp son izleyici ayrılınca silinmişse
+        // compute eklenecek bir kayıt bulamaz; bu durumda kargo yeniden yüklenip tekrar denenir.
+        TrackedCargo loaded = tracked.containsKey(trackingCode) ? null : load(trackingCode);
+        TrackedCargo attached;
+        while ((attached = attach(trackingCode, loaded, subscriber)) == null) {
+            loaded = load(trackingCode);
+        }
+        TrackedCargo cargo = attached;
+        if (cargo == loaded) {
+            bindDriver(cargo, null, cargo.driverId);
+        }
+        subscriber.onClose(() -> unsubscribe(cargo, subscriber));
+
+        subscriber.send("snapshot", cargo.snapshot());
+        if (TERMINAL_SITUATIONS.contains(cargo.status)) {
+            subscriber.completeAfterPending();
+        }
+        return subscriber.getEmitter();
+    }
+
+    /**
+     * Sürücünün yeni konumunu, sürücünün taşıdığı ve izlenen kargolara yayınlar.
+     */
+    public void driverMoved(Long driverId, double latitude, double longitude) {
+        Set<String> codes = codesByDriver.get(driverId);
+        if (codes == null) {
+            return;
+        }
+        for (String code : codes) {
+            TrackedCargo cargo = tracked.get(code);
+            if (cargo == null) {
+                continue;
+            }
+            TrackingUpdateDTO update = cargo.move(latitude, longitude);
+            if (update != null) {
+                broadcast(cargo, update);
+            }
+        }
+    }
+
+    /**
+     * Kargonun durumu ya da sürücüsü değiştiğinde çağrılır. Yayın transaction commit edildikten sonra yapılır.
+     */
+    public void cargoChanged(Cargo cargo) {
+        String code = cargo.getVerificationCode();
+        if (code == null || !tracked.containsKey(code)) {
+            return;
+        }
+        CargoSituation status = cargo.getCargoSituation();
+        Driver driver = cargo.getDriver();
+        Long driverId = driver != null ? driver.getId() : null;
+        String driverName = driver != null ? driver.getFirstName() + " " + driver.getLastName() : null;
+        String driverPhone = driver != null ? driver.getPhoneNumber() : null;
+        LocalDateTime deliveredTime = cargo.getDeliveredTime();
+
+        AfterCommit.run(() -> {
+            TrackedCargo trackedCargo = tracked.get(code);
+            if (trackedCargo == null) {
+                return;
+            }
+            Long previousDriverId = trackedCargo.driverId;
+            TrackingUpdateDTO update = trackedCargo.change(status, driverId, driverName, driverPhone, deliveredTime);
+            if (!Objects.equals(previousDriverId, driverId)) {
+                bindDriver(trackedCargo, previousDriverId, driverId);
+            }
+            if (update != null) {
+                broadcast(trackedCargo, update);
+            }
+            if (TERMINAL_SITUATIONS.contains(status)) {
+                trackedCargo.watchers.forEach(SseSubscriber::completeAfterPending);
+            }
+        });
+    }
+
+    int watcherCount(String trackingCode) {
+        TrackedCargo cargo = tracked.get(trackingCode);
+        return cargo != null ? cargo.watchers.size() : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    // İzleyiciyi mevcut kayda, yoksa yüklenmiş kayda ekler; ikisi de yoksa null döner
+    private TrackedCargo attach(String trackingCode, TrackedCargo loaded, SseSubscriber subscriber) {
+        return tracked.compute(trackingCode, (code, current) -> {
+            TrackedCargo target = current != null ? current : loaded;
+            if (target != null) {
+                target.watchers.add(subscriber);
+            }
+            return target;
+        });
+    }
+
+    private TrackedCargo load(String trackingCode) {
+        Cargo cargo = cargoRepository.findByVerificationCode(trackingCode)
+                .orElseThrow(() -> new ResourceNotFoundException("Cargo", "trackingCode", trackingCode));
+        TrackingResponse response = publicService.buildTrackingResponse(cargo);
+        return new TrackedCargo(response, cargo.getDriver() != null ? cargo.getDriver().getId() : null);
+    }
+
+    private void unsubscribe(TrackedCargo cargo, SseSubscriber subscriber) {
+        cargo.watchers.remove(subscriber);
+        tracked.computeIfPresent(cargo.trackingCode, (code, current) -> {
+            if (current != cargo || !current.watchers.isEmpty()) {
+                return current;
+            }
+            bindDriver(current, current.driverId, null);
+            return null;
+        });
+    }
+
+    private void bindDriver(TrackedCargo cargo, Long previousDriverId, Long driverId) {
+        if (previousDriverId != null) {
+            codesByDriver.computeIfPresent(previousDriverId, (id, codes) -> {
+                codes.remove(cargo.trackingCode);
+                return codes.isEmpty() ? null : codes;
+            });
+        }
+        if (driverId != null) {
+            codesByDriver.computeIfAbsent(driverId, id -> ConcurrentHashMap.newKeySet()).add(cargo.trackingCode);
+        }
+    }
+
+    private void broadcast(TrackedCargo cargo, TrackingUpdateDTO update) {
+        for (SseSubscriber watcher : cargo.watchers) {
+            watcher.send("update", update);
+        }
+    }
+
+    /**
+     * İzlenen bir kargonun bellekteki son durumu. Değişiklik hesapları kargo bazında senkronizedir.
+     */
+    private static final class TrackedCargo {
+        final String trackingCode;
+        final TrackingResponse base;
+        final Set<SseSubscriber> watchers = new CopyOnWriteArraySet<>();
+
+        volatile Long driverId;
+        private CargoSituation status;
+        private LocationDTO currentLocation;
+        private Double eta;
+        private String driverName;
+        private String driverPhone;
+        private LocalDateTime deliveryTime;
+
+        TrackedCargo(TrackingResponse base, Long driverId) {
+            this.trackingCode = base.getTrackingCode();
+            this.base = base;
+            this.driverId = driverId;
+            this.status = base.getStatus();
+            this.currentLocation = base.getCurrentLocation();
+            this.eta = base.getEstimatedTimeOfArrival();
+            this.driverName = base.getDriverName();
+            this.driverPhone = base.getDriverPhone();
+            this.deliveryTime = base.getDeliveryTime();
+        }
+
+        synchronized TrackingResponse snapshot() {
+            return TrackingResponse.builder()
+                    .trackingCode(trackingCode)
+                    .status(status)
+                    .currentLocation(currentLocation)
+                    .destinationLocation(base.getDestinationLocation())
+                    .driverName(driverName)
+                    .driverPhone(driverPhone)
+                    .estimatedTimeOfArrival(eta)
+                    .deliveryTime(deliveryTime)
+                    .deliveryNote(base.getDeliveryNote())
+                    .build();
+        }
+
+        synchronized TrackingUpdateDTO move(double latitude, double longitude) {
+            if (currentLocation != null
+                    && Objects.equals(currentLocation.getLatitude(), latitude)
+                    && Objects.equals(currentLocation.getLongitude(), longitude)) {
+                return null;
+            }
+            currentLocation = LocationDTO.builder().latitude(latitude).longitude(longitude).build();
+            TrackingUpdateDTO.TrackingUpdateDTOBuilder update = TrackingUpdateDTO.builder()
+                    .trackingCode(trackingCode)
+                    .currentLocation(currentLocation)
+                    .updatedAt(LocalDateTime.now());
+            Double newEta = PublicService.estimateArrivalMinutes(status, latitude, longitude, base.getDestinationLocation());
+            if (!Objects.equals(eta, newEta)) {
+                eta = newEta;
+                update.estimatedTimeOfArrival(newEta);
+            }
+            return update.build();
+        }
+
+        synchronized TrackingUpdateDTO change(CargoSituation newStatus, Long newDriverId, String newDriverName,
+                                              String newDriverPhone, LocalDateTime newDeliveryTime) {
+            TrackingUpdateDTO.TrackingUpdateDTOBuilder update = TrackingUpdateDTO.builder().trackingCode(trackingCode);
+            boolean changed = false;
+            if (newStatus != status) {
+                status = newStatus;
+                update.status(newStatus);
+                changed = true;
+            }
+            if (!Objects.equals(newDriverId, driverId)) {
+                driverId = newDriverId;
+                driverName = newDriverName;
+                driverPhone = newDriverPhone;
+                update.driverName(newDriverName).driverPhone(newDriverPhone);
+                changed = true;
+            }
+            if (!Objects.equals(newDeliveryTime, deliveryTime)) {
+                deliveryTime = newDeliveryTime;
+                update.deliveryTime(newDeliveryTime);
+                changed = true;
+            }
+            if (currentLocation != null) {
+                Double newEta = PublicService.estimateArrivalMinutes(status, currentLocation.getLatitude(),
+                        currentLocation.getLongitude(), base.getDestinationLocation());
+                if (!Objects.equals(eta, newEta)) {
+                    eta = newEta;
+                    update.estimatedTimeOfArrival(newEta);
+                    changed = true;
+                }
+            }
+            return changed ? update.updatedAt(LocalDateTime.now()).build() : null;
+        }
+    }
+}
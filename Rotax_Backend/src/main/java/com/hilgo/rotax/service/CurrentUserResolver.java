@@ -0,0 +1,91 @@
+package com.hilgo.rotax.service;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.annotation.RequestScope;
+
+import com.hilgo.rotax.dto.AuthenticatedUser;
+import com.hilgo.rotax.dto.CachedUser;
+import com.hilgo.rotax.entity.Distributor;
+import com.hilgo.rotax.entity.Driver;
+import com.hilgo.rotax.entity.User;
+import com.hilgo.rotax.exception.ResourceNotFoundException;
+import com.hilgo.rotax.repository.DistributorRepository;
+import com.hilgo.rotax.repository.DriverRepository;
+import com.hilgo.rotax.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * İstekteki kullanıcının id'sini istek başına bir kez çözer. Id token claim'lerinden ya da yüklenmiş
+ * principal'dan okunur; yalnızca ikisi de yoksa (ör. testlerde sahte kullanıcı) kullanıcı adıyla tek id sorgusu yapılır.
+ * Servislere lazy referans ({@code getReferenceById}) verilir: yalnızca id'si kullanılan kullanıcı için
+ * sorgu çalışmaz, bir alan okunduğunda birincil anahtarla yüklenir.
+ */
+@Service
+@RequestScope
+@RequiredArgsConstructor
+public class CurrentUserResolver {
+
+    private final UserRepository userRepository;
+    private final DriverRepository driverRepository;
+    private final DistributorRepository distributorRepository;
+
+    private Long userId;
+
+    public Long getUserId() {
+        if (userId == null) {
+            userId = resolveUserId();
+        }
+        return userId;
+    }
+
+    /**
+     * Sürücü için lazy referans; alanlarına transaction (veya açık oturum) içinde erişilmelidir.
+     */
+    public Driver getDriverReference() {
+        return driverRepository.getReferenceById(getUserId());
+    }
+
+    /**
+     * Sürücüyü birincil anahtarla yükler; alanları transaction dışında okunacaksa kullanılır.
+     */
+    public Driver getDriver() {
+        Long id = getUserId();
+        return driverRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Driver", "id", id));
+    }
+
+    /**
+     * Dağıtıcı için lazy referans; alanlarına transaction (veya açık oturum) içinde erişilmelidir.
+     */
+    public Distributor getDistributorReference() {
+        return distributorRepository.getReferenceById(getUserId());
+    }
+
+    /**
+     * Dağıtıcıyı birincil anahtarla yükler; alanları transaction dışında okunacaksa kullanılır.
+     */
+    public Distributor getDistributor() {
+        Long id = getUserId();
+        return distributorRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Distributor", "id", id));
+    }
+
+    private Long resolveUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.id();
+        }
+        if (authentication.getPrincipal() instanceof CachedUser principal && principal.id() != null) {
+            return principal.id();
+        }
+        if (authentication.getPrincipal() instanceof User user && user.getId() != null) {
+            return user.getId();
+        }
+        String username = authentication.getName();
+        return userRepository.findIdByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+    }
+}
@@ -0,0 +1,199 @@
+package com.hilgo.rotax.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hilgo.rotax.entity.DistributorCargoStats;
+import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.repository.DistributorCargoStatsRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dağıtıcı kargo sayaçlarının bakımı. Kargo işlemleri sayaçları çağıranın transaction'ı içinde
+ * fark olarak günceller; böylece kargo değişikliği ile sayaç değişikliği birlikte commit ya da rollback olur.
+ * Uzlaştırma işi sayaçları kargo tablosundan tek gruplu sorguyla yeniden hesaplar.
+ */
+@Slf4j
+@Service
+public class DistributorCargoStatsService {
+
+    private static final String COUNTER_COLUMNS =
+            "total_cargos, created_cargos, assigned_cargos, picked_up_cargos, " +
+            "delivered_cargos, cancelled_cargos, expired_cargos, failed_cargos";
+
+    private static final int BATCH_SIZE = 1000;
+
+    // Sayaç satırını yoksa açar; eşzamanlı ekleme birincil anahtar hatası yerine sessizce atlanır
+    private static final String INSERT_IF_ABSENT_POSTGRES_SQL =
+            "INSERT INTO distributor_cargo_stats (distributor_id, " + COUNTER_COLUMNS + ", updated_at) " +
+            "VALUES (?, 0, 0, 0, 0, 0, 0, 0, 0, CURRENT_TIMESTAMP) ON CONFLICT (distributor_id) DO NOTHING";
+    // Diğer veritabanları (testlerdeki H2) için standart MERGE karşılığı
+    private static final String INSERT_IF_ABSENT_SQL =
+            "MERGE INTO distributor_cargo_stats s USING (VALUES (CAST(? AS BIGINT))) AS n(distributor_id) " +
+            "ON s.distributor_id = n.distributor_id WHEN NOT MATCHED THEN " +
+            "INSERT (distributor_id, " + COUNTER_COLUMNS + ", updated_at) " +
+            "VALUES (n.distributor_id, 0, 0, 0, 0, 0, 0, 0, 0, CURRENT_TIMESTAMP)";
+
+    private final DistributorCargoStatsRepository statsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Boolean postgres;
+
+    public DistributorCargoStatsService(DistributorCargoStatsRepository statsRepository,
+                                        JdbcTemplate jdbcTemplate,
+                                        PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional
+    public void cargoCreated(Long distributorId) {
+        cargoCreated(distributorId, 1);
+    }
+
+    /**
+     * {@code count} yeni kargoyu tek satır kilidiyle kaydeder (toplu oluşturma).
+     */
+    @Transactional
+    public void cargoCreated(Long distributorId, int count) {
+        if (count == 0) {
+            return;
+        }
+        DistributorCargoStats stats = lock(distributorId);
+        stats.setTotalCargos(stats.getTotalCargos() + count);
+        stats.add(CargoSituation.CREATED, count);
+    }
+
+    @Transactional
+    public void cargoMoved(Long distributorId, CargoSituation from, CargoSituation to) {
+        cargoMoved(distributorId, from, to, 1);
+    }
+
+    /**
+     * {@code count} kargonun {@code from} durumundan {@code to} durumuna geçtiğini kaydeder.
+     */
+    @Transactional
+    public void cargoMoved(Long distributorId, CargoSituation from, CargoSituation to, int count) {
+        if (from == to || count == 0) {
+            return;
+        }
+        DistributorCargoStats stats = lock(distributorId);
+        stats.add(from, -count);
+        stats.add(to, count);
+    }
+
+    /**
+     * Dağıtıcının sayaçları; henüz satırı yoksa sıfır değerli bir nesne döner.
+     */
+    @Transactional(readOnly = true)
+    public DistributorCargoStats get(Long distributorId) {
+        return statsRepository.findById(distributorId)
+                .orElseGet(() -> new DistributorCargoStats(distributorId));
+    }
+
+    /**
+     * Sayaç satırı olmayan dağıtıcı varsa (ör. özelliğin ilk yayını) açılışta uzlaştırma yapılır.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileIfMissing() {
+        try {
+            Long missing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM distributor d WHERE NOT EXISTS " +
+                    "(SELECT 1 FROM distributor_cargo_stats s WHERE s.distributor_id = d.user_id)", Long.class);
+            if (missing != null && missing > 0) {
+                log.info("{} dağıtıcının kargo sayacı yok, uzlaştırma başlatılıyor", missing);
+                reconcile();
+            }
+        } catch (Exception e) {
+            log.error("Dağıtıcı kargo sayaçları açılışta uzlaştırılamadı", e);
+        }
+    }
+
+    /**
+     * Tüm dağıtıcıların sayaçlarını kargo tablosundan yeniden hesaplar.
+     * Önce tüm sayaç satırları kilitlenir; bu sırada işlenen kargo işlemleri ya sayıma dahil olur
+     * ya da farklarını uzlaştırma commit edildikten sonra uygular, hiçbir değişiklik iki kez sayılmaz.
+     */
+    @Scheduled(cron = "${distributor.stats.reconcile-cron:0 45 3 * * *}")
+    public void reconcile() {
+        long started = System.nanoTime();
+        int distributors = transactionTemplate.execute(status -> recompute());
+        log.info("Dağıtıcı kargo sayaçları uzlaştırıldı: {} dağıtıcı, {} ms",
+                distributors, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private int recompute() {
+        jdbcTemplate.update("INSERT INTO distributor_cargo_stats (distributor_id, " + COUNTER_COLUMNS + ", updated_at) " +
+                "SELECT d.user_id, 0, 0, 0, 0, 0, 0, 0, 0, CURRENT_TIMESTAMP FROM distributor d WHERE NOT EXISTS " +
+                "(SELECT 1 FROM distributor_cargo_stats s WHERE s.distributor_id = d.user_id)");
+        jdbcTemplate.update("UPDATE distributor_cargo_stats SET total_cargos = 0, created_cargos = 0, assigned_cargos = 0, " +
+                "picked_up_cargos = 0, delivered_cargos = 0, cancelled_cargos = 0, expired_cargos = 0, failed_cargos = 0");
+
+        Map<Long, DistributorCargoStats> computed = new HashMap<>();
+        jdbcTemplate.query("SELECT distributor_user_id, cargo_situation, COUNT(*) FROM cargo " +
+                "WHERE distributor_user_id IS NOT NULL GROUP BY distributor_user_id, cargo_situation", rs -> {
+            DistributorCargoStats stats = computed.computeIfAbsent(rs.getLong(1), DistributorCargoStats::new);
+            long count = rs.getLong(3);
+            stats.setTotalCargos(stats.getTotalCargos() + count);
+            String situation = rs.getString(2);
+            if (situation != null) {
+                stats.add(CargoSituation.valueOf(situation), count);
+            }
+        });
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate("UPDATE distributor_cargo_stats SET total_cargos = ?, created_cargos = ?, assigned_cargos = ?, " +
+                        "picked_up_cargos = ?, delivered_cargos = ?, cancelled_cargos = ?, expired_cargos = ?, failed_cargos = ?, " +
+                        "updated_at = ? WHERE distributor_id = ?",
+                computed.values(), BATCH_SIZE, (ps, stats) -> {
+                    ps.setLong(1, stats.getTotalCargos());
+                    ps.setLong(2, stats.getCreatedCargos());
+                    ps.setLong(3, stats.getAssignedCargos());
+                    ps.setLong(4, stats.getPickedUpCargos());
+                    ps.setLong(5, stats.getDeliveredCargos());
+                    ps.setLong(6, stats.getCancelledCargos());
+                    ps.setLong(7, stats.getExpiredCargos());
+                    ps.setLong(8, stats.getFailedCargos());
+                    ps.setTimestamp(9, now);
+                    ps.setLong(10, stats.getDistributorId());
+                });
+        return computed.size();
+    }
+
+    // İlk kargosunu oluşturan dağıtıcı için satır burada açılır. Aynı dağıtıcının eşzamanlı iki işlemi
+    // satırı birlikte açmaya çalışabilir; ekleme çakışmada hiçbir şey yapmaz, ardından mevcut satır kilitlenir.
+    private DistributorCargoStats lock(Long distributorId) {
+        Optional<DistributorCargoStats> stats = statsRepository.findForUpdate(distributorId);
+        if (stats.isPresent()) {
+            return stats.get();
+        }
+        jdbcTemplate.update(isPostgres() ? INSERT_IF_ABSENT_POSTGRES_SQL : INSERT_IF_ABSENT_SQL, distributorId);
+        return statsRepository.findForUpdate(distributorId)
+                .orElseThrow(() -> new IllegalStateException("Dağıtıcı kargo sayacı oluşturulamadı: " + distributorId));
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equalsIgnoreCase(database);
+        }
+        return postgres;
+    }
+}
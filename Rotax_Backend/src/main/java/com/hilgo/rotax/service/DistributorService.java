@@ -1,21 +1,28 @@
 package com.hilgo.rotax.service;
 
+import java.io.InputStream;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.hilgo.rotax.entity.*;
 import com.hilgo.rotax.repository.*;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.hilgo.rotax.dto.BulkCargoResponse;
 import com.hilgo.rotax.dto.CargoDTO;
+import com.hilgo.rotax.dto.CargoSliceResponse;
+import com.hilgo.rotax.dto.CargoView;
 import com.hilgo.rotax.dto.CreateCargoRequest;
 import com.hilgo.rotax.dto.DistributorDashboardResponse;
 import com.hilgo.rotax.dto.LocationDTO;
@@ -23,6 +30,9 @@ import com.hilgo.rotax.dto.MeasureDTO;
 import com.hilgo.rotax.dto.ProfileUpdateRequestDTO;
 import com.hilgo.rotax.dto.UserDTO;
 import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.enums.CargoSortField;
+import com.hilgo.rotax.exception.BadRequestException;
+import com.hilgo.rotax.exception.CargoStateChangedException;
 import com.hilgo.rotax.exception.OperationNotAllowedException;
 import com.hilgo.rotax.exception.ResourceNotFoundException;
 import com.hilgo.rotax.exception.UserNotActiveException;
@@ -35,49 +45,57 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class DistributorService {
 
+    private static final Set<CargoSituation> ACTIVE_SITUATIONS =
+            EnumSet.of(CargoSituation.CREATED, CargoSituation.ASSIGNED, CargoSituation.PICKED_UP);
+    // Panelde gösterilen kargo listelerinin üst sınırları (sayılar her zaman tamdır)
+    private static final int CURRENT_CARGO_LIMIT = 50;
+    private static final int RECENT_CARGO_LIMIT = 5;
+    private static final int MAX_CARGO_PAGE_SIZE = 100;
+    // Takip kodu alfabesi: Crockford base32 (I, L, O, U yok; kodlar elle okunup yazıldığında karışmasın)
+    private static final String VERIFICATION_CODE_ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    static final int VERIFICATION_CODE_LENGTH = 12;
+    private static final SecureRandom VERIFICATION_CODE_RANDOM = new SecureRandom();
+
     private final DistributorRepository distributorRepository;
     private final CargoRepository cargoRepository;
-    private final LocationRepository locationRepository;
-    private final MeasureRepository measureRepository;
     private final FileStorageService fileStorageService;
     private final AuthenticationService authenticationService;
-    private final UserRepository userRepository;
+    private final CargoOfferIndex cargoOfferIndex;
+    private final CargoTrackingHub cargoTrackingHub;
+    private final DistributorCargoStatsService distributorCargoStatsService;
+    private final CargoBulkImportService cargoBulkImportService;
+    private final PrincipalCache principalCache;
+    private final CurrentUserResolver currentUserResolver;
 
+    /**
+     * İstekteki dağıtıcının lazy referansı; sorgu yalnızca bir alanı okunduğunda birincil anahtarla çalışır.
+     */
     public Distributor getCurrentDistributor() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        return distributorRepository.findByUsername(username)
-                .orElseThrow(() -> new com.hilgo.rotax.exception.ResourceNotFoundException("Distributor", "username", username));
+        return currentUserResolver.getDistributorReference();
     }
 
+    @Transactional(readOnly = true)
     public DistributorDashboardResponse getDistributorDashboard() {
         Distributor distributor = getCurrentDistributor();
         
-        // Get distributor's cargos
-        List<Cargo> allCargos = cargoRepository.findByDistributor(distributor);
+        // Sayılar önceden tutulan sayaç satırından; kargo geçmişi belleğe yüklenmez
+        DistributorCargoStats stats = distributorCargoStatsService.get(distributor.getId());
+        long activeCount = ACTIVE_SITUATIONS.stream().mapToLong(stats::count).sum();
         
-        List<Cargo> activeCargos = allCargos.stream()
-                .filter(cargo -> cargo.getCargoSituation() == CargoSituation.CREATED || 
-                                cargo.getCargoSituation() == CargoSituation.ASSIGNED || 
-                                cargo.getCargoSituation() == CargoSituation.PICKED_UP)
-                .collect(Collectors.toList());
+        List<CargoView> activeCargos = cargoRepository.findViewsByDistributorAndSituationIn(distributor.getId(),
+                ACTIVE_SITUATIONS, PageRequest.of(0, CURRENT_CARGO_LIMIT, Sort.by(Sort.Direction.DESC, "updatedAt")));
         
-        List<Cargo> recentCargos = allCargos.stream()
-                .filter(cargo -> cargo.getCargoSituation() == CargoSituation.DELIVERED)
-                .sorted((c1, c2) -> c2.getUpdatedAt().compareTo(c1.getUpdatedAt()))
-                .limit(5)
-                .collect(Collectors.toList());
+        List<CargoView> recentCargos = cargoRepository.findViewsByDistributorAndSituationIn(distributor.getId(),
+                List.of(CargoSituation.DELIVERED), PageRequest.of(0, RECENT_CARGO_LIMIT, Sort.by(Sort.Direction.DESC, "updatedAt")));
         
         return DistributorDashboardResponse.builder()
                 .distributorId(distributor.getId())
                 .distributorName(distributor.getFirstName() + " " + distributor.getLastName())
-                .totalCargos(allCargos.size())
-                .activeCargos(activeCargos.size())
-                .deliveredCargos((int) allCargos.stream()
-                        .filter(cargo -> cargo.getCargoSituation() == CargoSituation.DELIVERED)
-                        .count())
-                .currentCargos(activeCargos.stream().map(this::mapToCargoDTO).collect(Collectors.toList()))
-                .recentCargos(recentCargos.stream().map(this::mapToCargoDTO).collect(Collectors.toList()))
+                .totalCargos((int) stats.getTotalCargos())
+                .activeCargos((int) activeCount)
+                .deliveredCargos((int) stats.getDeliveredCargos())
+                .currentCargos(activeCargos.stream().map(CargoView::toDTO).collect(Collectors.toList()))
+                .recentCargos(recentCargos.stream().map(CargoView::toDTO).collect(Collectors.toList()))
                 .build();
     }
 
@@ -90,21 +108,16 @@ public class DistributorService {
             throw new UserNotActiveException("Hesabınız henüz onaylanmamıştır. Kargo oluşturamazsınız.");
         }
         
-        // Create and save locations
+        // Konumlar ve ölçü kargo satırına gömülüdür; kargo tek insert ile yazılır
         Location selfLocation = getTargetLocation(request.getSelfLocation());
-        locationRepository.save(selfLocation);
-
         Location targetLocation = getTargetLocation(request.getTargetLocation());
-        locationRepository.save(targetLocation);
         
-        // Create and save measure
         Measure measure = new Measure();
         measure.setWeight(request.getMeasure().getWeight());
         measure.setWidth(request.getMeasure().getWidth());
         measure.setHeight(request.getMeasure().getHeight());
         measure.setLength(request.getMeasure().getLength());
         measure.setSize(request.getMeasure().getSize());
-        measureRepository.save(measure);
         
         // Create cargo
         Cargo cargo = Cargo.builder()
@@ -119,10 +132,29 @@ public class DistributorService {
                 .build();
         
         cargo = cargoRepository.save(cargo);
+        // Id sequence bloğundan geldiği için insert burada yazılır; createdAt/updatedAt da bu anda atanır ve yanıtta dolu döner
+        cargoRepository.flush();
+        distributorCargoStatsService.cargoCreated(distributor.getId());
+        cargoOfferIndex.add(cargo);
         
         return mapToCargoDTO(cargo);
     }
 
+    /**
+     * Manifestteki kargoları toplu oluşturur; manifest akış halinde okunur.
+     * Parçalar ayrı transaction'larda yazılır, bu yüzden metot transaction açmaz.
+     */
+    public BulkCargoResponse createCargos(InputStream manifest, MediaType contentType) {
+        // Transaction dışında alanları okunduğu için referans değil, yüklenmiş varlık kullanılır
+        Distributor distributor = currentUserResolver.getDistributor();
+
+        if (!distributor.getEnabled()) {
+            throw new UserNotActiveException("Hesabınız henüz onaylanmamıştır. Kargo oluşturamazsınız.");
+        }
+
+        return cargoBulkImportService.importCargos(distributor, manifest, contentType);
+    }
+
     private static Location getTargetLocation(LocationDTO request) {
         Location targetLocation = new Location();
         targetLocation.setLatitude(request.getLatitude());
@@ -170,6 +202,7 @@ public class DistributorService {
 
         Distributor updatedDistributor = distributorRepository.save(distributor);
         log.info("Dağıtıcı profili güncellendi: {}", updatedDistributor.getUsername());
+        principalCache.invalidate(updatedDistributor.getUsername());
 
         // Güncellenmiş kullanıcıyı standart bir DTO'ya çevirip döndür
         return authenticationService.convertToDTO(updatedDistributor);
@@ -184,33 +217,61 @@ public class DistributorService {
 
         Distributor updatedDistributor = distributorRepository.save(distributor);
         log.info("Dağıtıcı profil resmi güncellendi: {}", distributor.getUsername());
+        principalCache.invalidate(updatedDistributor.getUsername());
 
         return authenticationService.convertToDTO(updatedDistributor);
     }
 
     public Page<CargoDTO> getAllCargos(Pageable pageable) {
-        String userName = SecurityContextHolder.getContext().getAuthentication().getName();
-        Optional<User> optUser = userRepository.findByUsername(userName);
-        if (optUser.isEmpty())
-            throw new ResourceNotFoundException("User", "username", userName);
-        Distributor distributor = distributorRepository.findByUsername(userName).get();
-        Page<Cargo> cargoPage = cargoRepository.findByDistributorId(distributor.getId(), pageable);
-        Page<CargoDTO> cargoDTOPage = cargoPage.map(this::mapToCargoDTO);
+        Page<CargoView> cargoPage = cargoRepository.findViewsByDistributorId(currentUserResolver.getUserId(), pageable);
+        Page<CargoDTO> cargoDTOPage = cargoPage.map(CargoView::toDTO);
         return cargoDTOPage;
     }
 
+    /**
+     * Dağıtıcının kargolarını (sıralama alanı, id) anahtarına göre ileri doğru sayfalar.
+     * Sayfa başına tek sorgu çalışır: bir fazla satır okunarak sonraki sayfanın varlığı anlaşılır, COUNT yapılmaz.
+     * Toplam istenirse dağıtıcı kargo sayaçlarından okunur.
+     */
+    public CargoSliceResponse scrollCargos(CargoSortField sortField, Sort.Direction direction, String cursor,
+                                           int size, boolean includeTotal) {
+        Long distributorId = currentUserResolver.getUserId();
+        int limit = Math.max(1, Math.min(size, MAX_CARGO_PAGE_SIZE));
+
+        CargoCursor after = cursor != null && !cursor.isBlank() ? CargoCursor.decode(cursor) : null;
+        if (after != null && (after.getSortField() != sortField || after.getDirection() != direction)) {
+            throw new BadRequestException("Sayfa imleci farklı bir sıralama için oluşturulmuş");
+        }
+
+        List<CargoView> rows = cargoRepository.scrollViewsByDistributorId(distributorId, sortField, direction,
+                after != null ? after.getValue() : null, after != null ? after.getId() : null, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<CargoView> content = hasNext ? rows.subList(0, limit) : rows;
+
+        return CargoSliceResponse.builder()
+                .content(content.stream().map(CargoView::toDTO).collect(Collectors.toList()))
+                .size(limit)
+                .numberOfElements(content.size())
+                .sortBy(sortField.getProperty())
+                .direction(direction.name())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? CargoCursor.after(content.get(limit - 1), sortField, direction).encode() : null)
+                .totalElements(includeTotal ? distributorCargoStatsService.get(distributorId).getTotalCargos() : null)
+                .build();
+    }
+
     public CargoDTO getCargoById(Long cargoId) {
-        Distributor distributor = getCurrentDistributor();
+        Long distributorId = currentUserResolver.getUserId();
         
-        Cargo cargo = cargoRepository.findById(cargoId)
+        CargoView cargo = cargoRepository.findViewById(cargoId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cargo", "id", cargoId));
         
         // Check if cargo belongs to distributor
-        if (!cargo.getDistributor().getId().equals(distributor.getId())) {
+        if (!cargo.distributorId().equals(distributorId)) {
             throw new OperationNotAllowedException("Bu kargoyu görüntüleme yetkiniz yok.");
         }
         
-        return mapToCargoDTO(cargo);
+        return cargo.toDTO();
     }
 
     @Transactional
@@ -231,8 +292,16 @@ public class DistributorService {
             throw new OperationNotAllowedException("Kargo '" + cargo.getCargoSituation() + "' durumundayken iptal edilemez.");
         }
         
-        cargo.setCargoSituation(CargoSituation.CANCELLED);
-        cargo = cargoRepository.save(cargo);
+        // Koşullu UPDATE: okuma ile yazma arasında kargo bir sürücüye atandıysa iptal eski haliyle yazılmaz
+        CargoSituation previous = cargo.getCargoSituation();
+        if (cargoRepository.transition(cargoId, previous, CargoSituation.CANCELLED, LocalDateTime.now()) == 0) {
+            throw new CargoStateChangedException("Kargonun durumu bu arada değişti. Lütfen tekrar deneyin.");
+        }
+        cargo = cargoRepository.findById(cargoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cargo", "id", cargoId));
+        distributorCargoStatsService.cargoMoved(distributor.getId(), previous, CargoSituation.CANCELLED);
+        cargoOfferIndex.remove(cargoId);
+        cargoTrackingHub.cargoChanged(cargo);
         
         return mapToCargoDTO(cargo);
     }
@@ -287,8 +356,13 @@ public class DistributorService {
                 .build();
     }
 
-    private String generateVerificationCode() {
-        // Generate a random 8-character code
-        return UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    static String generateVerificationCode() {
+        // 12 karakter base32 = 60 bit: 8 hex karakterde (32 bit) ~77 bin kargoda %50 çakışma olasılığı vardı,
+        // bu uzunlukta benzersizlik indeksine takılma olasılığı milyarlarca kargoda bile ihmal edilebilir
+        char[] code = new char[VERIFICATION_CODE_LENGTH];
+        for (int i = 0; i < code.length; i++) {
+            code[i] = VERIFICATION_CODE_ALPHABET.charAt(VERIFICATION_CODE_RANDOM.nextInt(VERIFICATION_CODE_ALPHABET.length()));
+        }
+        return new String(code);
     }
 }
\ No newline at end of file
@@ -0,0 +1,186 @@
+package com.hilgo.rotax.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.hilgo.rotax.repository.DriverLocationHistoryRepository.HistoryPoint;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sürücülerden gelen yüksek frekanslı GPS bildirimlerini bellekte toplayan tampon.
+ * Her sürücü için yalnızca en yeni konum tutulur (last-write-wins); tampon periyodik olarak
+ * tek bir JDBC batch update ile sürücü satırındaki konum sütunlarına yazılır.
+ * Okuyucular (kargo takibi, teklifler) veritabanına yazılmayı beklemeden en güncel konumu buradan alır.
+ * Kabul edilen tüm bildirimler ayrıca aynı turda konum geçmişine toplu olarak eklenir.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DriverLocationBuffer {
+
+    private static final String UPDATE_LOCATION_SQL =
+            "UPDATE driver SET location_latitude = ?, location_longitude = ?, location_updated_at = ? WHERE user_id = ? " +
+            // Tampondan alınmış ama henüz yazılmamış eski bir bildirim, bu arada doğrudan yazılan
+            // (ör. durum güncellemesi) daha yeni konumu ezmesin
+            "AND (location_updated_at IS NULL OR location_updated_at <= ?)";
+
+    // Veritabanı uzun süre yazılamazsa geçmiş kuyruğu belleği doldurmasın
+    private static final int MAX_PENDING_HISTORY = 100_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DriverLocationIndex driverLocationIndex;
+    private final DriverLocationHistoryService driverLocationHistoryService;
+
+    // Henüz veritabanına yazılmamış konumlar
+    private final Map<Long, BufferedLocation> pending = new ConcurrentHashMap<>();
+    // Her sürücünün bilinen en güncel konumu (okuyucular için)
+    private final Map<Long, BufferedLocation> latest = new ConcurrentHashMap<>();
+    // Geçmişe henüz yazılmamış tüm bildirimler (geç gelen eski bildirimler dahil)
+    private final Queue<HistoryPoint> pendingHistory = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingHistorySize = new AtomicInteger();
+
+    /**
+     * Konum bildirimini tampona ekler. Aynı sürücünün daha eski tarihli bildirimleri yok sayılır.
+     * @return Bildirim sürücünün en güncel konumu olduysa true.
+     */
+    public boolean offer(Long driverId, double latitude, double longitude, LocalDateTime recordedAt) {
+        return offer(driverId, latitude, longitude, recordedAt, true);
+    }
+
+    /**
+     * {@link #offer} gibi, ancak noktayı geçmiş kuyruğuna eklemez; geçmişe zaten yazılmış
+     * (ör. toplu gönderilen) noktaların sürücünün güncel konumu olarak işlenmesi için.
+     * @return Bildirim sürücünün en güncel konumu olduysa true.
+     */
+    public boolean offerLatest(Long driverId, double latitude, double longitude, LocalDateTime recordedAt) {
+        return offer(driverId, latitude, longitude, recordedAt, false);
+    }
+
+    private boolean offer(Long driverId, double latitude, double longitude, LocalDateTime recordedAt, boolean recordHistory) {
+        LocalDateTime now = LocalDateTime.now();
+        // Saati ileride olan cihazlar sonraki bildirimleri ezmesin
+        LocalDateTime timestamp = recordedAt == null || recordedAt.isAfter(now) ? now : recordedAt;
+        BufferedLocation location = new BufferedLocation(driverId, latitude, longitude, timestamp);
+        if (recordHistory) {
+            enqueueHistory(new HistoryPoint(driverId, latitude, longitude, timestamp));
+        }
+
+        BufferedLocation winner = latest.merge(driverId, location, DriverLocationBuffer::newer);
+        if (winner != location) {
+            return false;
+        }
+        pending.merge(driverId, location, DriverLocationBuffer::newer);
+        driverLocationIndex.move(driverId, latitude, longitude);
+        return true;
+    }
+
+    /**
+     * Sürücünün veritabanında henüz görünmeyenler dahil bilinen en güncel konumu.
+     */
+    public Optional<BufferedLocation> latest(Long driverId) {
+        return Optional.ofNullable(latest.get(driverId));
+    }
+
+    /**
+     * Konum başka bir yoldan (ör. durum güncellemesi) doğrudan yazıldığında tampondaki eski kaydı siler.
+     */
+    public void discard(Long driverId) {
+        pending.remove(driverId);
+        latest.remove(driverId);
+    }
+
+    @Scheduled(fixedDelayString = "${driver.location.flush-interval-ms:2000}")
+    public void flush() {
+        flushHistory();
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<BufferedLocation> batch = new ArrayList<>(pending.size());
+        for (Long driverId : pending.keySet()) {
+            BufferedLocation location = pending.remove(driverId);
+            if (location != null) {
+                batch.add(location);
+            }
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LOCATION_SQL, batch, batch.size(), (ps, location) -> {
+                Timestamp recordedAt = Timestamp.valueOf(location.getRecordedAt());
+                ps.setDouble(1, location.getLatitude());
+                ps.setDouble(2, location.getLongitude());
+                ps.setTimestamp(3, recordedAt);
+                ps.setLong(4, location.getDriverId());
+                ps.setTimestamp(5, recordedAt);
+            });
+            log.debug("{} sürücü konumu veritabanına yazıldı", batch.size());
+        } catch (Exception e) {
+            // Yazılamayan konumlar bir sonraki turda tekrar denensin (daha yenisi geldiyse o kazanır)
+            batch.forEach(location -> pending.merge(location.getDriverId(), location, DriverLocationBuffer::newer));
+            log.error("Sürücü konumları veritabanına yazılamadı: {}", e.getMessage());
+        }
+    }
+
+    private void flushHistory() {
+        if (pendingHistory.isEmpty()) {
+            return;
+        }
+
+        List<HistoryPoint> batch = new ArrayList<>();
+        HistoryPoint point;
+        while ((point = pendingHistory.poll()) != null) {
+            batch.add(point);
+        }
+        pendingHistorySize.addAndGet(-batch.size());
+
+        try {
+            driverLocationHistoryService.append(batch);
+        } catch (Exception e) {
+            // Ekleme tek transaction'da yapıldığından hiçbir satır yazılmamıştır; tümü tekrar denenir
+            batch.forEach(this::enqueueHistory);
+            log.error("Sürücü konum geçmişi yazılamadı: {}", e.getMessage());
+        }
+    }
+
+    private void enqueueHistory(HistoryPoint point) {
+        if (pendingHistorySize.incrementAndGet() > MAX_PENDING_HISTORY) {
+            pendingHistorySize.decrementAndGet();
+            log.warn("Konum geçmişi kuyruğu dolu, sürücü {} için nokta atlandı", point.getDriverId());
+            return;
+        }
+        pendingHistory.add(point);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private static BufferedLocation newer(BufferedLocation current, BufferedLocation candidate) {
+        return candidate.getRecordedAt().isBefore(current.getRecordedAt()) ? current : candidate;
+    }
+
+    @Value
+    public static class BufferedLocation {
+        Long driverId;
+        double latitude;
+        double longitude;
+        LocalDateTime recordedAt;
+    }
+}
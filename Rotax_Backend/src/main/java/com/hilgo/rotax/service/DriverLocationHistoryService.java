@@ -0,0 +1,110 @@
+package com.hilgo.rotax.service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.hilgo.rotax.repository.DriverLocationHistoryRepository;
+import com.hilgo.rotax.repository.DriverLocationHistoryRepository.HistoryPoint;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sürücü konum geçmişinin yazılması, okunması ve saklama süresinin yönetimi.
+ * Aylık bölümler önceden oluşturulur; saklama süresini aşan aylar tek seferde düşürülür.
+ */
+@Slf4j
+@Service
+public class DriverLocationHistoryService {
+
+    private final DriverLocationHistoryRepository historyRepository;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int retentionMonths;
+    private final int monthsAhead;
+
+    public DriverLocationHistoryService(DriverLocationHistoryRepository historyRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${driver.location.history.retention-months:6}") int retentionMonths,
+                                        @Value("${driver.location.history.months-ahead:2}") int monthsAhead) {
+        this.historyRepository = historyRepository;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.retentionMonths = retentionMonths;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Noktaları geçmişe toplu olarak ekler. Saklama süresinden eski noktalar için bölüm
+     * bulunmadığından bu noktalar yazılmadan atlanır. Tüm parçalar tek transaction'da yazılır:
+     * hata olursa hiçbir nokta eklenmemiş olur ve çağıran tarafın tekrar denemesi satırları çoğaltmaz.
+     * @return Eklenen satır sayısı.
+     */
+    public int append(List<HistoryPoint> points) {
+        LocalDateTime cutoff = retentionStart().atDay(1).atStartOfDay();
+        List<HistoryPoint> retained = points.stream()
+                .filter(point -> !point.getRecordedAt().isBefore(cutoff))
+                .collect(Collectors.toList());
+        if (retained.size() < points.size()) {
+            log.debug("Saklama süresinden eski {} konum noktası atlandı", points.size() - retained.size());
+        }
+        if (retained.isEmpty()) {
+            return 0;
+        }
+        Integer inserted = writeTransaction.execute(status -> historyRepository.insertAll(retained));
+        return inserted != null ? inserted : 0;
+    }
+
+    /**
+     * Sürücünün [from, to) aralığındaki noktalarını zaman sırasıyla tek tek tüketiciye verir.
+     * Noktalar veritabanından parça parça okunur; aralığın tamamı hiçbir zaman bellekte tutulmaz.
+     */
+    public void forEachPoint(Long driverId, LocalDateTime from, LocalDateTime to, Consumer<HistoryPoint> consumer) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<HistoryPoint> points = historyRepository.streamByDriverBetween(driverId, from, to)) {
+                points.forEach(consumer);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${driver.location.history.maintenance-cron:0 15 3 * * *}")
+    public void maintainPartitions() {
+        if (!historyRepository.isPartitioned()) {
+            return;
+        }
+        try {
+            YearMonth oldest = retentionStart();
+            YearMonth newest = YearMonth.now().plusMonths(monthsAhead);
+            for (YearMonth month = oldest; !month.isAfter(newest); month = month.plusMonths(1)) {
+                historyRepository.createMonthlyPartition(month);
+            }
+
+            for (YearMonth month : historyRepository.findPartitionMonths()) {
+                if (month.isBefore(oldest)) {
+                    historyRepository.dropPartition(month);
+                    log.info("Konum geçmişi bölümü saklama süresi dolduğu için silindi: {}", month);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Konum geçmişi bölümleri güncellenemedi", e);
+        }
+    }
+
+    // Saklanan en eski ay (içinde bulunulan ay dahil retentionMonths ay)
+    private YearMonth retentionStart() {
+        return YearMonth.now().minusMonths(retentionMonths - 1L);
+    }
+}
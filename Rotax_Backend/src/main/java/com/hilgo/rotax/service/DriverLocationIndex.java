@@ -0,0 +1,151 @@
+package com.hilgo.rotax.service;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hilgo.rotax.dto.NearbyDriverDTO;
+import com.hilgo.rotax.entity.Driver;
+import com.hilgo.rotax.entity.Location;
+import com.hilgo.rotax.enums.CarType;
+import com.hilgo.rotax.enums.DriverStatus;
+import com.hilgo.rotax.repository.DriverRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Teklif alabilecek (ACTIVE / DESTINATION_BASED) sürücülerin bellek içi konum indeksi.
+ * Uygulama açılışında veritabanından doldurulur, sürücü durum güncellemeleriyle canlı tutulur.
+ * İndeks henüz hazır değilse sorgular veritabanına düşer.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DriverLocationIndex {
+
+    public static final Set<DriverStatus> INDEXED_STATUSES = EnumSet.of(DriverStatus.ACTIVE, DriverStatus.DESTINATION_BASED);
+
+    // ~5.5 km'lik hücreler; 10 km'lik teklif yarıçapı birkaç hücre taramasıyla karşılanır
+    private static final double CELL_SIZE_DEGREES = 0.05;
+    // İndeks hazır değilken veritabanından okunacak en fazla sürücü
+    private static final int NEARBY_FALLBACK_LIMIT = 200;
+
+    private final DriverRepository driverRepository;
+
+    private final GeoGridIndex<IndexedDriver> index = new GeoGridIndex<>(CELL_SIZE_DEGREES);
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        try {
+            index.clear();
+            List<Driver> drivers = driverRepository.findAllByDriverStatusIn(INDEXED_STATUSES);
+            drivers.forEach(this::update);
+            ready = true;
+            log.info("Sürücü konum indeksi oluşturuldu: {} sürücü", index.size());
+        } catch (Exception e) {
+            log.error("Sürücü konum indeksi oluşturulamadı, sorgular veritabanından yapılacak", e);
+        }
+    }
+
+    /**
+     * Sürücünün indeksteki kaydını durumuna ve konumuna göre ekler, günceller veya siler.
+     */
+    public void update(Driver driver) {
+        Location location = driver.getLocation();
+        if (!INDEXED_STATUSES.contains(driver.getDriverStatus())
+                || location == null || location.getLatitude() == null || location.getLongitude() == null) {
+            index.remove(driver.getId());
+            return;
+        }
+        index.put(driver.getId(), location.getLatitude(), location.getLongitude(),
+                new IndexedDriver(driver.getId(), driver.getDriverStatus(), driver.getCarType()));
+    }
+
+    /**
+     * İndekste bulunan sürücünün konumunu günceller. Teklif alamayan (indekste olmayan)
+     * sürücülerin konum bildirimleri yok sayılır.
+     */
+    public void move(Long driverId, double latitude, double longitude) {
+        GeoGridIndex.Entry<IndexedDriver> entry = index.get(driverId);
+        if (entry != null) {
+            index.put(driverId, latitude, longitude, entry.getValue());
+        }
+    }
+
+    public void remove(Long driverId) {
+        index.remove(driverId);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Collection<GeoGridIndex.Entry<IndexedDriver>> entries() {
+        return index.entries();
+    }
+
+    /**
+     * Verilen noktaya {@code radiusKm} yarıçapındaki, filtreyi sağlayan sürücüleri yakından uzağa sıralı döndürür.
+     */
+    public List<GeoGridIndex.Hit<IndexedDriver>> findWithin(double latitude, double longitude, double radiusKm,
+                                                            Predicate<IndexedDriver> filter) {
+        return index.findWithin(latitude, longitude, radiusKm, filter);
+    }
+
+    /**
+     * Verilen noktaya {@code radiusInMeters} mesafedeki uygun sürücüleri yakından uzağa sıralı döndürür.
+     */
+    public List<NearbyDriverDTO> findNearbyDrivers(double latitude, double longitude, double radiusInMeters) {
+        if (!ready) {
+            return findNearbyDriversFromDatabase(latitude, longitude, radiusInMeters);
+        }
+
+        return index.findWithin(latitude, longitude, radiusInMeters / 1000.0).stream()
+                .map(hit -> {
+                    IndexedDriver driver = hit.getValue();
+                    return NearbyDriverDTO.builder()
+                            .driverId(driver.getDriverId())
+                            .latitude(hit.getLatitude())
+                            .longitude(hit.getLongitude())
+                            .distance(hit.getDistanceKm())
+                            .driverStatus(driver.getDriverStatus())
+                            .carType(driver.getCarType())
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    private List<NearbyDriverDTO> findNearbyDriversFromDatabase(double latitude, double longitude, double radiusInMeters) {
+        // Veritabanı sonuçları zaten yakından uzağa sıralı gelir
+        return driverRepository.findNearbyDrivers(INDEXED_STATUSES, latitude, longitude, radiusInMeters, NEARBY_FALLBACK_LIMIT).stream()
+                .map(driver -> NearbyDriverDTO.builder()
+                        .driverId(driver.getId())
+                        .latitude(driver.getLocation().getLatitude())
+                        .longitude(driver.getLocation().getLongitude())
+                        .distance(GeoGridIndex.distanceKm(latitude, longitude,
+                                driver.getLocation().getLatitude(), driver.getLocation().getLongitude()))
+                        .driverStatus(driver.getDriverStatus())
+                        .carType(driver.getCarType())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Value
+    public static class IndexedDriver {
+        Long driverId;
+        DriverStatus driverStatus;
+        CarType carType;
+    }
+}
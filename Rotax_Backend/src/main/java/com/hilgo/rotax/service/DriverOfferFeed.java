@@ -0,0 +1,226 @@
+package com.hilgo.rotax.service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.hilgo.rotax.dto.CargoAssignedDTO;
+import com.hilgo.rotax.dto.CargoOfferDTO;
+import com.hilgo.rotax.dto.OfferWithdrawnDTO;
+import com.hilgo.rotax.enums.CarType;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sürücülere kargo tekliflerini canlı olarak ileten akış (Server-Sent Events).
+ * Abone sürücülerin konumları ayrı bir ızgara indeksinde tutulur; teklif indeksine kargo
+ * eklendiğinde ya da çıkarıldığında yalnızca kargonun yarıçapındaki ve kargonun sığdığı araçtaki
+ * sürücülere olay gönderilir.
+ * Boşta bekleyen sürücüler veritabanına hiç sorgu göndermez.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DriverOfferFeed implements CargoOfferIndex.Listener {
+
+    private static final double CELL_SIZE_DEGREES = 0.05;
+
+    private final CargoOfferIndex cargoOfferIndex;
+
+    @Value("${driver.offers.stream.timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Map<Long, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final GeoGridIndex<Subscription> subscriberIndex = new GeoGridIndex<>(CELL_SIZE_DEGREES);
+
+    @PostConstruct
+    public void register() {
+        cargoOfferIndex.addListener(this);
+    }
+
+    /**
+     * Sürücüyü akışa abone eder; {@code initialOffers} ilk {@code snapshot} olayı olarak gönderilir.
+     * Aynı sürücünün birden fazla cihazı aynı aboneliği paylaşır.
+     */
+    public SseEmitter subscribe(Long driverId, double latitude, double longitude, CarType carType,
+                                List<CargoOfferDTO> initialOffers) {
+        SseSubscriber subscriber = new SseSubscriber(streamTimeoutMs, sender);
+        Subscription subscription = subscriptions.compute(driverId, (id, current) -> {
+            Subscription target = current != null ? current : new Subscription(driverId);
+            target.watchers.add(subscriber);
+            return target;
+        });
+        subscriber.onClose(() -> unsubscribe(subscription, subscriber));
+
+        synchronized (subscription) {
+            subscription.carType = carType;
+            subscription.visible.clear();
+            initialOffers.forEach(offer -> subscription.visible.add(offer.getCargoId()));
+            subscriberIndex.put(driverId, latitude, longitude, subscription);
+            subscriber.send("snapshot", initialOffers);
+        }
+        return subscriber.getEmitter();
+    }
+
+    /**
+     * Abone sürücünün konumu değiştiğinde yarıçapına giren ve çıkan teklifleri gönderir.
+     * Hesap tamamen bellek içi teklif indeksinden yapılır.
+     */
+    public void driverMoved(Long driverId, double latitude, double longitude) {
+        Subscription subscription = subscriptions.get(driverId);
+        if (subscription == null || !cargoOfferIndex.isReady()) {
+            return;
+        }
+
+        List<GeoGridIndex.Hit<CargoOfferIndex.OpenCargo>> hits =
+                cargoOfferIndex.findWithin(latitude, longitude, CargoOfferIndex.OFFER_RADIUS_KM, subscription.carType);
+        synchronized (subscription) {
+            subscriberIndex.put(driverId, latitude, longitude, subscription);
+
+            Set<Long> nowVisible = hits.stream().map(GeoGridIndex.Hit::getId).collect(Collectors.toSet());
+            for (Long cargoId : new HashSet<>(subscription.visible)) {
+                if (!nowVisible.contains(cargoId)) {
+                    subscription.visible.remove(cargoId);
+                    subscription.broadcast("offer-withdrawn", new OfferWithdrawnDTO(cargoId));
+                }
+            }
+            for (GeoGridIndex.Hit<CargoOfferIndex.OpenCargo> hit : hits) {
+                if (subscription.visible.add(hit.getId())) {
+                    subscription.broadcast("offer-added", hit.getValue().toOffer(hit.getDistanceKm()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Sürücünün araç tipi değiştiğinde aboneliğin kapasite filtresini günceller; yeni araca sığan
+     * teklifler eklenir, sığmayanlar geri çekilir. Sürücünün yeniden bağlanması gerekmez.
+     */
+    public void driverProfileChanged(Long driverId, CarType carType) {
+        Subscription subscription = subscriptions.get(driverId);
+        if (subscription == null) {
+            return;
+        }
+        subscription.carType = carType;
+        GeoGridIndex.Entry<Subscription> entry = subscriberIndex.get(driverId);
+        if (entry != null) {
+            driverMoved(driverId, entry.getLatitude(), entry.getLongitude());
+        }
+    }
+
+    /**
+     * Eşleştirme motorunun sürücüye atadığı kargoyu sürücünün bağlı cihazlarına {@code cargo-assigned} olayı
+     * olarak bildirir. Akışa bağlı olmayan sürücü atamayı kargo listesinde görür.
+     */
+    public void cargoAssigned(Long driverId, Long cargoId) {
+        Subscription subscription = subscriptions.get(driverId);
+        if (subscription == null) {
+            return;
+        }
+        synchronized (subscription) {
+            subscription.broadcast("cargo-assigned", new CargoAssignedDTO(cargoId));
+        }
+    }
+
+    /**
+     * Sürücü teklif alamaz duruma geçtiğinde (ör. OFFLINE) akışını kapatır.
+     */
+    public void close(Long driverId) {
+        Subscription subscription = subscriptions.get(driverId);
+        if (subscription != null) {
+            subscription.watchers.forEach(SseSubscriber::completeAfterPending);
+        }
+    }
+
+    @Override
+    public void offerAdded(CargoOfferIndex.OpenCargo cargo) {
+        for (GeoGridIndex.Hit<Subscription> hit : driversAround(cargo)) {
+            Subscription subscription = hit.getValue();
+            synchronized (subscription) {
+                if (subscription.visible.add(cargo.getCargoId())) {
+                    subscription.broadcast("offer-added", cargo.toOffer(hit.getDistanceKm()));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void offerWithdrawn(CargoOfferIndex.OpenCargo cargo) {
+        for (GeoGridIndex.Hit<Subscription> hit : driversAround(cargo)) {
+            Subscription subscription = hit.getValue();
+            synchronized (subscription) {
+                if (subscription.visible.remove(cargo.getCargoId())) {
+                    subscription.broadcast("offer-withdrawn", new OfferWithdrawnDTO(cargo.getCargoId()));
+                }
+            }
+        }
+    }
+
+    Set<Long> visibleOffers(Long driverId) {
+        Subscription subscription = subscriptions.get(driverId);
+        if (subscription == null) {
+            return Set.of();
+        }
+        synchronized (subscription) {
+            return Set.copyOf(subscription.visible);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private List<GeoGridIndex.Hit<Subscription>> driversAround(CargoOfferIndex.OpenCargo cargo) {
+        return subscriberIndex.findWithin(cargo.getPickupLocation().getLatitude(),
+                cargo.getPickupLocation().getLongitude(), CargoOfferIndex.OFFER_RADIUS_KM,
+                subscription -> cargo.getLoad().fits(subscription.carType));
+    }
+
+    private void unsubscribe(Subscription subscription, SseSubscriber subscriber) {
+        subscription.watchers.remove(subscriber);
+        subscriptions.computeIfPresent(subscription.driverId, (id, current) -> {
+            if (current != subscription || !current.watchers.isEmpty()) {
+                return current;
+            }
+            subscriberIndex.remove(id);
+            return null;
+        });
+    }
+
+    /**
+     * Bir sürücünün aboneliği: bağlı cihazları ve o anda gördüğü teklifler.
+     * {@code visible} yalnızca abonelik nesnesi üzerinde senkronize erişilir.
+     */
+    private static final class Subscription {
+        final Long driverId;
+        final Set<SseSubscriber> watchers = new CopyOnWriteArraySet<>();
+        final Set<Long> visible = new HashSet<>();
+        volatile CarType carType;
+
+        Subscription(Long driverId) {
+            this.driverId = driverId;
+        }
+
+        void broadcast(String eventName, Object data) {
+            for (SseSubscriber watcher : watchers) {
+                watcher.send(eventName, data);
+            }
+        }
+    }
+}
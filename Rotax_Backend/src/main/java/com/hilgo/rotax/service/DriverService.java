@@ -2,34 +2,48 @@ package com.hilgo.rotax.service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.hilgo.rotax.dto.CargoDTO;
 import com.hilgo.rotax.dto.CargoOfferDTO;
+import com.hilgo.rotax.dto.CargoView;
 import com.hilgo.rotax.dto.DriverDashboardResponse;
 import com.hilgo.rotax.dto.DriverStatusUpdateRequest;
+import com.hilgo.rotax.dto.LocationBatchRequest;
 import com.hilgo.rotax.dto.LocationDTO;
+import com.hilgo.rotax.dto.LocationPingRequest;
 import com.hilgo.rotax.dto.MeasureDTO;
 import com.hilgo.rotax.dto.ProfileUpdateRequestDTO;
 import com.hilgo.rotax.dto.UserDTO;
 import com.hilgo.rotax.entity.Cargo;
 import com.hilgo.rotax.entity.Driver;
 import com.hilgo.rotax.entity.Location;
+import com.hilgo.rotax.enums.CarType;
 import com.hilgo.rotax.enums.CargoSituation;
 import com.hilgo.rotax.enums.DriverStatus;
+import com.hilgo.rotax.exception.BadRequestException;
+import com.hilgo.rotax.exception.CargoAlreadyClaimedException;
+import com.hilgo.rotax.exception.CargoStateChangedException;
 import com.hilgo.rotax.exception.OperationNotAllowedException;
 import com.hilgo.rotax.exception.UserNotActiveException;
 import com.hilgo.rotax.exception.ResourceNotFoundException;
 import com.hilgo.rotax.repository.CargoRepository;
+import com.hilgo.rotax.repository.DriverLocationHistoryRepository.HistoryPoint;
 import com.hilgo.rotax.repository.DriverRepository;
-import com.hilgo.rotax.repository.LocationRepository;
 import com.hilgo.rotax.repository.ReviewRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -40,18 +54,76 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class DriverService {
 
+    private static final Set<CargoSituation> ACTIVE_SITUATIONS = EnumSet.of(CargoSituation.ASSIGNED, CargoSituation.PICKED_UP);
+    private static final int RECENT_CARGO_LIMIT = 5;
+    // İndeks hazır değilken veritabanından okunacak en fazla teklif
+    private static final int OFFER_FALLBACK_LIMIT = 100;
+
     private final DriverRepository driverRepository;
-    private final LocationRepository locationRepository;
     private final CargoRepository cargoRepository;
     private final ReviewRepository reviewRepository;
     private final AuthenticationService authenticationService;
     private final FileStorageService fileStorageService;
+    private final DriverLocationIndex driverLocationIndex;
+    private final CargoOfferIndex cargoOfferIndex;
+    private final DriverLocationBuffer driverLocationBuffer;
+    private final DriverLocationHistoryService driverLocationHistoryService;
+    private final CargoTrackingHub cargoTrackingHub;
+    private final DriverOfferFeed driverOfferFeed;
+    private final DistributorCargoStatsService distributorCargoStatsService;
+    private final PrincipalCache principalCache;
+    private final CurrentUserResolver currentUserResolver;
 
+    /**
+     * İstekteki sürücünün lazy referansı; sorgu yalnızca bir alanı okunduğunda birincil anahtarla çalışır.
+     */
     public Driver getCurrentDriver() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        return driverRepository.findByUsername(username)
-                .orElseThrow(() -> new com.hilgo.rotax.exception.ResourceNotFoundException("Driver", "username", username));
+        return currentUserResolver.getDriverReference();
+    }
+
+    /**
+     * İstekteki sürücünün id'si; token claim'lerinden ya da yüklenmiş principal'dan okunur, veritabanına gitmez.
+     */
+    public Long getCurrentDriverId() {
+        return currentUserResolver.getUserId();
+    }
+
+    /**
+     * Yüksek frekanslı GPS bildirimini tampona alır; veritabanına periyodik olarak toplu yazılır.
+     */
+    public void recordLocationPing(LocationPingRequest request) {
+        Long driverId = getCurrentDriverId();
+        if (driverLocationBuffer.offer(driverId, request.getLatitude(), request.getLongitude(), request.getRecordedAt())) {
+            cargoTrackingHub.driverMoved(driverId, request.getLatitude(), request.getLongitude());
+            driverOfferFeed.driverMoved(driverId, request.getLatitude(), request.getLongitude());
+        }
+    }
+
+    /**
+     * Bağlantısı kesilen cihazın biriktirdiği konumları kaydeder. Tüm noktalar konum geçmişine
+     * tek bir çok satırlı INSERT ile yazılır; sürücünün anlık konumunu yalnızca en yeni nokta günceller.
+     * @return Geçmişe yazılan nokta sayısı.
+     */
+    public int recordLocationBatch(LocationBatchRequest request) {
+        Long driverId = getCurrentDriverId();
+        LocalDateTime now = LocalDateTime.now();
+        // Saati ileride olan cihazların noktaları henüz oluşturulmamış bölümlere düşmesin
+        List<HistoryPoint> points = request.getPoints().stream()
+                .map(point -> new HistoryPoint(driverId, point.getLatitude(), point.getLongitude(),
+                        point.getRecordedAt().isAfter(now) ? now : point.getRecordedAt()))
+                .sorted(Comparator.comparing(HistoryPoint::getRecordedAt))
+                .collect(Collectors.toList());
+
+        int stored = driverLocationHistoryService.append(points);
+
+        HistoryPoint newest = points.get(points.size() - 1);
+        // Nokta geçmişe yukarıda yazıldı; tampon yalnızca güncel konum olarak işler
+        if (driverLocationBuffer.offerLatest(driverId, newest.getLatitude(), newest.getLongitude(), newest.getRecordedAt())) {
+            cargoTrackingHub.driverMoved(driverId, newest.getLatitude(), newest.getLongitude());
+            driverOfferFeed.driverMoved(driverId, newest.getLatitude(), newest.getLongitude());
+        }
+        log.debug("Sürücü {} için {} konum noktası kaydedildi", driverId, stored);
+        return stored;
     }
 
     @Transactional
@@ -74,9 +146,28 @@ public class DriverService {
         location.setDistrict(request.getLocation().getDistrict());
         location.setPostalCode(request.getLocation().getPostalCode());
         
-        locationRepository.save(location);
         driver.setLocation(location);
+        driver.setLocationUpdatedAt(LocalDateTime.now());
         driverRepository.save(driver);
+
+        // Tampondaki eski GPS bildirimi bu konumu ezmesin
+        driverLocationBuffer.discard(driver.getId());
+
+        // Yakındaki sürücü aramaları bu indeksten cevaplanır; indeks ve SSE akışları yalnızca
+        // commit edilen durumu görsün diye commit sonrasında güncellenir
+        Long driverId = driver.getId();
+        double latitude = location.getLatitude();
+        double longitude = location.getLongitude();
+        boolean receivesOffers = DriverLocationIndex.INDEXED_STATUSES.contains(driver.getDriverStatus());
+        AfterCommit.run(() -> {
+            driverLocationIndex.update(driver);
+            cargoTrackingHub.driverMoved(driverId, latitude, longitude);
+            if (receivesOffers) {
+                driverOfferFeed.driverMoved(driverId, latitude, longitude);
+            } else {
+                driverOfferFeed.close(driverId);
+            }
+        });
     }
 
     @Transactional
@@ -100,6 +191,15 @@ public class DriverService {
 
         Driver updatedDriver = driverRepository.save(driver);
         log.info("Sürücü profili güncellendi: {}", updatedDriver.getUsername());
+        principalCache.invalidate(updatedDriver.getUsername());
+
+        // Araç tipi değiştiyse indeks ve teklif akışı yeni kapasiteye göre filtrelesin (commit sonrasında)
+        Long driverId = updatedDriver.getId();
+        CarType carType = updatedDriver.getCarType();
+        AfterCommit.run(() -> {
+            driverLocationIndex.update(updatedDriver);
+            driverOfferFeed.driverProfileChanged(driverId, carType);
+        });
 
         // Güncellenmiş kullanıcıyı standart bir DTO'ya çevirip döndür
         return authenticationService.convertToDTO(updatedDriver);
@@ -114,26 +214,27 @@ public class DriverService {
 
         Driver updatedDriver = driverRepository.save(driver);
         log.info("Sürücü profil resmi güncellendi: {}", updatedDriver.getUsername());
+        principalCache.invalidate(updatedDriver.getUsername());
 
         return authenticationService.convertToDTO(updatedDriver);
     }
 
 
+    @Transactional(readOnly = true)
     public DriverDashboardResponse getDriverDashboard() {
         Driver driver = getCurrentDriver();
         
-        // Get driver's cargos
-        List<Cargo> allCargos = cargoRepository.findByDriver(driver);
-        List<Cargo> activeCargos = allCargos.stream()
-                .filter(cargo -> cargo.getCargoSituation() == CargoSituation.ASSIGNED || 
-                                cargo.getCargoSituation() == CargoSituation.PICKED_UP)
-                .collect(Collectors.toList());
+        // Sayılar tek bir gruplu COUNT sorgusundan; sürücünün geçmiş kargoları belleğe yüklenmez
+        Map<CargoSituation, Long> counts = new EnumMap<>(CargoSituation.class);
+        cargoRepository.countByDriverGroupedBySituation(driver.getId())
+                .forEach(count -> counts.put(count.getSituation(), count.getTotal()));
         
-        List<Cargo> recentCargos = allCargos.stream()
-                .filter(cargo -> cargo.getCargoSituation() == CargoSituation.DELIVERED)
-                .sorted((c1, c2) -> c2.getUpdatedAt().compareTo(c1.getUpdatedAt()))
-                .limit(5)
-                .collect(Collectors.toList());
+        List<CargoView> activeCargos = cargoRepository.findViewsByDriverAndSituationIn(
+                driver.getId(), ACTIVE_SITUATIONS, Pageable.unpaged());
+        
+        List<CargoView> recentCargos = cargoRepository.findViewsByDriverAndSituationIn(
+                driver.getId(), List.of(CargoSituation.DELIVERED),
+                PageRequest.of(0, RECENT_CARGO_LIMIT, Sort.by(Sort.Direction.DESC, "updatedAt")));
         
         // Get driver's average rating
         Double averageRating = reviewRepository.getAverageRatingForDriver(driver.getId());
@@ -145,17 +246,16 @@ public class DriverService {
                 .driverId(driver.getId())
                 .driverName(driver.getFirstName() + " " + driver.getLastName())
                 .averageRating(averageRating)
-                .totalDeliveries((int) allCargos.stream()
-                        .filter(cargo -> cargo.getCargoSituation() == CargoSituation.DELIVERED)
-                        .count())
-                .activeDeliveries(activeCargos.size())
-                .currentCargos(activeCargos.stream().map(this::mapToCargoDTO).collect(Collectors.toList()))
-                .recentCargos(recentCargos.stream().map(this::mapToCargoDTO).collect(Collectors.toList()))
+                .totalDeliveries(counts.getOrDefault(CargoSituation.DELIVERED, 0L).intValue())
+                .activeDeliveries((int) ACTIVE_SITUATIONS.stream().mapToLong(situation -> counts.getOrDefault(situation, 0L)).sum())
+                .currentCargos(activeCargos.stream().map(CargoView::toDTO).collect(Collectors.toList()))
+                .recentCargos(recentCargos.stream().map(CargoView::toDTO).collect(Collectors.toList()))
                 .build();
     }
 
     public List<CargoOfferDTO> getAvailableOffers() {
-        Driver driver = getCurrentDriver();
+        // Transaction dışında alanları okunduğu için referans değil, yüklenmiş varlık kullanılır
+        Driver driver = currentUserResolver.getDriver();
         
         // Kullanıcı aktif değilse teklifleri göremez
         if (!driver.getEnabled()) {
@@ -168,20 +268,70 @@ public class DriverService {
             return new ArrayList<>();
         }
         
-        // Get driver's location
-        Location driverLocation = driver.getLocation();
+        Location driverLocation = resolveCurrentLocation(driver);
         if (driverLocation == null) {
             return new ArrayList<>();
         }
-        
-        // Find nearby cargos (within 10km)
+        return findOffers(driverLocation, driver.getCarType());
+    }
+
+    /**
+     * Sürücüyü teklif akışına abone eder. İlk olay ({@code snapshot}) mevcut teklifler,
+     * sonraki olaylar yarıçapa giren ({@code offer-added}) ve çıkan ({@code offer-withdrawn}) tekliflerdir.
+     */
+    public SseEmitter subscribeToOffers() {
+        Driver driver = currentUserResolver.getDriver();
+
+        if (!driver.getEnabled()) {
+            throw new UserNotActiveException("Hesabınız henüz onaylanmamıştır. Kargo tekliflerini göremezsiniz.");
+        }
+        if (!DriverLocationIndex.INDEXED_STATUSES.contains(driver.getDriverStatus())) {
+            throw new OperationNotAllowedException("Teklif almak için durumunuz ACTIVE veya DESTINATION_BASED olmalıdır.");
+        }
+        Location driverLocation = resolveCurrentLocation(driver);
+        if (driverLocation == null) {
+            throw new BadRequestException("Teklif almak için önce konumunuzu bildirmelisiniz.");
+        }
+
+        return driverOfferFeed.subscribe(driver.getId(), driverLocation.getLatitude(), driverLocation.getLongitude(),
+                driver.getCarType(), findOffers(driverLocation, driver.getCarType()));
+    }
+
+    // Sürücünün konumu (tampondaki en güncel GPS bildirimi öncelikli)
+    private Location resolveCurrentLocation(Driver driver) {
+        return driverLocationBuffer.latest(driver.getId())
+                .map(buffered -> Location.builder()
+                        .latitude(buffered.getLatitude())
+                        .longitude(buffered.getLongitude())
+                        .build())
+                .orElse(driver.getLocation());
+    }
+
+    private List<CargoOfferDTO> findOffers(Location driverLocation, CarType carType) {
+        // Teklifler bellek içi indeksten; indeks henüz hazır değilse veritabanından
+        if (!cargoOfferIndex.isReady()) {
+            return findOffersFromDatabase(driverLocation, carType);
+        }
+
+        // Araca sığmayan kargolar indeks taraması sırasında elenir
+        return cargoOfferIndex.findWithin(driverLocation.getLatitude(), driverLocation.getLongitude(),
+                        CargoOfferIndex.OFFER_RADIUS_KM, carType)
+                .stream()
+                .map(hit -> hit.getValue().toOffer(hit.getDistanceKm()))
+                .collect(Collectors.toList());
+    }
+
+    private List<CargoOfferDTO> findOffersFromDatabase(Location driverLocation, CarType carType) {
+        // Find nearby cargos (within 10km), en yakın OFFER_FALLBACK_LIMIT kargo
         List<Cargo> nearbyCargos = cargoRepository.findNearbyCargos(
                 CargoSituation.CREATED, 
                 driverLocation.getLatitude(), 
                 driverLocation.getLongitude(), 
-                10000.0);
+                CargoOfferIndex.OFFER_RADIUS_KM * 1000,
+                OFFER_FALLBACK_LIMIT);
         
         return nearbyCargos.stream()
+                .filter(cargo -> CargoLoad.of(mapToMeasureDTO(cargo.getMeasure())).fits(carType))
                 .map(cargo -> {
                     // Calculate distance to pickup
                     double distanceToPickup = calculateDistance(
@@ -218,48 +368,54 @@ public class DriverService {
     public CargoDTO acceptOffer(Long cargoId) {
         Driver driver = getCurrentDriver();
         
+        // Kilitsiz sahiplenme: durum kontrolü ve atama tek koşullu UPDATE ile yapılır,
+        // aynı kargoyu aynı anda kabul eden sürücülerden yalnızca biri kazanır
+        int claimed = cargoRepository.claim(cargoId, driver, CargoSituation.CREATED, CargoSituation.ASSIGNED, LocalDateTime.now());
+        
         Cargo cargo = cargoRepository.findById(cargoId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cargo", "id", cargoId));
         
         // Check if cargo is available
-        if (cargo.getCargoSituation() != CargoSituation.CREATED) {
-            throw new OperationNotAllowedException("Bu kargo artık kabul edilemez durumda.");
+        if (claimed == 0) {
+            throw new CargoAlreadyClaimedException("Bu kargo artık kabul edilemez durumda.");
         }
         
-        // Assign cargo to driver
-        cargo.setDriver(driver);
-        cargo.setCargoSituation(CargoSituation.ASSIGNED);
-        cargo = cargoRepository.save(cargo);
+        distributorCargoStatsService.cargoMoved(cargo.getDistributor().getId(), CargoSituation.CREATED, CargoSituation.ASSIGNED);
+        cargoOfferIndex.remove(cargoId);
+        cargoTrackingHub.cargoChanged(cargo);
         
         return mapToCargoDTO(cargo);
     }
 
     @Transactional
     public CargoDTO updateCargoStatus(Long cargoId, CargoSituation newStatus) {
-        Driver driver = getCurrentDriver();
+        Long driverId = getCurrentDriverId();
         
         Cargo cargo = cargoRepository.findById(cargoId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cargo", "id", cargoId));
         
         // Check if cargo belongs to driver
-        if (!cargo.getDriver().getId().equals(driver.getId())) {
+        if (!cargo.getDriver().getId().equals(driverId)) {
             throw new OperationNotAllowedException("Bu kargo size ait değil.");
         }
         
         // Validate status transition
         validateStatusTransition(cargo.getCargoSituation(), newStatus);
         
-        // Update cargo status
-        cargo.setCargoSituation(newStatus);
-        
-        // Set timestamps based on status
-        if (newStatus == CargoSituation.PICKED_UP) {
-            cargo.setTakingTime(LocalDateTime.now());
-        } else if (newStatus == CargoSituation.DELIVERED) {
-            cargo.setDeliveredTime(LocalDateTime.now());
+        // Update cargo status: koşullu UPDATE, kargo bu arada iptal edildiyse ya da ilerlediyse üzerine yazılmaz
+        CargoSituation previous = cargo.getCargoSituation();
+        LocalDateTime now = LocalDateTime.now();
+        int updated = cargoRepository.advance(cargoId, driverId, previous, newStatus,
+                newStatus == CargoSituation.PICKED_UP ? now : null,
+                newStatus == CargoSituation.DELIVERED ? now : null, now);
+        if (updated == 0) {
+            throw new CargoStateChangedException("Kargonun durumu bu arada değişti. Lütfen tekrar deneyin.");
         }
         
-        cargo = cargoRepository.save(cargo);
+        cargo = cargoRepository.findById(cargoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cargo", "id", cargoId));
+        distributorCargoStatsService.cargoMoved(cargo.getDistributor().getId(), previous, newStatus);
+        cargoTrackingHub.cargoChanged(cargo);
         
         return mapToCargoDTO(cargo);
     }
@@ -344,7 +500,6 @@ public class DriverService {
 
     // Helper method to calculate earning based on distance
     private double calculateEarning(double distance) {
-        // Base fare + per km rate
-        return 20.0 + (distance * 2.5);
+        return CargoOfferIndex.estimateEarning(distance);
     }
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+package com.hilgo.rotax.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import lombok.Value;
+
+/**
+ * Enlem/boylam ızgarasına (grid) bölünmüş, thread-safe bellek içi konum indeksi.
+ * Her kayıt bulunduğu hücreye yerleştirilir; yakınlık sorguları yalnızca arama
+ * yarıçapını kapsayan hücreleri tarar, bu yüzden tüm veri kümesini dolaşmaz.
+ *
+ * @param <T> Kayıtla birlikte tutulan değer tipi.
+ */
+public class GeoGridIndex<T> {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE_LATITUDE = 111.32;
+
+    private final double cellSizeDegrees;
+    private final int longitudeColumns;
+
+    // hücre anahtarı -> (kayıt id -> kayıt)
+    private final Map<Long, Map<Long, Entry<T>>> cells = new ConcurrentHashMap<>();
+    // kayıt id -> kayıt (hücre değişimlerini bulmak için)
+    private final Map<Long, Entry<T>> entries = new ConcurrentHashMap<>();
+
+    public GeoGridIndex(double cellSizeDegrees) {
+        if (cellSizeDegrees <= 0 || cellSizeDegrees > 90) {
+            throw new IllegalArgumentException("Cell size must be in (0, 90] degrees: " + cellSizeDegrees);
+        }
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.longitudeColumns = (int) Math.ceil(360.0 / cellSizeDegrees);
+    }
+
+    /**
+     * Kaydı ekler ya da mevcut kaydın konumunu/değerini günceller.
+     */
+    public void put(Long id, double latitude, double longitude, T value) {
+        Entry<T> entry = new Entry<>(id, latitude, longitude, cellKey(latitude, longitude), value);
+        entries.compute(id, (key, previous) -> {
+            if (previous != null && previous.getCell() != entry.getCell()) {
+                removeFromCell(previous);
+            }
+            cells.compute(entry.getCell(), (cell, bucket) -> {
+                Map<Long, Entry<T>> target = bucket != null ? bucket : new ConcurrentHashMap<>();
+                target.put(id, entry);
+                return target;
+            });
+            return entry;
+        });
+    }
+
+    public void remove(Long id) {
+        entries.computeIfPresent(id, (key, previous) -> {
+            removeFromCell(previous);
+            return null;
+        });
+    }
+
+    public Entry<T> get(Long id) {
+        return entries.get(id);
+    }
+
+    public boolean contains(Long id) {
+        return entries.containsKey(id);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Collection<Entry<T>> entries() {
+        return entries.values();
+    }
+
+    public void clear() {
+        entries.clear();
+        cells.clear();
+    }
+
+    public List<Hit<T>> findWithin(double latitude, double longitude, double radiusKm) {
+        return findWithin(latitude, longitude, radiusKm, value -> true);
+    }
+
+    /**
+     * Verilen noktanın {@code radiusKm} yarıçapı içindeki, filtreyi sağlayan kayıtları
+     * yakından uzağa sıralı döndürür. Filtre mesafe hesabından önce uygulanır.
+     */
+    public List<Hit<T>> findWithin(double latitude, double longitude, double radiusKm, Predicate<T> filter) {
+        int latFrom = latitudeIndex(Math.max(-90.0, latitude - radiusKm / KM_PER_DEGREE_LATITUDE));
+        int latTo = latitudeIndex(Math.min(90.0, latitude + radiusKm / KM_PER_DEGREE_LATITUDE));
+
+        double cosLatitude = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        double longitudeSpan = radiusKm / (KM_PER_DEGREE_LATITUDE * cosLatitude);
+        int lonCenter = rawLongitudeIndex(longitude);
+        int lonReach = (int) Math.ceil(longitudeSpan / cellSizeDegrees);
+        // Yarıçap tüm boylamları kapsıyorsa aynı sütunu iki kez taramayalım
+        int lonFrom = lonCenter - lonReach;
+        int lonTo = lonCenter + lonReach;
+        if (lonTo - lonFrom + 1 > longitudeColumns) {
+            lonFrom = 0;
+            lonTo = longitudeColumns - 1;
+        }
+
+        List<Hit<T>> hits = new ArrayList<>();
+        for (int latIndex = latFrom; latIndex <= latTo; latIndex++) {
+            for (int lonIndex = lonFrom; lonIndex <= lonTo; lonIndex++) {
+                Map<Long, Entry<T>> bucket = cells.get(pack(latIndex, Math.floorMod(lonIndex, longitudeColumns)));
+                if (bucket == null) {
+                    continue;
+                }
+                for (Entry<T> entry : bucket.values()) {
+                    if (!filter.test(entry.getValue())) {
+                        continue;
+                    }
+                    double distance = distanceKm(latitude, longitude, entry.getLatitude(), entry.getLongitude());
+                    if (distance <= radiusKm) {
+                        hits.add(new Hit<>(entry.getId(), entry.getLatitude(), entry.getLongitude(), entry.getValue(), distance));
+                    }
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::getDistanceKm));
+        return hits;
+    }
+
+    /**
+     * Noktanın bulunduğu hücrenin anahtarı. Aynı hücredeki kayıtlar aynı anahtarı paylaşır.
+     */
+    public long cellKey(double latitude, double longitude) {
+        return pack(latitudeIndex(latitude), Math.floorMod(rawLongitudeIndex(longitude), longitudeColumns));
+    }
+
+    // Haversine formülü ile iki nokta arasındaki mesafe (km)
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_KM * c;
+    }
+
+    private void removeFromCell(Entry<T> entry) {
+        cells.computeIfPresent(entry.getCell(), (cell, bucket) -> {
+            bucket.remove(entry.getId());
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    private int latitudeIndex(double latitude) {
+        return (int) Math.floor((latitude + 90.0) / cellSizeDegrees);
+    }
+
+    private int rawLongitudeIndex(double longitude) {
+        return (int) Math.floor((longitude + 180.0) / cellSizeDegrees);
+    }
+
+    private static long pack(int latIndex, int lonIndex) {
+        return ((long) latIndex << 32) | (lonIndex & 0xffffffffL);
+    }
+
+    @Value
+    public static class Entry<T> {
+        Long id;
+        double latitude;
+        double longitude;
+        long cell;
+        T value;
+    }
+
+    @Value
+    public static class Hit<T> {
+        Long id;
+        double latitude;
+        double longitude;
+        T value;
+        double distanceKm;
+    }
+}
@@ -4,64 +4,123 @@ import java.security.Key;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.function.Function;
 
 import javax.crypto.spec.SecretKeySpec;
 
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.hilgo.rotax.dto.AuthenticatedUser;
+import com.hilgo.rotax.entity.User;
+import com.hilgo.rotax.enums.Roles;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 
+/**
+ * Anahtar ve parser uygulama açılışında bir kez oluşturulur; ikisi de değişmezdir ve
+ * thread'ler arasında paylaşılabilir. İstek başına token yalnızca bir kez çözülmelidir:
+ * {@link #parse(String)} imzayı ve süreyi doğrulayıp tüm claim'leri döndürür.
+ * Kullanıcı id'si, rolü, alt tipi, aktifliği ve hesap durumu sürümü imzalı claim olarak token'a gömülür;
+ * böylece istek kimliği {@link #toPrincipal(Claims)} ile veritabanına gitmeden kurulabilir.
+ */
 @Service
 public class JwtService {
 
-    @Value("${security.jwt.secret}")
-    private String SECRET_KEY;
+    private static final long EXPIRATION_MS = 1000 * 60 * 60 * 5; // 5 saat
+
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_USER_TYPE = "userType";
+    static final String CLAIM_ENABLED = "enabled";
+    static final String CLAIM_TOKEN_VERSION = "ver";
+
+    private final Key key;
+    private final JwtParser parser;
+
+    public JwtService(@Value("${security.jwt.secret}") String secretKey) {
+        byte[] decodedKey = Base64.getDecoder().decode(secretKey);
+        this.key = new SecretKeySpec(decodedKey, 0, decodedKey.length, "HmacSHA256");
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+    }
+
+    /**
+     * Token'ı tek geçişte çözer. İmza hatalı, biçim bozuk ya da süre dolmuşsa
+     * {@link io.jsonwebtoken.JwtException} fırlatır.
+     */
+    public Claims parse(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsTFunction) {
-        final Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsTFunction.apply(claims);
+        return claimsTFunction.apply(parse(token));
     }
 
     public String generateToken(UserDetails user) {
         Map<String, Object> claims = new HashMap<>();
+        if (user instanceof User account) {
+            claims.put(CLAIM_USER_ID, account.getId());
+            claims.put(CLAIM_ROLE, account.getRole().name());
+            claims.put(CLAIM_USER_TYPE, Hibernate.getClass(account).getSimpleName().toUpperCase(Locale.ROOT));
+            claims.put(CLAIM_ENABLED, account.isEnabled());
+            claims.put(CLAIM_TOKEN_VERSION, account.getTokenVersion());
+        }
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(user.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 5)) // 5 saat
-                .signWith(getKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + EXPIRATION_MS))
+                .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    /**
+     * Token'daki hesap claim'lerinden principal oluşturur; bu claim'leri taşımayan (eski) token'lar için null.
+     */
+    public AuthenticatedUser toPrincipal(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        Long tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Long.class);
+        return new AuthenticatedUser(userId, claims.getSubject(), Roles.valueOf(role),
+                claims.get(CLAIM_USER_TYPE, String.class), tokenVersion != null ? tokenVersion : 0L);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Token verildiği anda hesap pasif miydi; eski token'larda claim yoksa false.
+     */
+    public boolean isIssuedToDisabledAccount(Claims claims) {
+        return Boolean.FALSE.equals(claims.get(CLAIM_ENABLED, Boolean.class));
+    }
+
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        return isTokenValid(parse(token), userDetails);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Önceden çözülmüş claim'lerle doğrulama; token'ı yeniden parse etmez.
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getSubject()) && !isTokenExpired(claims);
     }
 
-    private Key getKey() {
-        byte[] decodedKey = Base64.getDecoder().decode(SECRET_KEY);
-        return new SecretKeySpec(decodedKey, 0, decodedKey.length, "HmacSHA256");
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
-}
\ No newline at end of file
+}
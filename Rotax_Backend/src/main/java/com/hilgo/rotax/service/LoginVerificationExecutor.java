@@ -0,0 +1,112 @@
+package com.hilgo.rotax.service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.hilgo.rotax.exception.LoginCapacityExceededException;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Şifre doğrulama (BCrypt) işlerini sabit boyutlu bir havuzda çalıştırır. Vardiya başındaki giriş yığılmalarında
+ * BCrypt en fazla havuz boyutu kadar çekirdek kullanır, diğer istekler işlemci bulmaya devam eder.
+ * Kuyruk doluysa ya da iş beklenen sürede başlayıp bitmezse giriş {@link LoginCapacityExceededException} ile reddedilir.
+ */
+@Service
+@Slf4j
+public class LoginVerificationExecutor {
+
+    private final ThreadPoolExecutor pool;
+    private final int backgroundQueueLimit;
+    private final long timeoutNanos;
+
+    public LoginVerificationExecutor(@Value("${security.login.verification-threads:0}") int threads,
+                                     @Value("${security.login.verification-queue-capacity:256}") int queueCapacity,
+                                     @Value("${security.login.verification-timeout-ms:10000}") long timeoutMs) {
+        this(threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                queueCapacity, Duration.ofMillis(timeoutMs));
+    }
+
+    LoginVerificationExecutor(int threads, int queueCapacity, Duration timeout) {
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("login-verification-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        // Arka plan işleri kuyruğun yarısından fazlasını dolduramaz; yer girişler için açık kalır
+        this.backgroundQueueLimit = queueCapacity / 2;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /**
+     * Doğrulamayı havuzda çalıştırıp sonucunu bekler. Doğrulamanın fırlattığı hatalar
+     * (ör. {@code BadCredentialsException}) olduğu gibi iletilir.
+     */
+    public <T> T verify(Supplier<T> verification) {
+        Future<T> future;
+        try {
+            future = pool.submit(verification::get);
+        } catch (RejectedExecutionException e) {
+            log.warn("Giriş doğrulama kuyruğu dolu, giriş reddedildi");
+            throw new LoginCapacityExceededException("Giriş servisi şu anda yoğun. Lütfen birazdan tekrar deneyin.");
+        }
+
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Henüz başlamadıysa kuyruktan çıkar; başladıysa sonucu beklenmez
+            future.cancel(true);
+            log.warn("Giriş doğrulaması zaman aşımına uğradı");
+            throw new LoginCapacityExceededException("Giriş servisi şu anda yoğun. Lütfen birazdan tekrar deneyin.");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new LoginCapacityExceededException("Giriş doğrulaması kesildi.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Acil olmayan bir işi (ör. eski hash'in yenilenmesi) havuza bırakır; kuyruk yoğunsa iş alınmaz.
+     * @return İş kuyruğa alındıysa {@code true}.
+     */
+    public boolean tryExecute(Runnable task) {
+        if (pool.getQueue().size() >= backgroundQueueLimit) {
+            return false;
+        }
+        try {
+            pool.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    // Kuyrukta bekleyen iş sayısı (testler için)
+    int queueSize() {
+        return pool.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
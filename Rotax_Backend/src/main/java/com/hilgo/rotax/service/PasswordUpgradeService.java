@@ -0,0 +1,62 @@
+package com.hilgo.rotax.service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.hilgo.rotax.entity.User;
+import com.hilgo.rotax.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Başarılı girişten sonra eski biçimdeki (öneksiz ya da ayarlanandan düşük maliyetli) şifre hash'ini
+ * istek thread'i dışında yeniden üretir. Yeni hash yalnızca şifre bu arada değişmediyse yazılır;
+ * havuz yoğunsa yenileme atlanır ve bir sonraki girişte tekrar denenir.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordUpgradeService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final LoginVerificationExecutor loginVerificationExecutor;
+    private final PrincipalCache principalCache;
+
+    // Aynı kullanıcı art arda giriş yaptığında hash bir kez yenilenir
+    private final Set<Long> inProgress = ConcurrentHashMap.newKeySet();
+
+    public void upgradeIfNeeded(User user, String rawPassword) {
+        String currentHash = user.getPassword();
+        if (currentHash == null || !passwordEncoder.upgradeEncoding(currentHash) || !inProgress.add(user.getId())) {
+            return;
+        }
+        boolean scheduled = loginVerificationExecutor.tryExecute(() -> {
+            try {
+                rehash(user.getId(), user.getUsername(), currentHash, rawPassword);
+            } finally {
+                inProgress.remove(user.getId());
+            }
+        });
+        if (!scheduled) {
+            inProgress.remove(user.getId());
+            log.debug("Şifre hash yenilemesi yoğunluk nedeniyle ertelendi: {}", user.getUsername());
+        }
+    }
+
+    private void rehash(Long userId, String username, String currentHash, String rawPassword) {
+        try {
+            String upgradedHash = passwordEncoder.encode(rawPassword);
+            if (userRepository.updatePasswordIfUnchanged(userId, currentHash, upgradedHash) == 1) {
+                principalCache.invalidate(username);
+                log.info("Şifre hash'i güncel maliyetle yenilendi: {}", username);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Şifre hash'i yenilenemedi: {}", username, e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.hilgo.rotax.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.hilgo.rotax.dto.CachedUser;
+import com.hilgo.rotax.dto.PrincipalCacheStatsDTO;
+import com.hilgo.rotax.entity.User;
+
+/**
+ * Hesap claim'leri olmayan eski token'lar için kullanıcı adına göre yüklenen kullanıcıların boyut ve süre sınırlı önbelleği.
+ * Entity değil, değişmez {@link CachedUser} özeti saklanır. Girişteki şifre kontrolü önbelleği kullanmaz; böylece
+ * başka bir örnekte değişen şifre hemen geçerli olur.
+ * Dolunca en uzun süredir kullanılmayan kayıt atılır (LRU); süresi dolan kayıt bir sonraki okumada yeniden yüklenir.
+ * Şifre, aktiflik ve profil değişikliklerinde kayıt commit sonrasında {@link #invalidate(String)} ile silinir;
+ * diğer uygulama örneklerindeki değişiklikler en geç TTL kadar gecikmeyle görülür.
+ */
+@Service
+public class PrincipalCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+
+    // Erişim sırasına göre; tüm erişimler entries üzerinde senkronize
+    private final LinkedHashMap<String, Entry> entries;
+    // Yükleme sürerken gelen bir silme, yüklenen (artık eski) kaydın önbelleğe yazılmasını engeller
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public PrincipalCache(@Value("${security.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this(maxSize, Duration.ofSeconds(ttlSeconds), System::nanoTime);
+    }
+
+    PrincipalCache(int maxSize, Duration ttl, LongSupplier ticker) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > PrincipalCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Önbellekteki kullanıcıyı döndürür; yoksa ya da süresi dolduysa {@code loader} ile yükleyip özetini saklar.
+     * Yükleyicinin fırlattığı hatalar (ör. kullanıcı bulunamadı) önbelleğe alınmaz.
+     */
+    public CachedUser get(String username, Function<String, ? extends User> loader) {
+        long now = ticker.getAsLong();
+        synchronized (entries) {
+            Entry entry = entries.get(username);
+            if (entry != null) {
+                if (now - entry.loadedAt() < ttlNanos) {
+                    hits.increment();
+                    return entry.user();
+                }
+                entries.remove(username);
+                expirations.increment();
+            }
+        }
+        misses.increment();
+
+        long generation = invalidations.get();
+        CachedUser user = CachedUser.from(loader.apply(username));
+        synchronized (entries) {
+            if (generation == invalidations.get()) {
+                entries.put(username, new Entry(user, now));
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Kullanıcının kaydını aktif işlem commit edildikten sonra siler.
+     */
+    public void invalidate(String username) {
+        AfterCommit.run(() -> {
+            synchronized (entries) {
+                invalidations.incrementAndGet();
+                entries.remove(username);
+            }
+        });
+    }
+
+    public PrincipalCacheStatsDTO stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return PrincipalCacheStatsDTO.builder()
+                .size(size)
+                .maxSize(maxSize)
+                .hits(hitCount)
+                .misses(missCount)
+                .evictions(evictions.sum())
+                .expirations(expirations.sum())
+                .hitRate(requests == 0 ? 0.0 : (double) hitCount / requests)
+                .build();
+    }
+
+    private record Entry(CachedUser user, long loadedAt) {
+    }
+}
@@ -3,6 +3,7 @@ package com.hilgo.rotax.service;
 import com.hilgo.rotax.dto.*;
 import com.hilgo.rotax.entity.Cargo;
 import com.hilgo.rotax.entity.Driver;
+import com.hilgo.rotax.entity.Location;
 import com.hilgo.rotax.entity.Review;
 import com.hilgo.rotax.enums.CargoSituation;
 import com.hilgo.rotax.enums.ReviewerType;
@@ -20,55 +21,86 @@ public class PublicService {
 
     private final CargoRepository cargoRepository;
     private final ReviewRepository reviewRepository;
+    private final DriverLocationBuffer driverLocationBuffer;
+
+    // Assume average speed of 40 km/h
+    private static final double AVERAGE_SPEED_KMH = 40.0;
 
     public TrackingResponse trackCargo(String trackingCode) {
-        Cargo cargo = cargoRepository.findByVerificationCode(trackingCode)
+        // Takip sayfası en yoğun okuma yolu: entity yüklemeden tek sorguluk projeksiyon
+        CargoTrackingView cargo = cargoRepository.findTrackingViewByVerificationCode(trackingCode)
                 .orElseThrow(() -> new RuntimeException("Cargo not found with tracking code: " + trackingCode));
-        
+        return buildTrackingResponse(cargo);
+    }
+
+    TrackingResponse buildTrackingResponse(Cargo cargo) {
+        return buildTrackingResponse(toTrackingView(cargo));
+    }
+
+    TrackingResponse buildTrackingResponse(CargoTrackingView cargo) {
+        // Sürücünün en güncel konumu: önce GPS tamponu, yoksa veritabanındaki konum
+        LocationDTO driverLocation = resolveDriverLocation(cargo.driverId(), cargo.driverLocation());
+        LocationDTO destination = cargo.targetLocation();
+
         // Calculate ETA based on distance and average speed (if cargo is being delivered)
-        Double eta = null;
-        if (cargo.getCargoSituation() == CargoSituation.PICKED_UP && 
-            cargo.getDriver() != null && 
-            cargo.getDriver().getLocation() != null) {
-            
-            // Calculate distance between driver's current location and delivery location
-            double distance = calculateDistance(
-                    cargo.getDriver().getLocation().getLatitude(),
-                    cargo.getDriver().getLocation().getLongitude(),
-                    cargo.getTargetLocation().getLatitude(),
-                    cargo.getTargetLocation().getLongitude());
-            
-            // Assume average speed of 40 km/h
-            double averageSpeed = 40.0;
-            
-            // Calculate ETA in minutes
-            eta = (distance / averageSpeed) * 60;
-        }
+        Double eta = driverLocation != null
+                ? estimateArrivalMinutes(cargo.status(), driverLocation.getLatitude(), driverLocation.getLongitude(), destination)
+                : null;
         
         return TrackingResponse.builder()
-                .trackingCode(trackingCode)
-                .status(cargo.getCargoSituation())
-                .currentLocation(cargo.getDriver() != null && cargo.getDriver().getLocation() != null ? 
-                        mapToLocationDTO(cargo.getDriver().getLocation()) : 
-                        mapToLocationDTO(cargo.getSelfLocation()))
-                .destinationLocation(mapToLocationDTO(cargo.getTargetLocation()))
-                .driverName(cargo.getDriver() != null ? 
-                        cargo.getDriver().getFirstName() + " " + cargo.getDriver().getLastName() : null)
-                .driverPhone(cargo.getDriver() != null ? cargo.getDriver().getPhoneNumber() : null)
+                .trackingCode(cargo.trackingCode())
+                .status(cargo.status())
+                .currentLocation(driverLocation != null ? driverLocation : cargo.selfLocation())
+                .destinationLocation(destination)
+                .driverName(cargo.driverName())
+                .driverPhone(cargo.driverPhone())
                 .estimatedTimeOfArrival(eta)
-                .deliveryTime(cargo.getDeliveredTime())
-                .deliveryNote(cargo.getDescription())
+                .deliveryTime(cargo.deliveredTime())
+                .deliveryNote(cargo.description())
                 .build();
     }
 
+    /**
+     * Yüklenmiş bir kargo entity'sini (ör. takip yayınında) projeksiyonla aynı görünüme çevirir.
+     */
+    static CargoTrackingView toTrackingView(Cargo cargo) {
+        Location self = cargo.getSelfLocation();
+        Location target = cargo.getTargetLocation();
+        Driver driver = cargo.getDriver();
+        Location driverLocation = driver != null ? driver.getLocation() : null;
+        return new CargoTrackingView(cargo.getVerificationCode(), cargo.getCargoSituation(), cargo.getDeliveredTime(), cargo.getDescription(),
+                self != null ? self.getLatitude() : null, self != null ? self.getLongitude() : null,
+                self != null ? self.getAddress() : null, self != null ? self.getCity() : null,
+                self != null ? self.getDistrict() : null, self != null ? self.getPostalCode() : null,
+                target != null ? target.getLatitude() : null, target != null ? target.getLongitude() : null,
+                target != null ? target.getAddress() : null, target != null ? target.getCity() : null,
+                target != null ? target.getDistrict() : null, target != null ? target.getPostalCode() : null,
+                driver != null ? driver.getId() : null, driver != null ? driver.getFirstName() : null,
+                driver != null ? driver.getLastName() : null, driver != null ? driver.getPhoneNumber() : null,
+                driverLocation != null ? driverLocation.getLatitude() : null, driverLocation != null ? driverLocation.getLongitude() : null,
+                driverLocation != null ? driverLocation.getAddress() : null, driverLocation != null ? driverLocation.getCity() : null,
+                driverLocation != null ? driverLocation.getDistrict() : null, driverLocation != null ? driverLocation.getPostalCode() : null);
+    }
+
+    /**
+     * Kargo yoldaysa (PICKED_UP) sürücünün konumundan teslimat noktasına tahmini varış süresi (dakika).
+     */
+    static Double estimateArrivalMinutes(CargoSituation status, Double latitude, Double longitude, LocationDTO destination) {
+        if (status != CargoSituation.PICKED_UP || latitude == null || longitude == null || destination == null) {
+            return null;
+        }
+        // Calculate distance between driver's current location and delivery location
+        double distance = calculateDistance(latitude, longitude, destination.getLatitude(), destination.getLongitude());
+        return (distance / AVERAGE_SPEED_KMH) * 60;
+    }
+
     @Transactional
     public MessageResponse addDeliveryNote(String trackingCode, DeliveryNoteRequest request) {
         Cargo cargo = cargoRepository.findByVerificationCode(trackingCode)
                 .orElseThrow(() -> new RuntimeException("Cargo not found with tracking code: " + trackingCode));
         
-        // Update delivery note
-        cargo.setDescription(request.getNote());
-        cargoRepository.save(cargo);
+        // Update delivery note: tüm entity'yi geri yazmak eşzamanlı bir durum değişikliğini ezebilir
+        cargoRepository.updateDescription(cargo.getId(), request.getNote(), LocalDateTime.now());
         
         return new MessageResponse("Delivery note added successfully", true);
     }
@@ -102,23 +134,22 @@ public class PublicService {
         return new MessageResponse("Review added successfully", true);
     }
 
-    private LocationDTO mapToLocationDTO(com.hilgo.rotax.entity.Location location) {
-        if (location == null) {
+    private LocationDTO resolveDriverLocation(Long driverId, LocationDTO location) {
+        if (driverId == null) {
             return null;
         }
-        
-        return LocationDTO.builder()
-                .latitude(location.getLatitude())
-                .longitude(location.getLongitude())
-                .address(location.getAddress())
-                .city(location.getCity())
-                .district(location.getDistrict())
-                .postalCode(location.getPostalCode())
-                .build();
+        return driverLocationBuffer.latest(driverId)
+                .map(buffered -> {
+                    LocationDTO fresh = location != null ? location : new LocationDTO();
+                    fresh.setLatitude(buffered.getLatitude());
+                    fresh.setLongitude(buffered.getLongitude());
+                    return fresh;
+                })
+                .orElse(location);
     }
 
     // Helper method to calculate distance between two points using Haversine formula
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
+    private static double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
         final int R = 6371; // Radius of the earth in km
         
         double latDistance = Math.toRadians(lat2 - lat1);
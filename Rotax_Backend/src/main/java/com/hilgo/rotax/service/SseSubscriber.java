@@ -0,0 +1,121 @@
+package com.hilgo.rotax.service;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tek bir SSE istemcisine giden olay kuyruğu. Olaylar sıraya alınır ve paylaşılan
+ * (sanal thread) executor üzerinde istemci başına sırayla gönderilir; yavaş bir istemci
+ * yayını yapan thread'i ya da diğer istemcileri bekletmez.
+ * Kuyruğu dolan istemcinin bağlantısı kapatılır, istemci yeniden bağlanıp güncel durumu alır.
+ */
+@Slf4j
+final class SseSubscriber {
+
+    private static final int MAX_QUEUED_EVENTS = 256;
+    private static final Object COMPLETE = new Object();
+
+    private final SseEmitter emitter;
+    private final Executor executor;
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile Runnable onClose = () -> { };
+
+    SseSubscriber(long timeoutMs, Executor executor) {
+        this.emitter = new SseEmitter(timeoutMs);
+        this.executor = executor;
+        emitter.onCompletion(this::close);
+        emitter.onTimeout(this::close);
+        emitter.onError(error -> close());
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    /**
+     * Bağlantı herhangi bir nedenle kapandığında bir kez çalışacak eylem.
+     */
+    void onClose(Runnable action) {
+        this.onClose = action;
+        if (closed.get()) {
+            action.run();
+        }
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    void send(String eventName, Object data) {
+        enqueue(SseEmitter.event().name(eventName).data(data));
+    }
+
+    /**
+     * Kuyruktaki olaylar gönderildikten sonra bağlantıyı kapatır.
+     */
+    void completeAfterPending() {
+        enqueue(COMPLETE);
+    }
+
+    private void enqueue(Object item) {
+        if (closed.get()) {
+            return;
+        }
+        if (queued.incrementAndGet() > MAX_QUEUED_EVENTS) {
+            log.debug("SSE istemcisi olayları yetiştiremiyor, bağlantı kapatılıyor");
+            emitter.complete();
+            close();
+            return;
+        }
+        queue.add(item);
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            Object item;
+            while (!closed.get() && (item = queue.poll()) != null) {
+                queued.decrementAndGet();
+                if (item == COMPLETE) {
+                    emitter.complete();
+                    close();
+                    return;
+                }
+                emitter.send((SseEmitter.SseEventBuilder) item);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // İstemci bağlantıyı kapatmış
+            emitter.completeWithError(e);
+            close();
+        } finally {
+            draining.set(false);
+            if (!closed.get() && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+
+    private void close() {
+        if (closed.compareAndSet(false, true)) {
+            queue.clear();
+            onClose.run();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+-- Entity modelinin ddl-auto ile üretilen şemasının başlangıç hali.
+-- Bu şemayla açılmış mevcut veritabanlarında baseline-on-migrate nedeniyle atlanır.
+
+CREATE TABLE app_user (
+    user_id                 BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username                VARCHAR(255) NOT NULL UNIQUE,
+    email                   VARCHAR(255) NOT NULL UNIQUE,
+    password                VARCHAR(255) NOT NULL,
+    first_name              VARCHAR(255) NOT NULL,
+    last_name               VARCHAR(255) NOT NULL,
+    phone_number            VARCHAR(255) NOT NULL,
+    role                    VARCHAR(255) NOT NULL CHECK (role IN ('ADMIN', 'DRIVER', 'DISTRIBUTOR', 'PICKUP_POINT')),
+    enabled                 BOOLEAN NOT NULL,
+    account_non_expired     BOOLEAN NOT NULL,
+    account_non_locked      BOOLEAN NOT NULL,
+    credentials_non_expired BOOLEAN NOT NULL,
+    profile_picture_url     VARCHAR(255),
+    created_at              TIMESTAMP(6),
+    updated_at              TIMESTAMP(6),
+    PRIMARY KEY (user_id)
+);
+
+CREATE TABLE location (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    latitude    FLOAT(53),
+    longitude   FLOAT(53),
+    address     VARCHAR(255),
+    city        VARCHAR(255),
+    district    VARCHAR(255),
+    postal_code VARCHAR(255),
+    updated_at  TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE measure (
+    id     BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    weight FLOAT(53),
+    width  FLOAT(53),
+    length FLOAT(53),
+    height FLOAT(53),
+    size   VARCHAR(255) CHECK (size IN ('SMALL', 'MEDIUM', 'LARGE')),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE distributor (
+    user_id     BIGINT NOT NULL,
+    vkn         VARCHAR(255),
+    location_id BIGINT UNIQUE,
+    PRIMARY KEY (user_id),
+    CONSTRAINT fk_distributor_user FOREIGN KEY (user_id) REFERENCES app_user,
+    CONSTRAINT fk_distributor_location FOREIGN KEY (location_id) REFERENCES location
+);
+
+CREATE TABLE driver (
+    user_id       BIGINT NOT NULL,
+    tc            VARCHAR(255),
+    location_id   BIGINT UNIQUE,
+    driver_status VARCHAR(255) CHECK (driver_status IN ('INACTIVE', 'ACTIVE', 'DESTINATION_BASED', 'OFFLINE')),
+    car_type      VARCHAR(255) CHECK (car_type IN ('SUV', 'SEDAN', 'HATCHBACK', 'MINIVAN', 'PICKUP', 'MOTORCYCLE')),
+    PRIMARY KEY (user_id),
+    CONSTRAINT fk_driver_user FOREIGN KEY (user_id) REFERENCES app_user,
+    CONSTRAINT fk_driver_location FOREIGN KEY (location_id) REFERENCES location
+);
+
+CREATE TABLE cargo (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    self_location_id    BIGINT UNIQUE,
+    target_location_id  BIGINT UNIQUE,
+    measure_id          BIGINT UNIQUE,
+    cargo_situation     VARCHAR(255) CHECK (cargo_situation IN ('CREATED', 'ASSIGNED', 'PICKED_UP', 'DELIVERED', 'CANCELLED', 'EXPIRED', 'FAILED')),
+    phone_number        VARCHAR(255),
+    verification_code   VARCHAR(255),
+    description         VARCHAR(255),
+    taking_time         TIMESTAMP(6),
+    delivered_time      TIMESTAMP(6),
+    distributor_user_id BIGINT,
+    driver_user_id      BIGINT,
+    created_at          TIMESTAMP(6),
+    updated_at          TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_cargo_self_location FOREIGN KEY (self_location_id) REFERENCES location,
+    CONSTRAINT fk_cargo_target_location FOREIGN KEY (target_location_id) REFERENCES location,
+    CONSTRAINT fk_cargo_measure FOREIGN KEY (measure_id) REFERENCES measure,
+    CONSTRAINT fk_cargo_distributor FOREIGN KEY (distributor_user_id) REFERENCES distributor,
+    CONSTRAINT fk_cargo_driver FOREIGN KEY (driver_user_id) REFERENCES driver
+);
+
+CREATE TABLE distributor_cargo_stats (
+    distributor_id   BIGINT NOT NULL,
+    total_cargos     BIGINT NOT NULL,
+    created_cargos   BIGINT NOT NULL,
+    assigned_cargos  BIGINT NOT NULL,
+    picked_up_cargos BIGINT NOT NULL,
+    delivered_cargos BIGINT NOT NULL,
+    cancelled_cargos BIGINT NOT NULL,
+    expired_cargos   BIGINT NOT NULL,
+    failed_cargos    BIGINT NOT NULL,
+    updated_at       TIMESTAMP(6),
+    PRIMARY KEY (distributor_id)
+);
+
+CREATE TABLE password_reset_tokens (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    token       VARCHAR(255) NOT NULL UNIQUE,
+    user_id     BIGINT NOT NULL,
+    expiry_date TIMESTAMP(6) NOT NULL,
+    used        BOOLEAN NOT NULL,
+    created_at  TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_password_reset_tokens_user FOREIGN KEY (user_id) REFERENCES app_user
+);
+
+CREATE TABLE review (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    rating         INTEGER NOT NULL,
+    comment        OID,
+    reviewer_type  VARCHAR(255) NOT NULL CHECK (reviewer_type IN ('END_USER', 'DRIVER', 'DISTRIBUTOR')),
+    reviewer_name  VARCHAR(255),
+    cargo_id       BIGINT NOT NULL UNIQUE,
+    driver_id      BIGINT NOT NULL,
+    distributor_id BIGINT,
+    created_at     TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_review_cargo FOREIGN KEY (cargo_id) REFERENCES cargo,
+    CONSTRAINT fk_review_driver FOREIGN KEY (driver_id) REFERENCES driver,
+    CONSTRAINT fk_review_distributor FOREIGN KEY (distributor_id) REFERENCES distributor
+);
+
+CREATE TABLE user_document (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id             BIGINT NOT NULL,
+    document_type       VARCHAR(255) NOT NULL CHECK (document_type IN ('DRIVERS_LICENSE', 'VEHICLE_REGISTRATION', 'IDENTITY_CARD', 'CRIMINAL_RECORD')),
+    file_url            VARCHAR(255) NOT NULL,
+    verification_status VARCHAR(255) NOT NULL CHECK (verification_status IN ('PENDING', 'APPROVED', 'REJECTED')),
+    rejection_reason    VARCHAR(255),
+    uploaded_at         TIMESTAMP(6),
+    verified_at         TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_user_document_user FOREIGN KEY (user_id) REFERENCES app_user
+);
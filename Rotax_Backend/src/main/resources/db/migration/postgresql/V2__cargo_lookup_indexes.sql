@@ -0,0 +1,19 @@
+-- CargoRepository sorgularına karşılık gelen indeksler. İsimler DatabaseIndexCheck'teki beklenen listeyle aynı olmalıdır.
+
+-- findByVerificationCode / findTrackingViewByVerificationCode: takip kodu tekil olmalı.
+-- Mevcut veride tekrar eden kod varsa migration burada durur; önce tekrarlar temizlenmelidir.
+CREATE UNIQUE INDEX IF NOT EXISTS uq_cargo_verification_code ON cargo (verification_code);
+
+-- findByCargoSituation (teklif indeksinin CREATED kargolarla doldurulması)
+CREATE INDEX IF NOT EXISTS idx_cargo_situation ON cargo (cargo_situation, id);
+
+-- Dağıtıcı kargo listesi: sayfalı ve imleçli (sortBy, id) okuma
+CREATE INDEX IF NOT EXISTS idx_cargo_distributor_id ON cargo (distributor_user_id, id);
+CREATE INDEX IF NOT EXISTS idx_cargo_distributor_created ON cargo (distributor_user_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_cargo_distributor_updated ON cargo (distributor_user_id, updated_at, id);
+
+-- findViewsByDistributorAndSituationIn (panel listeleri, updatedAt DESC) ve sayaç uzlaştırmasındaki GROUP BY
+CREATE INDEX IF NOT EXISTS idx_cargo_distributor_situation ON cargo (distributor_user_id, cargo_situation, updated_at);
+
+-- countByDriverGroupedBySituation, findViewsByDriverAndSituationIn, findDriverIdsWithCargoIn
+CREATE INDEX IF NOT EXISTS idx_cargo_driver_situation ON cargo (driver_user_id, cargo_situation, updated_at);
@@ -0,0 +1,13 @@
+-- Konumların coğrafi nokta sütunu ve GiST indeksi. Sütun latitude/longitude'dan üretilir (STORED),
+-- bu yüzden mevcut satırlar eklenirken doldurulur ve sonraki her yazmada veritabanı tarafından güncel tutulur.
+
+CREATE EXTENSION IF NOT EXISTS postgis;
+
+ALTER TABLE location
+    ADD COLUMN IF NOT EXISTS geog geography(Point, 4326)
+        GENERATED ALWAYS AS (
+            CASE WHEN latitude IS NOT NULL AND longitude IS NOT NULL
+                 THEN ST_SetSRID(ST_MakePoint(longitude, latitude), 4326)::geography
+            END) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_location_geog ON location USING GIST (geog);
@@ -0,0 +1,14 @@
+-- Cargo, Location ve Measure id'leri IDENTITY yerine sequence'tan alınır (allocationSize = 50, pooled-lo).
+-- INCREMENT BY entity eşlemesindeki allocationSize ile aynı olmalıdır.
+
+ALTER TABLE location ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS location_seq INCREMENT BY 50;
+SELECT setval('location_seq', COALESCE((SELECT MAX(id) FROM location), 0) + 1, false);
+
+ALTER TABLE measure ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS measure_seq INCREMENT BY 50;
+SELECT setval('measure_seq', COALESCE((SELECT MAX(id) FROM measure), 0) + 1, false);
+
+ALTER TABLE cargo ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS cargo_seq INCREMENT BY 50;
+SELECT setval('cargo_seq', COALESCE((SELECT MAX(id) FROM cargo), 0) + 1, false);
@@ -0,0 +1,99 @@
+-- Konum ve ölçü ayrı tablolar yerine sahiplerinin satırına gömülür (@Embeddable):
+-- kargo alış/teslim noktası ve ölçüsü cargo'ya, sürücü ve dağıtıcı konumu kendi tablolarına taşınır.
+-- Mevcut veriler kopyalandıktan sonra eski ilişki sütunları, location/measure tabloları ve sequence'ları kaldırılır.
+
+ALTER TABLE cargo
+    ADD COLUMN self_latitude      FLOAT(53),
+    ADD COLUMN self_longitude     FLOAT(53),
+    ADD COLUMN self_address       VARCHAR(255),
+    ADD COLUMN self_city          VARCHAR(255),
+    ADD COLUMN self_district      VARCHAR(255),
+    ADD COLUMN self_postal_code   VARCHAR(255),
+    ADD COLUMN target_latitude    FLOAT(53),
+    ADD COLUMN target_longitude   FLOAT(53),
+    ADD COLUMN target_address     VARCHAR(255),
+    ADD COLUMN target_city        VARCHAR(255),
+    ADD COLUMN target_district    VARCHAR(255),
+    ADD COLUMN target_postal_code VARCHAR(255),
+    ADD COLUMN weight             FLOAT(53),
+    ADD COLUMN width              FLOAT(53),
+    ADD COLUMN length             FLOAT(53),
+    ADD COLUMN height             FLOAT(53),
+    ADD COLUMN size               VARCHAR(255) CHECK (size IN ('SMALL', 'MEDIUM', 'LARGE'));
+
+UPDATE cargo c
+SET self_latitude = l.latitude, self_longitude = l.longitude, self_address = l.address,
+    self_city = l.city, self_district = l.district, self_postal_code = l.postal_code
+FROM location l
+WHERE l.id = c.self_location_id;
+
+UPDATE cargo c
+SET target_latitude = l.latitude, target_longitude = l.longitude, target_address = l.address,
+    target_city = l.city, target_district = l.district, target_postal_code = l.postal_code
+FROM location l
+WHERE l.id = c.target_location_id;
+
+UPDATE cargo c
+SET weight = m.weight, width = m.width, length = m.length, height = m.height, size = m.size
+FROM measure m
+WHERE m.id = c.measure_id;
+
+ALTER TABLE driver
+    ADD COLUMN location_latitude    FLOAT(53),
+    ADD COLUMN location_longitude   FLOAT(53),
+    ADD COLUMN location_address     VARCHAR(255),
+    ADD COLUMN location_city        VARCHAR(255),
+    ADD COLUMN location_district    VARCHAR(255),
+    ADD COLUMN location_postal_code VARCHAR(255),
+    ADD COLUMN location_updated_at  TIMESTAMP(6);
+
+UPDATE driver d
+SET location_latitude = l.latitude, location_longitude = l.longitude, location_address = l.address,
+    location_city = l.city, location_district = l.district, location_postal_code = l.postal_code,
+    location_updated_at = l.updated_at
+FROM location l
+WHERE l.id = d.location_id;
+
+ALTER TABLE distributor
+    ADD COLUMN location_latitude    FLOAT(53),
+    ADD COLUMN location_longitude   FLOAT(53),
+    ADD COLUMN location_address     VARCHAR(255),
+    ADD COLUMN location_city        VARCHAR(255),
+    ADD COLUMN location_district    VARCHAR(255),
+    ADD COLUMN location_postal_code VARCHAR(255);
+
+UPDATE distributor d
+SET location_latitude = l.latitude, location_longitude = l.longitude, location_address = l.address,
+    location_city = l.city, location_district = l.district, location_postal_code = l.postal_code
+FROM location l
+WHERE l.id = d.location_id;
+
+-- Yabancı anahtarlar sütunlarla birlikte kalkar
+ALTER TABLE cargo DROP COLUMN self_location_id, DROP COLUMN target_location_id, DROP COLUMN measure_id;
+ALTER TABLE driver DROP COLUMN location_id;
+ALTER TABLE distributor DROP COLUMN location_id;
+
+DROP TABLE location;
+DROP TABLE measure;
+DROP SEQUENCE IF EXISTS location_seq;
+DROP SEQUENCE IF EXISTS measure_seq;
+
+-- Yakınlık sorguları için coğrafi nokta sütunları (V3'teki location.geog'un yerini alır).
+-- Latitude/longitude'dan üretilir (STORED); veritabanı her yazmada, JDBC ile yapılan konum güncellemeleri dahil, günceller.
+ALTER TABLE cargo
+    ADD COLUMN self_geog geography(Point, 4326)
+        GENERATED ALWAYS AS (
+            CASE WHEN self_latitude IS NOT NULL AND self_longitude IS NOT NULL
+                 THEN ST_SetSRID(ST_MakePoint(self_longitude, self_latitude), 4326)::geography
+            END) STORED;
+
+CREATE INDEX idx_cargo_self_geog ON cargo USING GIST (self_geog);
+
+ALTER TABLE driver
+    ADD COLUMN location_geog geography(Point, 4326)
+        GENERATED ALWAYS AS (
+            CASE WHEN location_latitude IS NOT NULL AND location_longitude IS NOT NULL
+                 THEN ST_SetSRID(ST_MakePoint(location_longitude, location_latitude), 4326)::geography
+            END) STORED;
+
+CREATE INDEX idx_driver_location_geog ON driver USING GIST (location_geog);
@@ -0,0 +1,5 @@
+-- Stateless JWT: token'a gömülen hesap durumu sürümü. Şifre ya da aktiflik değişince artırılır;
+-- uygulama örnekleri değişen hesapları updated_at üzerinden periyodik olarak okur.
+ALTER TABLE app_user ADD COLUMN token_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_app_user_updated_at ON app_user (updated_at);
@@ -0,0 +1,16 @@
+-- Sürücü konum geçmişi: recorded_at üzerinden aylık bölümlere ayrılmış, yalnızca ekleme yapılan tablo.
+-- Aylık bölümler uygulama tarafından önceden oluşturulur ve saklama süresi dolunca düşürülür.
+-- Tablo daha önce uygulama tarafından oluşturulmuş olabileceği için ifadeler IF NOT EXISTS ile yazılır.
+
+CREATE TABLE IF NOT EXISTS driver_location_history (
+    driver_id   BIGINT           NOT NULL,
+    latitude    DOUBLE PRECISION NOT NULL,
+    longitude   DOUBLE PRECISION NOT NULL,
+    recorded_at TIMESTAMP        NOT NULL
+) PARTITION BY RANGE (recorded_at);
+
+-- Satırlar kabaca zaman sırasıyla eklendiği için BRIN çok küçük kalır ve aralık taramalarını hızlandırır
+CREATE INDEX IF NOT EXISTS idx_driver_location_history_recorded_at_brin ON driver_location_history USING BRIN (recorded_at);
+
+-- streamByDriverBetween: sürücü bazlı zaman aralığı okumaları
+CREATE INDEX IF NOT EXISTS idx_driver_location_history_driver_time ON driver_location_history (driver_id, recorded_at);
@@ -0,0 +1,40 @@
+package com.hilgo.rotax.config;
+
+import com.hilgo.rotax.BaseTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DatabaseIndexCheckTest extends BaseTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private DatabaseIndexCheck databaseIndexCheck;
+
+    @Test
+    void findMissing_ShouldReportExpectedIndexesAbsentFromCatalog() {
+        // Arrange
+        List<String> existing = new ArrayList<>(DatabaseIndexCheck.EXPECTED_INDEXES.get("cargo"));
+        existing.remove("uq_cargo_verification_code");
+        existing.add("cargo_pkey");
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(Object[].class))).thenReturn(existing);
+
+        // Act
+        List<String> missing = databaseIndexCheck.findMissing();
+
+        // Assert
+        assertEquals(List.of("idx_app_user_updated_at", "idx_driver_location_geog",
+                "idx_driver_location_history_driver_time", "idx_driver_location_history_recorded_at_brin",
+                "uq_cargo_verification_code"), missing);
+    }
+}
@@ -0,0 +1,156 @@
+package com.hilgo.rotax.config;
+
+import com.hilgo.rotax.BaseTest;
+import com.hilgo.rotax.dto.AuthenticatedUser;
+import com.hilgo.rotax.dto.CachedUser;
+import com.hilgo.rotax.entity.Driver;
+import com.hilgo.rotax.enums.Roles;
+import com.hilgo.rotax.exception.UserNotActiveException;
+import com.hilgo.rotax.service.AccountStateRegistry;
+import com.hilgo.rotax.service.JwtService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.io.IOException;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest extends BaseTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("rotax-test-secret-0123456789abcdef".getBytes());
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private FilterChain filterChain;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private AccountStateRegistry accountStateRegistry;
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+    private Driver driver;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(SECRET);
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, accountStateRegistry);
+        SecurityContextHolder.clearContext();
+
+        driver = new Driver();
+        driver.setId(7L);
+        driver.setUsername("driver1");
+        driver.setRole(Roles.DRIVER);
+        driver.setEnabled(true);
+        driver.setTokenVersion(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilterInternal_ShouldAuthenticateFromClaimsWithoutLoadingUser() throws ServletException, IOException {
+        // Arrange
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + jwtService.generateToken(driver));
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        AuthenticatedUser principal = assertInstanceOf(AuthenticatedUser.class, authentication.getPrincipal());
+        assertEquals(7L, principal.id());
+        assertEquals("driver1", authentication.getName());
+        assertEquals("DRIVER", principal.userType());
+        assertEquals(2L, principal.tokenVersion());
+        assertTrue(authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_DRIVER")));
+        verifyNoInteractions(userDetailsService);
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_ShouldNotAuthenticate_WhenTokenVersionIsRevoked() throws ServletException, IOException {
+        // Arrange
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + jwtService.generateToken(driver));
+        when(accountStateRegistry.isRevoked(7L, 2L)).thenReturn(true);
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_ShouldRejectDisabledAccount() {
+        // Arrange
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + jwtService.generateToken(driver));
+        when(accountStateRegistry.isDisabled(7L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(UserNotActiveException.class, () -> filter.doFilterInternal(request, response, filterChain));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void doFilterInternal_ShouldRejectTokenIssuedWhileAccountWasDisabled() {
+        // Arrange
+        driver.setEnabled(false);
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + jwtService.generateToken(driver));
+
+        // Act & Assert
+        assertThrows(UserNotActiveException.class, () -> filter.doFilterInternal(request, response, filterChain));
+    }
+
+    @Test
+    void doFilterInternal_ShouldLoadUser_WhenTokenHasNoAccountClaims() throws ServletException, IOException {
+        // Arrange: hesap claim'leri eklenmeden önce verilmiş token
+        User legacy = (User) User.withUsername("legacy").password("x").roles("DISTRIBUTOR").build();
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + jwtService.generateToken(legacy));
+        when(userDetailsService.loadUserByUsername(anyString())).thenReturn(legacy);
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assertEquals(legacy, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(userDetailsService).loadUserByUsername("legacy");
+        verifyNoInteractions(accountStateRegistry);
+    }
+
+    @Test
+    void doFilterInternal_ShouldReject_WhenCachedLegacyUserIsDisabled() {
+        // Arrange
+        CachedUser legacy = new CachedUser(3L, "legacy", "x", false, Roles.DISTRIBUTOR);
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + jwtService.generateToken(legacy));
+        when(userDetailsService.loadUserByUsername(anyString())).thenReturn(legacy);
+
+        // Act & Assert
+        assertThrows(UserNotActiveException.class, () -> filter.doFilterInternal(request, response, filterChain));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
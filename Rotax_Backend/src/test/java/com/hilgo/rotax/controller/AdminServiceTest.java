@@ -10,8 +10,10 @@ import com.hilgo.rotax.enums.VerificationStatus;
 import com.hilgo.rotax.exception.ResourceNotFoundException;
 import com.hilgo.rotax.repository.UserDocumentRepository;
 import com.hilgo.rotax.repository.UserRepository;
+import com.hilgo.rotax.service.AccountStateRegistry;
 import com.hilgo.rotax.service.AdminService;
 import com.hilgo.rotax.service.EmailService;
+import com.hilgo.rotax.service.PrincipalCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -40,6 +42,12 @@ class AdminServiceTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private AccountStateRegistry accountStateRegistry;
+
+    @Mock
+    private PrincipalCache principalCache;
+
     @InjectMocks
     private AdminService adminService;
 
@@ -99,6 +107,8 @@ class AdminServiceTest {
         assertEquals(true, testDriver.getEnabled()); // Kullanıcının aktif edildiğini doğrula
         verify(userDocumentRepository, times(1)).save(any(UserDocument.class));
         verify(userRepository, times(1)).save(testDriver); // Kullanıcının kaydedildiğini doğrula
+        verify(accountStateRegistry, times(1)).update(testDriver);
+        verify(principalCache, times(1)).invalidate(testDriver.getUsername());
     }
 
     @Test
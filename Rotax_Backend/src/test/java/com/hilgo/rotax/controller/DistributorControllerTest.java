@@ -10,7 +10,6 @@ import com.hilgo.rotax.enums.Roles;
 import com.hilgo.rotax.enums.Size;
 import com.hilgo.rotax.repository.CargoRepository;
 import com.hilgo.rotax.repository.DistributorRepository;
-import com.hilgo.rotax.repository.LocationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -47,9 +46,6 @@ class DistributorControllerTest {
     @Autowired
     private CargoRepository cargoRepository;
 
-    @Autowired
-    private LocationRepository locationRepository;
-
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -58,7 +54,7 @@ class DistributorControllerTest {
 
     @BeforeEach
     void setUp() {
-        Location locationDist = locationRepository.save(new Location());
+        Location locationDist = new Location();
         testDistributor = new Distributor();
         testDistributor.setUsername("testdistributor");
         testDistributor.setPassword(passwordEncoder.encode("password"));
@@ -71,7 +67,7 @@ class DistributorControllerTest {
         testDistributor.setLocation(locationDist);
         distributorRepository.save(testDistributor);
 
-        Location location = locationRepository.save(new Location());
+        Location location = new Location();
         testCargo = new Cargo();
         testCargo.setDistributor(testDistributor);
         testCargo.setSelfLocation(location);
@@ -15,7 +15,6 @@ import com.hilgo.rotax.enums.Roles;
 import com.hilgo.rotax.repository.CargoRepository;
 import com.hilgo.rotax.repository.DistributorRepository;
 import com.hilgo.rotax.repository.DriverRepository;
-import com.hilgo.rotax.repository.LocationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -55,9 +54,6 @@ class DriverControllerTest {
     @Autowired
     private CargoRepository cargoRepository;
 
-    @Autowired
-    private LocationRepository locationRepository;
-
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -92,7 +88,7 @@ class DriverControllerTest {
         distributorRepository.save(testDistributor);
 
         // Test için bir kargo oluştur
-        Location location = locationRepository.save(new Location());
+        Location location = new Location();
         testCargo = new Cargo();
         testCargo.setDistributor(testDistributor);
         testCargo.setSelfLocation(location);
@@ -36,7 +36,6 @@ class InternalControllerTest extends BaseIntegrationTest {
     void getAvailableDrivers_ShouldReturnActiveDrivers() throws Exception {
         // Arrange
         Location location1 = new Location();
-        location1.setId(1L);
         location1.setLatitude(40.7128);
         location1.setLongitude(-74.0060);
         location1.setAddress("123 Test St");
@@ -45,7 +44,6 @@ class InternalControllerTest extends BaseIntegrationTest {
         location1.setPostalCode("10001");
 
         Location location2 = new Location();
-        location2.setId(2L);
         location2.setLatitude(34.0522);
         location2.setLongitude(-118.2437);
         location2.setAddress("456 Test Ave");
@@ -12,7 +12,6 @@ import com.hilgo.rotax.enums.Roles;
 import com.hilgo.rotax.repository.CargoRepository;
 import com.hilgo.rotax.repository.DistributorRepository;
 import com.hilgo.rotax.repository.DriverRepository;
-import com.hilgo.rotax.repository.LocationRepository;
 import com.hilgo.rotax.repository.ReviewRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -51,9 +50,6 @@ class PublicControllerTest {
     @Autowired
     private DistributorRepository distributorRepository;
 
-    @Autowired
-    private LocationRepository locationRepository;
-
     @Autowired
     private ReviewRepository reviewRepository;
 
@@ -96,7 +92,7 @@ class PublicControllerTest {
         distributorRepository.save(distributor);
 
         // ... Kargo oluşturma kodu aynı kalacak ...
-        Location location = locationRepository.save(new Location());
+        Location location = new Location();
         testCargo = new Cargo();
         testCargo.setDistributor(distributor);
         testCargo.setDriver(driver);
@@ -0,0 +1,196 @@
+package com.hilgo.rotax.repository;
+
+import com.hilgo.rotax.entity.Cargo;
+import com.hilgo.rotax.entity.Distributor;
+import com.hilgo.rotax.entity.Driver;
+import com.hilgo.rotax.entity.User;
+import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.enums.Roles;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Aynı kargoyu çok sayıda sanal thread'den aynı anda kabul etmeye çalışır.
+ * Koşullu UPDATE ile yalnızca bir sürücünün kazanması gerekir.
+ * Ölçüm testi yalnızca {@code -Drotax.benchmark=true} ile çalışır.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // her sürücü kendi transaction'ında commit etsin
+class CargoClaimContentionTest {
+
+    private static final int CONTENDERS = 64;
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private CargoRepository cargoRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private DistributorRepository distributorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Distributor distributor;
+    private List<Driver> drivers;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        distributor = distributorRepository.save(user(new Distributor(), Roles.DISTRIBUTOR));
+        drivers = new ArrayList<>();
+        for (int i = 0; i < CONTENDERS; i++) {
+            drivers.add(driverRepository.save(user(new Driver(), Roles.DRIVER)));
+        }
+    }
+
+    @Test
+    void claim_ShouldLetExactlyOneDriverWin_WhenManyClaimConcurrently() throws Exception {
+        // Arrange
+        Cargo cargo = newCargo();
+
+        // Act
+        int[] results = race(cargo.getId());
+
+        // Assert
+        assertEquals(1, Arrays.stream(results).sum());
+        Driver winner = drivers.get(indexOf(results, 1));
+        Cargo claimed = cargoRepository.findById(cargo.getId()).orElseThrow();
+        assertEquals(CargoSituation.ASSIGNED, claimed.getCargoSituation());
+        assertEquals(winner.getId(), claimed.getDriver().getId());
+    }
+
+    @Test
+    void transition_ShouldNotOverwriteClaim_WhenCancelReadStaleState() {
+        // Arrange: iptal kargoyu CREATED okudu, ardından bir sürücü kargoyu aldı
+        Cargo cargo = newCargo();
+        Driver driver = drivers.get(0);
+        transactionTemplate.execute(status -> cargoRepository.claim(
+                cargo.getId(), driver, CargoSituation.CREATED, CargoSituation.ASSIGNED, LocalDateTime.now()));
+
+        // Act
+        int cancelled = transactionTemplate.execute(status -> cargoRepository.transition(
+                cargo.getId(), CargoSituation.CREATED, CargoSituation.CANCELLED, LocalDateTime.now()));
+
+        // Assert
+        assertEquals(0, cancelled);
+        Cargo current = cargoRepository.findById(cargo.getId()).orElseThrow();
+        assertEquals(CargoSituation.ASSIGNED, current.getCargoSituation());
+        assertEquals(driver.getId(), current.getDriver().getId());
+    }
+
+    @Test
+    void advance_ShouldOnlyMoveCargoOfAssignedDriver() {
+        // Arrange
+        Cargo cargo = newCargo();
+        Driver driver = drivers.get(0);
+        transactionTemplate.execute(status -> cargoRepository.claim(
+                cargo.getId(), driver, CargoSituation.CREATED, CargoSituation.ASSIGNED, LocalDateTime.now()));
+        LocalDateTime now = LocalDateTime.now();
+
+        // Act
+        int byOther = transactionTemplate.execute(status -> cargoRepository.advance(cargo.getId(), drivers.get(1).getId(),
+                CargoSituation.ASSIGNED, CargoSituation.PICKED_UP, now, null, now));
+        int byOwner = transactionTemplate.execute(status -> cargoRepository.advance(cargo.getId(), driver.getId(),
+                CargoSituation.ASSIGNED, CargoSituation.PICKED_UP, now, null, now));
+
+        // Assert
+        assertEquals(0, byOther);
+        assertEquals(1, byOwner);
+        Cargo current = cargoRepository.findById(cargo.getId()).orElseThrow();
+        assertEquals(CargoSituation.PICKED_UP, current.getCargoSituation());
+        assertNotNull(current.getTakingTime());
+        assertNull(current.getDeliveredTime());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "rotax.benchmark", matches = "true")
+    void benchmark_ClaimUnderContention() throws Exception {
+        int rounds = Integer.getInteger("rotax.benchmark.rounds", 200);
+
+        // Isınma
+        for (int i = 0; i < 20; i++) {
+            race(newCargo().getId());
+        }
+
+        long started = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            assertEquals(1, Arrays.stream(race(newCargo().getId())).sum());
+        }
+        double elapsedMs = (System.nanoTime() - started) / 1_000_000.0;
+
+        System.out.printf("claim contention: %d rounds x %d virtual threads, %.1f ms total, %.3f ms/round, %.0f claims/s%n",
+                rounds, CONTENDERS, elapsedMs, elapsedMs / rounds, rounds * CONTENDERS / (elapsedMs / 1000.0));
+    }
+
+    private int[] race(Long cargoId) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Driver driver : drivers) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return transactionTemplate.execute(status -> cargoRepository.claim(
+                            cargoId, driver, CargoSituation.CREATED, CargoSituation.ASSIGNED, LocalDateTime.now()));
+                }));
+            }
+            start.countDown();
+            int[] results = new int[futures.size()];
+            for (int i = 0; i < futures.size(); i++) {
+                results[i] = futures.get(i).get();
+            }
+            return results;
+        }
+    }
+
+    private Cargo newCargo() {
+        return cargoRepository.save(Cargo.builder()
+                .cargoSituation(CargoSituation.CREATED)
+                .distributor(distributor)
+                .verificationCode("BENCH" + SEQUENCE.incrementAndGet())
+                .build());
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static <T extends User> T user(T user, Roles role) {
+        int n = SEQUENCE.incrementAndGet();
+        user.setUsername("user" + n);
+        user.setEmail("user" + n + "@rotax.test");
+        user.setPassword("password");
+        user.setFirstName("Test");
+        user.setLastName("User" + n);
+        user.setPhoneNumber("555000" + n);
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,159 @@
+package com.hilgo.rotax.repository;
+
+import com.hilgo.rotax.entity.Cargo;
+import com.hilgo.rotax.entity.Distributor;
+import com.hilgo.rotax.entity.Location;
+import com.hilgo.rotax.entity.Measure;
+import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.enums.Roles;
+import com.hilgo.rotax.enums.Size;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Kargo oluşturmanın (konumlar ve ölçü kargo satırına gömülü) id'leri sequence bloğundan alıp insert'leri
+ * JDBC batch olarak gönderdiğini doğrular. Ölçüm testi yalnızca {@code -Drotax.benchmark=true} ile çalışır.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // her kargo kendi transaction'ında commit etsin
+class CargoInsertBatchingTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private CargoRepository cargoRepository;
+
+    @Autowired
+    private DistributorRepository distributorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private Distributor distributor;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        int n = SEQUENCE.incrementAndGet();
+        distributor = new Distributor();
+        distributor.setUsername("batch" + n);
+        distributor.setEmail("batch" + n + "@rotax.test");
+        distributor.setPassword("password");
+        distributor.setFirstName("Test");
+        distributor.setLastName("Distributor");
+        distributor.setPhoneNumber("555200" + n);
+        distributor.setRole(Roles.DISTRIBUTOR);
+        distributor = distributorRepository.save(distributor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cargoRepository.deleteAllInBatch();
+        distributorRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void createCargo_ShouldAssignIdsOnSaveAndSendInsertsAsOneBatch() {
+        // Arrange
+        int cargos = 20;
+        statistics.clear();
+
+        // Act
+        List<Cargo> created = transactionTemplate.execute(status -> {
+            List<Cargo> saved = new ArrayList<>();
+            for (int i = 0; i < cargos; i++) {
+                saved.add(createCargo(i));
+            }
+            // Id'ler save sırasında sequence bloğundan atanır; henüz insert gönderilmedi
+            assertTrue(saved.stream().allMatch(cargo -> cargo.getId() != null));
+            assertEquals(0, statistics.getEntityInsertCount());
+            return saved;
+        });
+
+        // Assert
+        assertEquals(cargos, statistics.getEntityInsertCount());
+        // 1 sequence çağrısı (cargo_seq bloğu) + 1 batch insert
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(cargos, cargoRepository.findAllById(created.stream().map(Cargo::getId).toList()).size());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "rotax.benchmark", matches = "true")
+    void benchmark_CreateCargoInsertsPerSecond() {
+        int rounds = Integer.getInteger("rotax.benchmark.rounds", 5_000);
+        // 1: istek başına bir kargo (createCargo); daha büyük değerler toplu oluşturmayı temsil eder
+        int perTransaction = Integer.getInteger("rotax.benchmark.per-transaction", 1);
+
+        // Isınma
+        for (int i = 0; i < 500; i++) {
+            int n = i;
+            transactionTemplate.executeWithoutResult(status -> createCargo(n));
+        }
+        statistics.clear();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < rounds; i += perTransaction) {
+            int first = i;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int n = first; n < Math.min(first + perTransaction, rounds); n++) {
+                    createCargo(n);
+                }
+            });
+        }
+        double elapsedMs = (System.nanoTime() - started) / 1_000_000.0;
+
+        System.out.printf("create cargo: %d cargos (%d rows, %d per transaction), %.1f ms total, %.0f cargos/s, %.0f rows/s, %.2f statements/cargo%n",
+                rounds, statistics.getEntityInsertCount(), perTransaction, elapsedMs, rounds / (elapsedMs / 1000.0),
+                statistics.getEntityInsertCount() / (elapsedMs / 1000.0),
+                (double) statistics.getPrepareStatementCount() / rounds);
+    }
+
+    // DistributorService.createCargo ile aynı kayıt sırası
+    private Cargo createCargo(int n) {
+        Measure measure = new Measure();
+        measure.setWeight(5.0);
+        measure.setSize(Size.SMALL);
+        return cargoRepository.save(Cargo.builder()
+                .selfLocation(location(41.0 + n * 1e-4, 29.0))
+                .targetLocation(location(41.1, 29.1 + n * 1e-4))
+                .measure(measure)
+                .distributor(distributor)
+                .cargoSituation(CargoSituation.CREATED)
+                .verificationCode("BT" + SEQUENCE.incrementAndGet())
+                .build());
+    }
+
+    private static Location location(double latitude, double longitude) {
+        Location location = new Location();
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        return location;
+    }
+}
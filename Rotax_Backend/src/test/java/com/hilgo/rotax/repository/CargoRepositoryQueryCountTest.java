@@ -0,0 +1,182 @@
+package com.hilgo.rotax.repository;
+
+import com.hilgo.rotax.dto.CargoDTO;
+import com.hilgo.rotax.dto.CargoTrackingView;
+import com.hilgo.rotax.dto.CargoView;
+import com.hilgo.rotax.entity.Cargo;
+import com.hilgo.rotax.entity.Distributor;
+import com.hilgo.rotax.entity.Driver;
+import com.hilgo.rotax.entity.Location;
+import com.hilgo.rotax.entity.Measure;
+import com.hilgo.rotax.entity.User;
+import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.enums.Roles;
+import com.hilgo.rotax.enums.Size;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Kargo görünümünü (konumlar, ölçü, dağıtıcı, sürücü) döndüren okuma yollarının
+ * satır başına ek sorgu üretmediğini Hibernate istatistikleriyle doğrular.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+class CargoRepositoryQueryCountTest {
+
+    private static final int CARGOS = 12;
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private CargoRepository cargoRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private Distributor distributor;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        distributor = user(new Distributor(), Roles.DISTRIBUTOR);
+        distributor.setLocation(location(41.0, 29.0));
+        entityManager.persist(distributor);
+
+        for (int i = 0; i < CARGOS; i++) {
+            // Her kargonun farklı sürücüsü olsun; ilişkiler tek tek yükleniyorsa sorgu sayısı satırla artar
+            Driver driver = user(new Driver(), Roles.DRIVER);
+            driver.setLocation(location(41.0 + i * 0.01, 29.0));
+            entityManager.persist(driver);
+
+            Measure measure = new Measure();
+            measure.setWeight(5.0);
+            measure.setSize(Size.SMALL);
+
+            entityManager.persist(Cargo.builder()
+                    .selfLocation(location(41.0, 29.0 + i * 0.01))
+                    .targetLocation(location(41.1, 29.1 + i * 0.01))
+                    .measure(measure)
+                    .distributor(distributor)
+                    .driver(driver)
+                    .cargoSituation(i % 2 == 0 ? CargoSituation.ASSIGNED : CargoSituation.DELIVERED)
+                    .verificationCode("QC" + SEQUENCE.incrementAndGet())
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void findByDistributorId_ShouldLoadPageWithCargoViewInOneSelectPlusCount() {
+        // Act
+        Page<Cargo> page = cargoRepository.findByDistributorId(distributor.getId(), PageRequest.of(0, 10));
+        page.forEach(CargoRepositoryQueryCountTest::touchView);
+
+        // Assert
+        assertEquals(10, page.getNumberOfElements());
+        assertEquals(CARGOS, page.getTotalElements());
+        assertEquals(2, statistics.getPrepareStatementCount()); // sayfa + toplam sayısı
+    }
+
+    @Test
+    void findViewsByDistributorId_ShouldSelectPageWithoutLoadingEntities() {
+        // Act
+        Page<CargoView> page = cargoRepository.findViewsByDistributorId(distributor.getId(),
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        // Assert
+        assertEquals(10, page.getNumberOfElements());
+        assertEquals(CARGOS, page.getTotalElements());
+        CargoDTO dto = page.getContent().get(0).toDTO();
+        assertNotNull(dto.getSelfLocation().getLatitude());
+        assertEquals(Size.SMALL, dto.getMeasure().getSize());
+        assertEquals(distributor.getId(), dto.getDistributorId());
+        assertNotNull(dto.getDriverName());
+        assertEquals(2, statistics.getPrepareStatementCount()); // sayfa + toplam sayısı
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findViewsByDistributorAndSituationIn_ShouldUseSingleSelect() {
+        // Act
+        List<CargoView> cargos = cargoRepository.findViewsByDistributorAndSituationIn(
+                distributor.getId(), List.of(CargoSituation.ASSIGNED), PageRequest.of(0, 50));
+
+        // Assert
+        assertEquals(CARGOS / 2, cargos.size());
+        assertTrue(cargos.stream().allMatch(cargo -> cargo.cargoSituation() == CargoSituation.ASSIGNED));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findTrackingViewByVerificationCode_ShouldUseSingleSelect() {
+        // Act
+        CargoTrackingView view = cargoRepository.findTrackingViewByVerificationCode("QC" + SEQUENCE.get()).orElseThrow();
+
+        // Assert
+        assertEquals(CargoSituation.DELIVERED, view.status());
+        assertNotNull(view.targetLocation().getLatitude());
+        assertNotNull(view.driverLocation().getLatitude());
+        assertNotNull(view.driverName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findByVerificationCodeAndFindById_ShouldUseSingleSelectEach() {
+        // Act
+        Cargo byCode = cargoRepository.findByVerificationCode("QC" + SEQUENCE.get()).orElseThrow();
+        touchView(byCode);
+        entityManager.clear();
+        Cargo byId = cargoRepository.findById(byCode.getId()).orElseThrow();
+        touchView(byId);
+
+        // Assert
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private static void touchView(Cargo cargo) {
+        assertNotNull(cargo.getSelfLocation().getLatitude());
+        assertNotNull(cargo.getTargetLocation().getLatitude());
+        assertNotNull(cargo.getMeasure().getSize());
+        assertNotNull(cargo.getDistributor().getLocation().getLatitude());
+        assertNotNull(cargo.getDriver().getLocation().getLatitude());
+    }
+
+    private static Location location(double latitude, double longitude) {
+        Location location = new Location();
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        return location;
+    }
+
+    private static <T extends User> T user(T user, Roles role) {
+        int n = SEQUENCE.incrementAndGet();
+        user.setUsername("qc" + n);
+        user.setEmail("qc" + n + "@rotax.test");
+        user.setPassword("password");
+        user.setFirstName("Test");
+        user.setLastName("User" + n);
+        user.setPhoneNumber("555100" + n);
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,110 @@
+package com.hilgo.rotax.repository;
+
+import com.hilgo.rotax.dto.CargoView;
+import com.hilgo.rotax.entity.Cargo;
+import com.hilgo.rotax.entity.Distributor;
+import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.enums.CargoSortField;
+import com.hilgo.rotax.enums.Roles;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+class CargoViewScrollRepositoryTest {
+
+    private static final int CARGOS = 11;
+    private static final int PAGE = 4;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Autowired
+    private CargoRepository cargoRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Distributor distributor;
+
+    @BeforeEach
+    void setUp() {
+        distributor = new Distributor();
+        distributor.setUsername("scroll");
+        distributor.setEmail("scroll@rotax.test");
+        distributor.setPassword("password");
+        distributor.setFirstName("Test");
+        distributor.setLastName("Distributor");
+        distributor.setPhoneNumber("5550001");
+        distributor.setRole(Roles.DISTRIBUTOR);
+        entityManager.persist(distributor);
+
+        for (int i = 0; i < CARGOS; i++) {
+            Cargo cargo = entityManager.persist(Cargo.builder()
+                    .distributor(distributor)
+                    .cargoSituation(CargoSituation.CREATED)
+                    .verificationCode("SC" + i)
+                    .build());
+            entityManager.flush();
+            // Üçer kargo aynı oluşturulma zamanını paylaşır; sıra id ile ayrılmalı
+            entityManager.getEntityManager()
+                    .createNativeQuery("UPDATE cargo SET created_at = ? WHERE id = ?")
+                    .setParameter(1, BASE.plusMinutes(i / 3))
+                    .setParameter(2, cargo.getId())
+                    .executeUpdate();
+        }
+        entityManager.clear();
+    }
+
+    @Test
+    void scroll_ShouldVisitEveryCargoOnceInOrder_WhenSortKeyHasTies() {
+        // Act
+        List<CargoView> visited = new ArrayList<>();
+        List<CargoView> page = cargoRepository.scrollViewsByDistributorId(distributor.getId(),
+                CargoSortField.CREATED_AT, Sort.Direction.DESC, null, null, PAGE);
+        while (!page.isEmpty()) {
+            visited.addAll(page);
+            CargoView last = page.get(page.size() - 1);
+            page = cargoRepository.scrollViewsByDistributorId(distributor.getId(),
+                    CargoSortField.CREATED_AT, Sort.Direction.DESC, last.createdAt(), last.id(), PAGE);
+        }
+
+        // Assert
+        assertEquals(CARGOS, visited.size());
+        assertEquals(CARGOS, visited.stream().map(CargoView::id).distinct().count());
+        List<CargoView> expected = new ArrayList<>(visited);
+        expected.sort(Comparator.comparing(CargoView::createdAt).thenComparing(CargoView::id).reversed());
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void scroll_ShouldNotRunCountQuery() {
+        // Arrange
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        List<CargoView> first = cargoRepository.scrollViewsByDistributorId(distributor.getId(),
+                CargoSortField.ID, Sort.Direction.ASC, null, null, PAGE);
+        List<CargoView> second = cargoRepository.scrollViewsByDistributorId(distributor.getId(),
+                CargoSortField.ID, Sort.Direction.ASC, null, first.get(PAGE - 1).id(), PAGE);
+
+        // Assert
+        assertEquals(PAGE, second.size());
+        assertTrue(second.get(0).id() > first.get(PAGE - 1).id());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,99 @@
+package com.hilgo.rotax.service;
+
+import com.hilgo.rotax.entity.Driver;
+import com.hilgo.rotax.entity.User;
+import com.hilgo.rotax.enums.Roles;
+import com.hilgo.rotax.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(AccountStateRegistry.class)
+class AccountStateRegistryTest {
+
+    @Autowired
+    private AccountStateRegistry registry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void load_ShouldKeepDisabledAndRevokedAccountsOnly() {
+        // Arrange
+        User disabled = user("pending", false, 0);
+        User active = user("active", true, 0);
+        User revoked = user("revoked", true, 2);
+        entityManager.flush();
+
+        // Act
+        registry.load();
+
+        // Assert
+        assertTrue(registry.isDisabled(disabled.getId()));
+        assertFalse(registry.isDisabled(active.getId()));
+        assertFalse(registry.isRevoked(active.getId(), 0));
+        assertTrue(registry.isRevoked(revoked.getId(), 1));
+        assertFalse(registry.isRevoked(revoked.getId(), 2));
+    }
+
+    @Test
+    void refresh_ShouldPickUpAccountsChangedSinceLastLoad() {
+        // Arrange
+        User driver = user("driver", false, 0);
+        entityManager.flush();
+        registry.load();
+
+        driver.setEnabled(true);
+        driver.revokeTokens();
+        userRepository.save(driver);
+        entityManager.flush();
+
+        // Act
+        registry.refresh();
+
+        // Assert
+        assertFalse(registry.isDisabled(driver.getId()));
+        assertTrue(registry.isRevoked(driver.getId(), 0));
+        assertFalse(registry.isRevoked(driver.getId(), 1));
+    }
+
+    @Test
+    void refresh_ShouldNotLowerVersionWithStaleRead() {
+        // Arrange: sürüm 3 bilinirken eski bir okuma sürüm 1'i getirsin
+        User driver = user("stale", true, 3);
+        entityManager.flush();
+        registry.load();
+
+        driver.setTokenVersion(1);
+        userRepository.save(driver);
+        entityManager.flush();
+
+        // Act
+        registry.refresh();
+
+        // Assert
+        assertTrue(registry.isRevoked(driver.getId(), 2));
+    }
+
+    private User user(String username, boolean enabled, long tokenVersion) {
+        Driver driver = new Driver();
+        driver.setUsername(username);
+        driver.setEmail(username + "@rotax.test");
+        driver.setPassword("password");
+        driver.setFirstName("Test");
+        driver.setLastName("Driver");
+        driver.setPhoneNumber("555" + username);
+        driver.setRole(Roles.DRIVER);
+        driver.setEnabled(enabled);
+        driver.setTokenVersion(tokenVersion);
+        return userRepository.save(driver);
+    }
+}
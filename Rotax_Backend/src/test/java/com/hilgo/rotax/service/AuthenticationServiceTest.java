@@ -16,12 +16,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -47,6 +49,14 @@ class AuthenticationServiceTest {
     private FileStorageService fileStorageService;
     @Mock
     private UserDocumentRepository userDocumentRepository;
+    @Mock
+    private AccountStateRegistry accountStateRegistry;
+    @Mock
+    private PrincipalCache principalCache;
+    @Mock
+    private LoginVerificationExecutor loginVerificationExecutor;
+    @Mock
+    private PasswordUpgradeService passwordUpgradeService;
 
     @InjectMocks
     private AuthenticationService authenticationService;
@@ -124,6 +134,7 @@ class AuthenticationServiceTest {
         Authentication authentication = mock(Authentication.class);
 
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
+        when(loginVerificationExecutor.verify(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
         when(authenticationManager.authenticate(any())).thenReturn(authentication);
         when(jwtService.generateToken(user)).thenReturn("dummy-jwt-token");
 
@@ -134,5 +145,21 @@ class AuthenticationServiceTest {
         assertNotNull(response);
         assertEquals("dummy-jwt-token", response.getToken());
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        verify(passwordUpgradeService).upgradeIfNeeded(user, "password");
+    }
+
+    @Test
+    void login_ShouldNotUpgradePassword_WhenCredentialsAreInvalid() {
+        // Arrange
+        LoginRequest loginRequest = new LoginRequest("testuser", "wrong");
+        User user = User.builder().username("testuser").build();
+
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
+        when(loginVerificationExecutor.verify(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> authenticationService.login(loginRequest));
+        verifyNoInteractions(passwordUpgradeService, jwtService);
     }
 }
@@ -0,0 +1,213 @@
+package com.hilgo.rotax.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hilgo.rotax.dto.BulkCargoResponse;
+import com.hilgo.rotax.entity.Cargo;
+import com.hilgo.rotax.entity.Distributor;
+import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.enums.Roles;
+import com.hilgo.rotax.enums.Size;
+import com.hilgo.rotax.repository.CargoRepository;
+import com.hilgo.rotax.repository.DistributorCargoStatsRepository;
+import com.hilgo.rotax.repository.DistributorRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(DistributorCargoStatsService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // parçalar kendi transaction'larında commit edilir
+class CargoBulkImportServiceTest {
+
+    @Autowired
+    private DistributorCargoStatsService statsService;
+
+    @Autowired
+    private DistributorCargoStatsRepository statsRepository;
+
+    @Autowired
+    private DistributorRepository distributorRepository;
+
+    @Autowired
+    private CargoRepository cargoRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final CargoOfferIndex cargoOfferIndex = mock(CargoOfferIndex.class);
+
+    private CargoBulkImportService importService;
+    private Distributor distributor;
+
+    @BeforeEach
+    void setUp() {
+        importService = new CargoBulkImportService(new JdbcTemplate(dataSource), new TransactionTemplate(transactionManager),
+                statsService, cargoOfferIndex, Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                2, 100, 2);
+
+        distributor = new Distributor();
+        distributor.setUsername("bulk");
+        distributor.setEmail("bulk@rotax.test");
+        distributor.setPassword("password");
+        distributor.setFirstName("Test");
+        distributor.setLastName("Distributor");
+        distributor.setPhoneNumber("5550000");
+        distributor.setRole(Roles.DISTRIBUTOR);
+        distributor = distributorRepository.save(distributor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+        cargoRepository.deleteAllInBatch();
+        statsRepository.deleteAllInBatch();
+        distributorRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void importCargos_JsonArray_ShouldCreateValidRowsAndReportInvalidOrUnreadableOnes() {
+        // Arrange
+        String manifest = "[" + String.join(",",
+                json(41.01, "5551"),
+                json(41.02, "5552"),
+                "{\"selfLocation\":{\"latitude\":41.0,\"longitude\":29.0},\"measure\":{\"size\":\"SMALL\"},\"phoneNumber\":\"5553\"}",
+                json(41.04, ""),
+                json(41.05, "5555"),
+                json(41.06, "5556").replace("1.5", "\"ağır\""),
+                json(41.07, "5557")) + "]";
+
+        // Act
+        BulkCargoResponse response = importService.importCargos(distributor, stream(manifest), MediaType.APPLICATION_JSON);
+
+        // Assert
+        assertEquals(7, response.getReceived());
+        assertEquals(4, response.getCreated());
+        assertEquals(List.of(1, 2, 5, 7), response.getCargos().stream().map(BulkCargoResponse.CreatedCargo::getRow).toList());
+        assertEquals(List.of(3, 4, 6), response.getErrors().stream().map(BulkCargoResponse.RowError::getRow).toList());
+        assertEquals("Target location is required", response.getErrors().get(0).getMessage());
+
+        for (BulkCargoResponse.CreatedCargo created : response.getCargos()) {
+            Cargo cargo = cargoRepository.findByVerificationCode(created.getTrackingCode()).orElseThrow();
+            assertEquals(created.getCargoId(), cargo.getId());
+            assertEquals(CargoSituation.CREATED, cargo.getCargoSituation());
+            assertEquals(41.1, cargo.getTargetLocation().getLatitude());
+        }
+        assertEquals(4, cargoRepository.count());
+        assertEquals(4, statsService.get(distributor.getId()).getCreatedCargos());
+        verify(cargoOfferIndex, times(4)).add(any(Cargo.class));
+    }
+
+    @Test
+    void importCargos_Csv_ShouldMapColumnPathsAndReportUnreadableRows() {
+        // Arrange
+        String manifest = """
+                selfLocation.latitude,selfLocation.longitude,targetLocation.latitude,targetLocation.longitude,measure.weight,measure.size,phoneNumber,description
+                41.0,29.0,41.1,29.1,2.5,SMALL,5551,"Koli, kırılacak"
+                41.0,29.0,41.1,29.1,abc,SMALL,5552,
+                41.0,29.0,41.1,29.1,,LARGE,5553,
+                """;
+
+        // Act
+        BulkCargoResponse response = importService.importCargos(distributor, stream(manifest), MediaType.parseMediaType("text/csv"));
+
+        // Assert
+        assertEquals(3, response.getReceived());
+        assertEquals(2, response.getCreated());
+        assertEquals(2, response.getErrors().get(0).getRow());
+
+        Cargo first = cargoRepository.findByVerificationCode(response.getCargos().get(0).getTrackingCode()).orElseThrow();
+        assertEquals("Koli, kırılacak", first.getDescription());
+        assertEquals(2.5, first.getMeasure().getWeight());
+        Cargo second = cargoRepository.findByVerificationCode(response.getCargos().get(1).getTrackingCode()).orElseThrow();
+        assertEquals(Size.LARGE, second.getMeasure().getSize());
+    }
+
+    @Test
+    void importCargos_FailingBatch_ShouldRetryRowsOneByOneAndFailOnlyTheBadRow() {
+        // Arrange: açıklama sütuna sığmaz, parçanın batch'i başarısız olur
+        String manifest = json(41.01, "5551") + "\n" + json(41.02, "5552").replace("\"Koli\"", "\"" + "x".repeat(300) + "\"") + "\n";
+
+        // Act
+        BulkCargoResponse response = importService.importCargos(distributor, stream(manifest), MediaType.APPLICATION_NDJSON);
+
+        // Assert
+        assertEquals(1, response.getCreated());
+        assertEquals(1, response.getCargos().get(0).getRow());
+        assertEquals(1, response.getFailed());
+        assertEquals(2, response.getErrors().get(0).getRow());
+        assertEquals(1, cargoRepository.count());
+        assertEquals(1, statsService.get(distributor.getId()).getTotalCargos());
+    }
+
+    @Test
+    void importCargos_VerificationCodeCollision_ShouldRetryRowsWithFreshCodes() {
+        // Arrange: üretimdeki benzersizlik indeksi; ilk üretilen kod mevcut bir kargonunkiyle çakışır
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE UNIQUE INDEX uq_cargo_verification_code ON cargo (verification_code)");
+        cargoRepository.save(Cargo.builder().cargoSituation(CargoSituation.CREATED).verificationCode("TAKEN").build());
+        String manifest = json(41.01, "5551") + "\n" + json(41.02, "5552") + "\n";
+
+        try (MockedStatic<DistributorService> codes = mockStatic(DistributorService.class)) {
+            codes.when(DistributorService::generateVerificationCode).thenReturn("TAKEN", "FRESH1", "FRESH2", "FRESH3");
+
+            // Act
+            BulkCargoResponse response = importService.importCargos(distributor, stream(manifest), MediaType.APPLICATION_NDJSON);
+
+            // Assert: parça çakışmayla geri alınır, satırlar yeni kodlarla tek tek yazılır
+            assertEquals(2, response.getCreated());
+            assertEquals(0, response.getFailed());
+            assertEquals(List.of("FRESH2", "FRESH3"),
+                    response.getCargos().stream().map(BulkCargoResponse.CreatedCargo::getTrackingCode).toList());
+            assertEquals(3, cargoRepository.count());
+        } finally {
+            jdbcTemplate.execute("DROP INDEX uq_cargo_verification_code");
+        }
+    }
+
+    @Test
+    void allocateIds_ShouldHandOutDistinctIdsAcrossBlocks() {
+        // Act
+        long[] first = importService.allocateIds("cargo_seq", CargoBulkImportService.ID_BLOCK_SIZE + 1);
+        long[] second = importService.allocateIds("cargo_seq", 1);
+
+        // Assert
+        for (int i = 1; i < first.length; i++) {
+            assertTrue(first[i] > first[i - 1]);
+        }
+        assertTrue(second[0] > first[first.length - 1]);
+    }
+
+    private static String json(double latitude, String phoneNumber) {
+        return "{\"selfLocation\":{\"latitude\":" + latitude + ",\"longitude\":29.0}," +
+                "\"targetLocation\":{\"latitude\":41.1,\"longitude\":29.1}," +
+                "\"measure\":{\"weight\":1.5,\"size\":\"SMALL\"}," +
+                "\"phoneNumber\":\"" + phoneNumber + "\",\"description\":\"Koli\"}";
+    }
+
+    private static ByteArrayInputStream stream(String manifest) {
+        return new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,32 @@
+package com.hilgo.rotax.service;
+
+import com.hilgo.rotax.enums.CargoSortField;
+import com.hilgo.rotax.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CargoCursorTest {
+
+    @Test
+    void decode_ShouldRestoreEncodedCursor() {
+        // Arrange
+        CargoCursor cursor = new CargoCursor(CargoSortField.CREATED_AT, Sort.Direction.DESC,
+                LocalDateTime.of(2025, 3, 4, 10, 15, 30, 123_456_000), 42L);
+
+        // Act
+        CargoCursor decoded = CargoCursor.decode(cursor.encode());
+
+        // Assert
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void decode_ShouldRejectTamperedToken() {
+        assertThrows(BadRequestException.class, () -> CargoCursor.decode("not-a-cursor"));
+        assertThrows(BadRequestException.class, () -> CargoCursor.decode("%%%"));
+    }
+}
@@ -0,0 +1,44 @@
+package com.hilgo.rotax.service;
+
+import com.hilgo.rotax.dto.MeasureDTO;
+import com.hilgo.rotax.enums.CarType;
+import com.hilgo.rotax.enums.Size;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CargoLoadTest {
+
+    @Test
+    void of_ShouldUseDimensionsInCentimetresForVolume() {
+        // Arrange
+        MeasureDTO measure = MeasureDTO.builder().weight(20.0).width(50.0).length(60.0).height(40.0).build();
+
+        // Act
+        CargoLoad load = CargoLoad.of(measure);
+
+        // Assert
+        assertEquals(0.12, load.getVolumeM3(), 1e-9);
+        assertTrue(load.fits(CarType.MOTORCYCLE));
+        assertTrue(load.fits(CarType.SEDAN));
+    }
+
+    @Test
+    void of_ShouldExcludeVehiclesOverWeightOrVolume_AndFallBackToSizeWithoutDimensions() {
+        // Arrange
+        MeasureDTO measure = MeasureDTO.builder().weight(400.0).size(Size.LARGE).build();
+
+        // Act
+        CargoLoad load = CargoLoad.of(measure);
+
+        // Assert
+        assertFalse(load.fits(CarType.MOTORCYCLE));
+        assertFalse(load.fits(CarType.SEDAN));
+        assertFalse(load.fits(CarType.HATCHBACK));
+        assertTrue(load.fits(CarType.SUV));
+        assertTrue(load.fits(CarType.PICKUP));
+        assertTrue(load.fits(null));
+        assertEquals(0, load.oversize(CarType.SUV));
+        assertEquals(2, load.oversize(CarType.PICKUP));
+    }
+}
@@ -0,0 +1,214 @@
+package com.hilgo.rotax.service;
+
+import com.hilgo.rotax.dto.MatchingRunDTO;
+import com.hilgo.rotax.entity.Cargo;
+import com.hilgo.rotax.entity.Distributor;
+import com.hilgo.rotax.entity.Driver;
+import com.hilgo.rotax.entity.Location;
+import com.hilgo.rotax.entity.Measure;
+import com.hilgo.rotax.enums.CarType;
+import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.enums.DriverStatus;
+import com.hilgo.rotax.enums.Size;
+import com.hilgo.rotax.repository.CargoRepository;
+import com.hilgo.rotax.repository.DriverRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CargoMatchingEngineTest {
+
+    @Mock
+    private CargoRepository cargoRepository;
+
+    @Mock
+    private DriverRepository driverRepository;
+
+    @Mock
+    private CargoTrackingHub cargoTrackingHub;
+
+    @Mock
+    private DistributorCargoStatsService distributorCargoStatsService;
+
+    @Mock
+    private DriverOfferFeed driverOfferFeed;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private CargoOfferIndex cargoOfferIndex;
+    private DriverLocationIndex driverLocationIndex;
+    private CargoMatchingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        cargoOfferIndex = new CargoOfferIndex(cargoRepository);
+        cargoOfferIndex.rebuild();
+        driverLocationIndex = new DriverLocationIndex(driverRepository);
+        driverLocationIndex.rebuild();
+        engine = new CargoMatchingEngine(cargoOfferIndex, driverLocationIndex, cargoRepository, cargoTrackingHub,
+                distributorCargoStatsService, driverOfferFeed, jdbcTemplate, transactionTemplate, true, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void runOnce_ShouldAssignNearestDriverWhoseVehicleFitsTheCargo() {
+        // Arrange
+        cargoOfferIndex.add(cargo(10L, 41.00, 29.00, Size.LARGE));
+        driverLocationIndex.update(driver(1L, 41.001, 29.001, CarType.MOTORCYCLE)); // en yakın ama sığmaz
+        driverLocationIndex.update(driver(2L, 41.02, 29.02, CarType.SUV));
+        driverLocationIndex.update(driver(3L, 41.05, 29.05, CarType.PICKUP));
+        when(cargoRepository.findDriverIdsWithCargoIn(anyCollection(), anyCollection())).thenReturn(List.of());
+        stubBatch(1);
+
+        // Act
+        MatchingRunDTO run = engine.runOnce();
+
+        // Assert
+        assertEquals(1, run.getProposed());
+        assertEquals(1, run.getAssigned());
+        assertEquals(0, run.getConflicts());
+        assertEquals(2L, capturedAssignments().get(0).getDriverId());
+        assertEquals(0, cargoOfferIndex.size());
+        verify(distributorCargoStatsService).cargoMoved(7L, CargoSituation.CREATED, CargoSituation.ASSIGNED, 1);
+        verify(driverOfferFeed).cargoAssigned(2L, 10L);
+    }
+
+    @Test
+    void runOnce_ShouldSkipBusyDriversAndKeepCargosClaimedMeanwhileOutOfTheResult() {
+        // Arrange
+        cargoOfferIndex.add(cargo(10L, 41.00, 29.00, Size.SMALL));
+        cargoOfferIndex.add(cargo(20L, 41.01, 29.01, Size.SMALL));
+        driverLocationIndex.update(driver(1L, 41.00, 29.00, CarType.SEDAN)); // elinde teslim edilmemiş kargo var
+        driverLocationIndex.update(driver(2L, 41.02, 29.02, CarType.SEDAN));
+        when(cargoRepository.findDriverIdsWithCargoIn(anyCollection(), anyCollection())).thenReturn(List.of(1L));
+        stubBatch(0); // kargo bu arada başka bir sürücü tarafından kabul edildi
+
+        // Act
+        MatchingRunDTO run = engine.runOnce();
+
+        // Assert
+        assertEquals(1, run.getAvailableDrivers());
+        assertEquals(1, run.getProposed());
+        assertEquals(0, run.getAssigned());
+        assertEquals(1, run.getConflicts());
+        assertEquals(2L, capturedAssignments().get(0).getDriverId());
+        verify(cargoRepository, never()).findAllById(any());
+        verifyNoInteractions(distributorCargoStatsService, driverOfferFeed);
+    }
+
+    @Test
+    void runOnce_ShouldMatchDriverAcrossGridCellBoundary() {
+        // Arrange: kargo ve sürücü 0.5 derecelik hücre sınırının (41.5) iki yanında, aralarında ~2 km var
+        cargoOfferIndex.add(cargo(10L, 41.495, 29.00, Size.SMALL));
+        driverLocationIndex.update(driver(1L, 41.505, 29.00, CarType.SEDAN));
+        when(cargoRepository.findDriverIdsWithCargoIn(anyCollection(), anyCollection())).thenReturn(List.of());
+        stubBatch(1);
+
+        // Act
+        MatchingRunDTO run = engine.runOnce();
+
+        // Assert
+        assertEquals(1, run.getAssigned());
+        assertEquals(1L, capturedAssignments().get(0).getDriverId());
+    }
+
+    @Test
+    void runOnce_ShouldGiveSharedDriverToNearestCargoOnly() {
+        // Arrange: iki kargo aynı sürücüye yakın, biri daha yakın; ikinci sürücü yalnızca uzak kargoya yetişir
+        cargoOfferIndex.add(cargo(10L, 41.00, 29.00, Size.SMALL));
+        cargoOfferIndex.add(cargo(20L, 41.00, 29.06, Size.SMALL));
+        driverLocationIndex.update(driver(1L, 41.00, 29.01, CarType.SEDAN));
+        driverLocationIndex.update(driver(2L, 41.00, 29.15, CarType.SEDAN));
+        when(cargoRepository.findDriverIdsWithCargoIn(anyCollection(), anyCollection())).thenReturn(List.of());
+        stubBatch(1);
+
+        // Act
+        MatchingRunDTO run = engine.runOnce();
+
+        // Assert
+        assertEquals(1, run.getGroups());
+        assertEquals(2, run.getAssigned());
+        List<CargoMatchingEngine.Assignment> assignments = capturedAssignments();
+        assertTrue(assignments.stream().anyMatch(a -> a.getCargoId() == 10L && a.getDriverId() == 1L));
+        assertTrue(assignments.stream().anyMatch(a -> a.getCargoId() == 20L && a.getDriverId() == 2L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubBatch(int rowsPerAssignment) {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    int[] counts = new int[invocation.<Collection<?>>getArgument(1).size()];
+                    Arrays.fill(counts, rowsPerAssignment);
+                    return new int[][]{counts};
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CargoMatchingEngine.Assignment> capturedAssignments() {
+        ArgumentCaptor<Collection<CargoMatchingEngine.Assignment>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        return new ArrayList<>(captor.getValue());
+    }
+
+    private static Cargo cargo(Long id, double latitude, double longitude, Size size) {
+        Location pickup = new Location();
+        pickup.setLatitude(latitude);
+        pickup.setLongitude(longitude);
+        Location delivery = new Location();
+        delivery.setLatitude(latitude + 0.1);
+        delivery.setLongitude(longitude + 0.1);
+        Measure measure = new Measure();
+        measure.setSize(size);
+        Distributor distributor = new Distributor();
+        distributor.setId(7L);
+
+        Cargo cargo = new Cargo();
+        cargo.setId(id);
+        cargo.setSelfLocation(pickup);
+        cargo.setTargetLocation(delivery);
+        cargo.setMeasure(measure);
+        cargo.setDistributor(distributor);
+        return cargo;
+    }
+
+    private static Driver driver(Long id, double latitude, double longitude, CarType carType) {
+        Location location = new Location();
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+
+        Driver driver = new Driver();
+        driver.setId(id);
+        driver.setDriverStatus(DriverStatus.ACTIVE);
+        driver.setCarType(carType);
+        driver.setLocation(location);
+        return driver;
+    }
+}
@@ -0,0 +1,79 @@
+package com.hilgo.rotax.service;
+
+import com.hilgo.rotax.dto.LocationDTO;
+import com.hilgo.rotax.dto.TrackingResponse;
+import com.hilgo.rotax.entity.Cargo;
+import com.hilgo.rotax.entity.Driver;
+import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.exception.ResourceNotFoundException;
+import com.hilgo.rotax.repository.CargoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CargoTrackingHubTest {
+
+    @Mock
+    private CargoRepository cargoRepository;
+
+    @Mock
+    private PublicService publicService;
+
+    @InjectMocks
+    private CargoTrackingHub cargoTrackingHub;
+
+    @AfterEach
+    void tearDown() {
+        cargoTrackingHub.shutdown();
+    }
+
+    @Test
+    void subscribe_ShouldLoadCargoOnce_ForManyWatchers() {
+        // Arrange
+        Driver driver = new Driver();
+        driver.setId(7L);
+        Cargo cargo = new Cargo();
+        cargo.setVerificationCode("ABC123");
+        cargo.setCargoSituation(CargoSituation.PICKED_UP);
+        cargo.setDriver(driver);
+
+        when(cargoRepository.findByVerificationCode("ABC123")).thenReturn(Optional.of(cargo));
+        when(publicService.buildTrackingResponse(cargo)).thenReturn(TrackingResponse.builder()
+                .trackingCode("ABC123")
+                .status(CargoSituation.PICKED_UP)
+                .destinationLocation(LocationDTO.builder().latitude(41.1).longitude(29.1).build())
+                .build());
+
+        // Act
+        SseEmitter first = cargoTrackingHub.subscribe("ABC123");
+        SseEmitter second = cargoTrackingHub.subscribe("ABC123");
+        cargoTrackingHub.driverMoved(7L, 41.0, 29.0);
+
+        // Assert
+        assertNotNull(first);
+        assertNotSame(first, second);
+        assertEquals(2, cargoTrackingHub.watcherCount("ABC123"));
+        verify(cargoRepository, times(1)).findByVerificationCode("ABC123");
+        verify(publicService, times(1)).buildTrackingResponse(cargo);
+    }
+
+    @Test
+    void subscribe_ShouldThrowException_WhenTrackingCodeIsUnknown() {
+        // Arrange
+        when(cargoRepository.findByVerificationCode("NOPE")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> cargoTrackingHub.subscribe("NOPE"));
+        assertEquals(0, cargoTrackingHub.watcherCount("NOPE"));
+    }
+}
@@ -0,0 +1,127 @@
+package com.hilgo.rotax.service;
+
+import com.hilgo.rotax.BaseTest;
+import com.hilgo.rotax.dto.AuthenticatedUser;
+import com.hilgo.rotax.dto.CachedUser;
+import com.hilgo.rotax.entity.Distributor;
+import com.hilgo.rotax.entity.Driver;
+import com.hilgo.rotax.enums.Roles;
+import com.hilgo.rotax.exception.ResourceNotFoundException;
+import com.hilgo.rotax.repository.DistributorRepository;
+import com.hilgo.rotax.repository.DriverRepository;
+import com.hilgo.rotax.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CurrentUserResolverTest extends BaseTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private DriverRepository driverRepository;
+
+    @Mock
+    private DistributorRepository distributorRepository;
+
+    private CurrentUserResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new CurrentUserResolver(userRepository, driverRepository, distributorRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getDriverReference_ShouldUseIdFromTokenPrincipalWithoutQuery() {
+        // Arrange
+        authenticate(new AuthenticatedUser(7L, "driver1", Roles.DRIVER, "DRIVER", 0));
+        Driver reference = new Driver();
+        when(driverRepository.getReferenceById(7L)).thenReturn(reference);
+
+        // Act
+        Driver driver = resolver.getDriverReference();
+
+        // Assert
+        assertSame(reference, driver);
+        verify(driverRepository, never()).findByUsername(any());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUserId_ShouldUseIdOfLoadedPrincipal() {
+        // Arrange
+        Distributor distributor = new Distributor();
+        distributor.setId(3L);
+        distributor.setUsername("distributor1");
+        authenticate(distributor);
+
+        // Act & Assert
+        assertEquals(3L, resolver.getUserId());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUserId_ShouldUseIdOfCachedPrincipal() {
+        // Arrange: eski token'la gelen istekte principal önbellekteki özet
+        authenticate(new CachedUser(5L, "driver1", "hash", true, Roles.DRIVER));
+
+        // Act & Assert
+        assertEquals(5L, resolver.getUserId());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUserId_ShouldQueryIdOnlyOncePerRequest_WhenPrincipalHasNoId() {
+        // Arrange
+        authenticate("distributor1");
+        when(userRepository.findIdByUsername("distributor1")).thenReturn(Optional.of(3L));
+
+        // Act
+        resolver.getUserId();
+        resolver.getDistributorReference();
+
+        // Assert
+        verify(userRepository, times(1)).findIdByUsername("distributor1");
+        verify(distributorRepository).getReferenceById(3L);
+    }
+
+    @Test
+    void getUserId_ShouldThrow_WhenUserDoesNotExist() {
+        // Arrange
+        authenticate("ghost");
+        when(userRepository.findIdByUsername("ghost")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> resolver.getUserId());
+    }
+
+    @Test
+    void getDriver_ShouldThrow_WhenUserIsNotDriver() {
+        // Arrange
+        authenticate(new AuthenticatedUser(3L, "distributor1", Roles.DISTRIBUTOR, "DISTRIBUTOR", 0));
+        when(driverRepository.findById(3L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> resolver.getDriver());
+    }
+
+    private void authenticate(Object principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
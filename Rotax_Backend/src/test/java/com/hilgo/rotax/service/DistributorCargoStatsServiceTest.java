@@ -0,0 +1,94 @@
+package com.hilgo.rotax.service;
+
+import com.hilgo.rotax.entity.Cargo;
+import com.hilgo.rotax.entity.Distributor;
+import com.hilgo.rotax.entity.DistributorCargoStats;
+import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.enums.Roles;
+import com.hilgo.rotax.repository.CargoRepository;
+import com.hilgo.rotax.repository.DistributorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(DistributorCargoStatsService.class)
+class DistributorCargoStatsServiceTest {
+
+    @Autowired
+    private DistributorCargoStatsService statsService;
+
+    @Autowired
+    private DistributorRepository distributorRepository;
+
+    @Autowired
+    private CargoRepository cargoRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Distributor distributor;
+
+    @BeforeEach
+    void setUp() {
+        distributor = new Distributor();
+        distributor.setUsername("stats");
+        distributor.setEmail("stats@rotax.test");
+        distributor.setPassword("password");
+        distributor.setFirstName("Test");
+        distributor.setLastName("Distributor");
+        distributor.setPhoneNumber("5550000");
+        distributor.setRole(Roles.DISTRIBUTOR);
+        distributor = distributorRepository.save(distributor);
+    }
+
+    @Test
+    void cargoCreatedAndMoved_ShouldApplyDeltas() {
+        // Act
+        statsService.cargoCreated(distributor.getId());
+        statsService.cargoCreated(distributor.getId());
+        statsService.cargoMoved(distributor.getId(), CargoSituation.CREATED, CargoSituation.ASSIGNED);
+        statsService.cargoMoved(distributor.getId(), CargoSituation.ASSIGNED, CargoSituation.PICKED_UP);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Assert
+        DistributorCargoStats stats = statsService.get(distributor.getId());
+        assertEquals(2, stats.getTotalCargos());
+        assertEquals(1, stats.getCreatedCargos());
+        assertEquals(0, stats.getAssignedCargos());
+        assertEquals(1, stats.getPickedUpCargos());
+    }
+
+    @Test
+    void reconcile_ShouldRecomputeCountersFromCargoTable() {
+        // Arrange
+        cargo(CargoSituation.CREATED);
+        cargo(CargoSituation.DELIVERED);
+        cargo(CargoSituation.DELIVERED);
+        statsService.cargoCreated(distributor.getId()); // kaymış sayaç
+        entityManager.flush();
+
+        // Act
+        statsService.reconcile();
+        entityManager.clear();
+
+        // Assert
+        DistributorCargoStats stats = statsService.get(distributor.getId());
+        assertEquals(3, stats.getTotalCargos());
+        assertEquals(1, stats.getCreatedCargos());
+        assertEquals(2, stats.getDeliveredCargos());
+    }
+
+    private void cargo(CargoSituation situation) {
+        cargoRepository.save(Cargo.builder()
+                .cargoSituation(situation)
+                .distributor(distributor)
+                .build());
+    }
+}
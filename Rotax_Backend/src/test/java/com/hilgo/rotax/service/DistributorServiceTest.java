@@ -1,6 +1,7 @@
 package com.hilgo.rotax.service;
 
 import com.hilgo.rotax.dto.AddressDTO;
+import com.hilgo.rotax.dto.CargoDTO;
 import com.hilgo.rotax.dto.CreateCargoRequest;
 import com.hilgo.rotax.dto.LocationDTO;
 import com.hilgo.rotax.dto.MeasureDTO;
@@ -8,26 +9,25 @@ import com.hilgo.rotax.dto.ProfileUpdateRequestDTO;
 import com.hilgo.rotax.entity.Cargo;
 import com.hilgo.rotax.entity.Distributor;
 import com.hilgo.rotax.enums.CargoSituation;
+import com.hilgo.rotax.exception.CargoStateChangedException;
 import com.hilgo.rotax.exception.OperationNotAllowedException;
 import com.hilgo.rotax.exception.UserNotActiveException;
 import com.hilgo.rotax.repository.CargoRepository;
 import com.hilgo.rotax.repository.DistributorRepository;
-import com.hilgo.rotax.repository.LocationRepository;
-import com.hilgo.rotax.repository.MeasureRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,9 +38,16 @@ class DistributorServiceTest {
     @Mock
     private CargoRepository cargoRepository;
     @Mock
-    private LocationRepository locationRepository;
+    private CargoOfferIndex cargoOfferIndex;
+
+    @Mock
+    private CargoTrackingHub cargoTrackingHub;
+    @Mock
+    private DistributorCargoStatsService distributorCargoStatsService;
+    @Mock
+    private PrincipalCache principalCache;
     @Mock
-    private MeasureRepository measureRepository;
+    private CurrentUserResolver currentUserResolver;
     @Mock
 
     @InjectMocks
@@ -57,12 +64,10 @@ class DistributorServiceTest {
         testDistributor.setLastName("Distributor");
         testDistributor.setEnabled(true); // Başarılı senaryolar için aktif
 
-        // Mock SecurityContext to simulate a logged-in user
-        SecurityContext securityContext = mock(SecurityContext.class);
-        when(securityContext.getAuthentication()).thenReturn(new UsernamePasswordAuthenticationToken(testDistributor.getUsername(), "password"));
-        SecurityContextHolder.setContext(securityContext);
-
-        when(distributorRepository.findByUsername(testDistributor.getUsername())).thenReturn(Optional.of(testDistributor));
+        // İstekteki kullanıcı çözümleyiciden gelir; her testte kullanılmadıkları için lenient
+        lenient().when(currentUserResolver.getUserId()).thenReturn(testDistributor.getId());
+        lenient().when(currentUserResolver.getDistributorReference()).thenReturn(testDistributor);
+        lenient().when(currentUserResolver.getDistributor()).thenReturn(testDistributor);
     }
 
     @Test
@@ -79,8 +84,6 @@ class DistributorServiceTest {
         distributorService.createCargo(request);
 
         // Assert
-        verify(locationRepository, times(2)).save(any());
-        verify(measureRepository, times(1)).save(any());
         verify(cargoRepository, times(1)).save(any(Cargo.class));
     }
 
@@ -97,6 +100,21 @@ class DistributorServiceTest {
         verify(cargoRepository, never()).save(any());
     }
 
+    @Test
+    void generateVerificationCode_ShouldNotCollide_AtEightHexCharacterCollisionScale() {
+        // Arrange
+        Set<String> codes = new HashSet<>();
+
+        // Act: 8 hex karakterlik eski kodda bu sayıda kargoda çakışma neredeyse kesindi
+        for (int i = 0; i < 200_000; i++) {
+            codes.add(DistributorService.generateVerificationCode());
+        }
+
+        // Assert
+        assertEquals(200_000, codes.size());
+        assertTrue(codes.stream().allMatch(code -> code.matches("[0-9A-HJKMNP-TV-Z]{" + DistributorService.VERIFICATION_CODE_LENGTH + "}")));
+    }
+
     @Test
     void updateProfile_ShouldUpdateAddress_WhenAddressIsProvided() {
         // Arrange
@@ -122,15 +140,39 @@ class DistributorServiceTest {
         cargo.setDistributor(testDistributor);
         cargo.setCargoSituation(CargoSituation.CREATED);
 
-        when(cargoRepository.findById(10L)).thenReturn(Optional.of(cargo));
-        when(cargoRepository.save(any(Cargo.class))).thenReturn(cargo);
+        Cargo cancelled = new Cargo();
+        cancelled.setId(10L);
+        cancelled.setDistributor(testDistributor);
+        cancelled.setCargoSituation(CargoSituation.CANCELLED); // koşullu UPDATE sonrası okunan hali
+
+        when(cargoRepository.findById(10L)).thenReturn(Optional.of(cargo), Optional.of(cancelled));
+        when(cargoRepository.transition(eq(10L), eq(CargoSituation.CREATED), eq(CargoSituation.CANCELLED), any()))
+                .thenReturn(1);
 
         // Act
-        distributorService.cancelCargo(10L);
+        CargoDTO result = distributorService.cancelCargo(10L);
 
         // Assert
-        verify(cargoRepository, times(1)).save(cargo);
-        assertEquals(CargoSituation.CANCELLED, cargo.getCargoSituation());
+        verify(cargoRepository, never()).save(any(Cargo.class));
+        assertEquals(CargoSituation.CANCELLED, result.getCargoSituation());
+        verify(distributorCargoStatsService, times(1)).cargoMoved(testDistributor.getId(), CargoSituation.CREATED, CargoSituation.CANCELLED);
+    }
+
+    @Test
+    void cancelCargo_ShouldRejectWithConflict_WhenCargoWasClaimedMeanwhile() {
+        // Arrange: iptal CREATED okudu, bu arada bir sürücü kargoyu aldı
+        Cargo cargo = new Cargo();
+        cargo.setId(10L);
+        cargo.setDistributor(testDistributor);
+        cargo.setCargoSituation(CargoSituation.CREATED);
+
+        when(cargoRepository.findById(10L)).thenReturn(Optional.of(cargo));
+        when(cargoRepository.transition(eq(10L), eq(CargoSituation.CREATED), eq(CargoSituation.CANCELLED), any()))
+                .thenReturn(0);
+
+        // Act & Assert
+        assertThrows(CargoStateChangedException.class, () -> distributorService.cancelCargo(10L));
+        verifyNoInteractions(distributorCargoStatsService);
     }
 
     @Test
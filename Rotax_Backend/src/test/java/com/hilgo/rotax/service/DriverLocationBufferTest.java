@@ -0,0 +1,149 @@
+package com.hilgo.rotax.service;
+
+import com.hilgo.rotax.repository.DriverLocationHistoryRepository.HistoryPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DriverLocationBufferTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DriverLocationIndex driverLocationIndex;
+
+    @Mock
+    private DriverLocationHistoryService driverLocationHistoryService;
+
+    @InjectMocks
+    private DriverLocationBuffer driverLocationBuffer;
+
+    @Test
+    void offer_ShouldKeepNewestLocation_WhenPingsArriveOutOfOrder() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+
+        // Act
+        driverLocationBuffer.offer(1L, 41.0, 29.0, now);
+        driverLocationBuffer.offer(1L, 40.0, 28.0, now.minusSeconds(10)); // gecikmiş eski bildirim
+
+        // Assert
+        DriverLocationBuffer.BufferedLocation latest = driverLocationBuffer.latest(1L).orElseThrow();
+        assertEquals(41.0, latest.getLatitude());
+        verify(driverLocationIndex, times(1)).move(1L, 41.0, 29.0);
+        verify(driverLocationIndex, never()).move(1L, 40.0, 28.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldWriteOneRowPerDriverInSingleBatch() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        driverLocationBuffer.offer(1L, 41.0, 29.0, now.minusSeconds(5));
+        driverLocationBuffer.offer(1L, 41.1, 29.1, now);
+        driverLocationBuffer.offer(2L, 39.9, 32.8, now);
+
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1, 1}});
+
+        // Act
+        driverLocationBuffer.flush();
+        driverLocationBuffer.flush(); // tampon boşaldığı için ikinci flush veritabanına gitmemeli
+
+        // Assert
+        ArgumentCaptor<Collection<DriverLocationBuffer.BufferedLocation>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(2, batch.getValue().size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldNotOverwriteNewerLocation_WrittenDirectly() throws Exception {
+        // Arrange
+        LocalDateTime recordedAt = LocalDateTime.now().minusSeconds(5);
+        driverLocationBuffer.offer(1L, 41.0, 29.0, recordedAt);
+
+        // Act
+        driverLocationBuffer.flush();
+
+        // Assert
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<DriverLocationBuffer.BufferedLocation>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), any(Collection.class), anyInt(), setter.capture());
+        assertTrue(sql.getValue().contains("location_updated_at IS NULL OR location_updated_at <= ?"));
+
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, new DriverLocationBuffer.BufferedLocation(1L, 41.0, 29.0, recordedAt));
+        verify(ps).setTimestamp(3, Timestamp.valueOf(recordedAt));
+        verify(ps).setLong(4, 1L);
+        verify(ps).setTimestamp(5, Timestamp.valueOf(recordedAt));
+    }
+
+    @Test
+    void discard_ShouldForgetBufferedLocation() {
+        // Arrange
+        driverLocationBuffer.offer(1L, 41.0, 29.0, LocalDateTime.now());
+
+        // Act
+        driverLocationBuffer.discard(1L);
+        driverLocationBuffer.flush();
+
+        // Assert
+        assertTrue(driverLocationBuffer.latest(1L).isEmpty());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldAppendEveryPingToHistory_IncludingLateOnes() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        driverLocationBuffer.offer(1L, 41.0, 29.0, now);
+        driverLocationBuffer.offer(1L, 40.0, 28.0, now.minusSeconds(10)); // gecikmiş eski bildirim
+        driverLocationBuffer.offer(2L, 39.9, 32.8, now);
+
+        // Act
+        driverLocationBuffer.flush();
+        driverLocationBuffer.flush();
+
+        // Assert
+        ArgumentCaptor<List<HistoryPoint>> history = ArgumentCaptor.forClass(List.class);
+        verify(driverLocationHistoryService, times(1)).append(history.capture());
+        assertEquals(3, history.getValue().size());
+    }
+
+    @Test
+    void offerLatest_ShouldUpdateLatestLocationWithoutQueueingHistory() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+
+        // Act
+        boolean latest = driverLocationBuffer.offerLatest(1L, 41.0, 29.0, now);
+        driverLocationBuffer.flush();
+
+        // Assert
+        assertTrue(latest);
+        assertEquals(41.0, driverLocationBuffer.latest(1L).orElseThrow().getLatitude());
+        verifyNoInteractions(driverLocationHistoryService);
+    }
+}
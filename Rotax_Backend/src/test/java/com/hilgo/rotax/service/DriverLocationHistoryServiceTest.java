@@ -0,0 +1,101 @@
+package com.hilgo.rotax.service;
+
+import com.hilgo.rotax.repository.DriverLocationHistoryRepository;
+import com.hilgo.rotax.repository.DriverLocationHistoryRepository.HistoryPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DriverLocationHistoryServiceTest {
+
+    @Mock
+    private DriverLocationHistoryRepository historyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DriverLocationHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        historyService = new DriverLocationHistoryService(historyRepository, transactionManager, 6, 2);
+    }
+
+    @Test
+    void append_ShouldSkipPointsOlderThanRetention() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        HistoryPoint recent = new HistoryPoint(1L, 41.0, 29.0, now);
+        HistoryPoint expired = new HistoryPoint(1L, 41.0, 29.0, now.minusMonths(7));
+        when(historyRepository.insertAll(List.of(recent))).thenReturn(1);
+
+        // Act
+        int stored = historyService.append(List.of(expired, recent));
+
+        // Assert
+        assertEquals(1, stored);
+        verify(historyRepository, times(1)).insertAll(List.of(recent));
+    }
+
+    @Test
+    void append_ShouldWriteAllChunksInOneTransaction() {
+        // Arrange
+        HistoryPoint point = new HistoryPoint(1L, 41.0, 29.0, LocalDateTime.now());
+        when(historyRepository.insertAll(List.of(point))).thenReturn(1);
+
+        // Act
+        historyService.append(List.of(point));
+
+        // Assert
+        InOrder inOrder = inOrder(transactionManager, historyRepository);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(historyRepository).insertAll(List.of(point));
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void maintainPartitions_ShouldCreateUpcomingAndDropExpiredPartitions() {
+        // Arrange
+        YearMonth current = YearMonth.now();
+        when(historyRepository.isPartitioned()).thenReturn(true);
+        when(historyRepository.findPartitionMonths()).thenReturn(List.of(
+                current.minusMonths(7), current.minusMonths(6), current.minusMonths(5), current));
+
+        // Act
+        historyService.maintainPartitions();
+
+        // Assert
+        verify(historyRepository).createMonthlyPartition(current.minusMonths(5));
+        verify(historyRepository).createMonthlyPartition(current.plusMonths(2));
+        verify(historyRepository, times(8)).createMonthlyPartition(any(YearMonth.class));
+        verify(historyRepository).dropPartition(current.minusMonths(7));
+        verify(historyRepository).dropPartition(current.minusMonths(6));
+        verify(historyRepository, times(2)).dropPartition(any(YearMonth.class));
+    }
+
+    @Test
+    void maintainPartitions_ShouldDoNothing_WhenTableIsNotPartitioned() {
+        // Arrange
+        when(historyRepository.isPartitioned()).thenReturn(false);
+
+        // Act
+        historyService.maintainPartitions();
+
+        // Assert
+        verify(historyRepository, never()).createMonthlyPartition(any(YearMonth.class));
+        verify(historyRepository, never()).dropPartition(any(YearMonth.class));
+    }
+}
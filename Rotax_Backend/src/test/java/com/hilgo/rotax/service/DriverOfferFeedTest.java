@@ -0,0 +1,136 @@
+package com.hilgo.rotax.service;
+
+import com.hilgo.rotax.entity.Cargo;
+import com.hilgo.rotax.entity.Location;
+import com.hilgo.rotax.entity.Measure;
+import com.hilgo.rotax.enums.CarType;
+import com.hilgo.rotax.enums.Size;
+import com.hilgo.rotax.repository.CargoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class DriverOfferFeedTest {
+
+    @Mock
+    private CargoRepository cargoRepository;
+
+    private CargoOfferIndex cargoOfferIndex;
+    private DriverOfferFeed driverOfferFeed;
+
+    @BeforeEach
+    void setUp() {
+        cargoOfferIndex = new CargoOfferIndex(cargoRepository);
+        cargoOfferIndex.rebuild();
+        driverOfferFeed = new DriverOfferFeed(cargoOfferIndex);
+        driverOfferFeed.register();
+    }
+
+    @AfterEach
+    void tearDown() {
+        driverOfferFeed.shutdown();
+    }
+
+    @Test
+    void offerAdded_ShouldReachOnlyDriversWithinRadius() {
+        // Arrange
+        driverOfferFeed.subscribe(1L, 41.00, 29.00, CarType.SEDAN, List.of());
+        driverOfferFeed.subscribe(2L, 39.90, 32.80, CarType.SEDAN, List.of()); // Ankara, çok uzak
+
+        // Act
+        cargoOfferIndex.add(cargo(10L, 41.01, 29.01));
+
+        // Assert
+        assertEquals(Set.of(10L), driverOfferFeed.visibleOffers(1L));
+        assertTrue(driverOfferFeed.visibleOffers(2L).isEmpty());
+    }
+
+    @Test
+    void offerAdded_ShouldSkipDriversWhoseVehicleCannotCarryTheCargo() {
+        // Arrange
+        driverOfferFeed.subscribe(1L, 41.00, 29.00, CarType.MOTORCYCLE, List.of());
+        driverOfferFeed.subscribe(2L, 41.00, 29.00, CarType.PICKUP, List.of());
+        Cargo cargo = cargo(10L, 41.01, 29.01);
+        Measure measure = new Measure();
+        measure.setWeight(200.0);
+        measure.setSize(Size.LARGE);
+        cargo.setMeasure(measure);
+
+        // Act
+        cargoOfferIndex.add(cargo);
+
+        // Assert
+        assertTrue(driverOfferFeed.visibleOffers(1L).isEmpty());
+        assertEquals(Set.of(10L), driverOfferFeed.visibleOffers(2L));
+    }
+
+    @Test
+    void offerWithdrawn_ShouldRemoveOfferFromSubscribedDrivers() {
+        // Arrange
+        driverOfferFeed.subscribe(1L, 41.00, 29.00, CarType.SEDAN, List.of());
+        cargoOfferIndex.add(cargo(10L, 41.01, 29.01));
+
+        // Act
+        cargoOfferIndex.remove(10L);
+
+        // Assert
+        assertTrue(driverOfferFeed.visibleOffers(1L).isEmpty());
+    }
+
+    @Test
+    void driverMoved_ShouldAddAndWithdrawOffersCrossingTheRadius() {
+        // Arrange
+        cargoOfferIndex.add(cargo(10L, 41.01, 29.01));
+        cargoOfferIndex.add(cargo(20L, 41.50, 29.50));
+        driverOfferFeed.subscribe(1L, 41.00, 29.00, CarType.SEDAN, List.of());
+
+        // Act
+        driverOfferFeed.driverMoved(1L, 41.49, 29.49);
+
+        // Assert
+        assertEquals(Set.of(20L), driverOfferFeed.visibleOffers(1L));
+    }
+
+    @Test
+    void driverProfileChanged_ShouldRefilterOffersForNewVehicle() {
+        // Arrange
+        Cargo cargo = cargo(10L, 41.01, 29.01);
+        Measure measure = new Measure();
+        measure.setWeight(200.0);
+        measure.setSize(Size.LARGE);
+        cargo.setMeasure(measure);
+        cargoOfferIndex.add(cargo);
+        driverOfferFeed.subscribe(1L, 41.00, 29.00, CarType.MOTORCYCLE, List.of());
+
+        // Act & Assert
+        driverOfferFeed.driverProfileChanged(1L, CarType.PICKUP);
+        assertEquals(Set.of(10L), driverOfferFeed.visibleOffers(1L));
+
+        driverOfferFeed.driverProfileChanged(1L, CarType.MOTORCYCLE);
+        assertTrue(driverOfferFeed.visibleOffers(1L).isEmpty());
+    }
+
+    private static Cargo cargo(Long id, double latitude, double longitude) {
+        Location pickup = new Location();
+        pickup.setLatitude(latitude);
+        pickup.setLongitude(longitude);
+        Location delivery = new Location();
+        delivery.setLatitude(latitude + 0.1);
+        delivery.setLongitude(longitude + 0.1);
+
+        Cargo cargo = new Cargo();
+        cargo.setId(id);
+        cargo.setSelfLocation(pickup);
+        cargo.setTargetLocation(delivery);
+        return cargo;
+    }
+}
@@ -1,35 +1,51 @@
 package com.hilgo.rotax.service;
 
+import com.hilgo.rotax.dto.CargoDTO;
+import com.hilgo.rotax.dto.CargoOfferDTO;
+import com.hilgo.rotax.dto.CargoView;
+import com.hilgo.rotax.dto.DriverDashboardResponse;
 import com.hilgo.rotax.dto.DriverStatusUpdateRequest;
+import com.hilgo.rotax.dto.LocationBatchRequest;
 import com.hilgo.rotax.dto.LocationDTO;
+import com.hilgo.rotax.dto.LocationPointDTO;
 import com.hilgo.rotax.dto.ProfileUpdateRequestDTO;
 import com.hilgo.rotax.dto.UserDTO;
 import com.hilgo.rotax.entity.Cargo;
+import com.hilgo.rotax.entity.Distributor;
 import com.hilgo.rotax.entity.Driver;
 import com.hilgo.rotax.entity.Location;
 import com.hilgo.rotax.enums.CarType;
 import com.hilgo.rotax.enums.CargoSituation;
 import com.hilgo.rotax.enums.DriverStatus;
+import com.hilgo.rotax.exception.CargoAlreadyClaimedException;
+import com.hilgo.rotax.exception.CargoStateChangedException;
 import com.hilgo.rotax.exception.OperationNotAllowedException;
 import com.hilgo.rotax.repository.CargoRepository;
+import com.hilgo.rotax.repository.DriverLocationHistoryRepository.HistoryPoint;
 import com.hilgo.rotax.repository.DriverRepository;
-import com.hilgo.rotax.repository.LocationRepository;
+import com.hilgo.rotax.repository.ReviewRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.context.SecurityContext;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,10 +55,10 @@ class DriverServiceTest {
     private DriverRepository driverRepository;
 
     @Mock
-    private LocationRepository locationRepository;
+    private CargoRepository cargoRepository;
 
     @Mock
-    private CargoRepository cargoRepository;
+    private ReviewRepository reviewRepository;
 
     @Mock
     private AuthenticationService authenticationService;
@@ -50,6 +66,33 @@ class DriverServiceTest {
     @Mock
     private FileStorageService fileStorageService;
 
+    @Mock
+    private DriverLocationIndex driverLocationIndex;
+
+    @Mock
+    private CargoOfferIndex cargoOfferIndex;
+
+    @Mock
+    private CargoTrackingHub cargoTrackingHub;
+
+    @Mock
+    private DriverOfferFeed driverOfferFeed;
+
+    @Mock
+    private DistributorCargoStatsService distributorCargoStatsService;
+
+    @Mock
+    private DriverLocationBuffer driverLocationBuffer;
+
+    @Mock
+    private DriverLocationHistoryService driverLocationHistoryService;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private CurrentUserResolver currentUserResolver;
+
     @InjectMocks
     private DriverService driverService;
 
@@ -63,12 +106,10 @@ class DriverServiceTest {
         testDriver.setFirstName("Test");
         testDriver.setLastName("Driver");
 
-        // Mock SecurityContext to simulate a logged-in user
-        SecurityContext securityContext = mock(SecurityContext.class);
-        when(securityContext.getAuthentication()).thenReturn(new UsernamePasswordAuthenticationToken(testDriver.getUsername(), "password"));
-        SecurityContextHolder.setContext(securityContext);
-
-        when(driverRepository.findByUsername(testDriver.getUsername())).thenReturn(Optional.of(testDriver));
+        // İstekteki kullanıcı çözümleyiciden gelir; her testte kullanılmadıkları için lenient
+        lenient().when(currentUserResolver.getUserId()).thenReturn(testDriver.getId());
+        lenient().when(currentUserResolver.getDriverReference()).thenReturn(testDriver);
+        lenient().when(currentUserResolver.getDriver()).thenReturn(testDriver);
     }
 
     @Test
@@ -86,11 +127,40 @@ class DriverServiceTest {
         driverService.updateDriverStatus(request);
 
         // Assert
-        verify(locationRepository, times(1)).save(any(Location.class));
         verify(driverRepository, times(1)).save(testDriver);
         assertEquals(DriverStatus.ACTIVE, testDriver.getDriverStatus());
         assertNotNull(testDriver.getLocation());
         assertEquals(41.0, testDriver.getLocation().getLatitude());
+        assertNotNull(testDriver.getLocationUpdatedAt());
+        verify(driverLocationIndex, times(1)).update(testDriver);
+    }
+
+    @Test
+    void updateDriverStatus_ShouldUpdateIndexAndFeedsOnlyAfterCommit() {
+        // Arrange
+        LocationDTO locationDTO = new LocationDTO();
+        locationDTO.setLatitude(41.0);
+        locationDTO.setLongitude(29.0);
+
+        DriverStatusUpdateRequest request = new DriverStatusUpdateRequest();
+        request.setStatus(DriverStatus.ACTIVE);
+        request.setLocation(locationDTO);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            driverService.updateDriverStatus(request);
+
+            // Assert: commit öncesinde bellek içi yapılara dokunulmaz
+            verifyNoInteractions(driverLocationIndex, cargoTrackingHub, driverOfferFeed);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(driverLocationIndex).update(testDriver);
+            verify(cargoTrackingHub).driverMoved(1L, 41.0, 29.0);
+            verify(driverOfferFeed).driverMoved(1L, 41.0, 29.0);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 
     @Test
@@ -107,8 +177,10 @@ class DriverServiceTest {
 
         // Assert
         verify(driverRepository, times(1)).save(testDriver);
+        verify(principalCache, times(1)).invalidate(testDriver.getUsername());
         assertEquals("UpdatedName", testDriver.getFirstName());
         assertEquals(CarType.HATCHBACK, testDriver.getCarType());
+        verify(driverOfferFeed).driverProfileChanged(1L, CarType.HATCHBACK);
     }
 
     @Test
@@ -129,22 +201,109 @@ class DriverServiceTest {
         assertEquals(fileUrl, testDriver.getProfilePictureUrl());
     }
 
+    @Test
+    void getDriverDashboard_ShouldBuildFromAggregateAndBoundedQueries() {
+        // Arrange
+        CargoView active = cargoView(10L, CargoSituation.PICKED_UP);
+        CargoView delivered = cargoView(11L, CargoSituation.DELIVERED);
+
+        when(cargoRepository.countByDriverGroupedBySituation(1L)).thenReturn(List.of(
+                situationCount(CargoSituation.DELIVERED, 10_000),
+                situationCount(CargoSituation.ASSIGNED, 1),
+                situationCount(CargoSituation.PICKED_UP, 1)));
+        when(cargoRepository.findViewsByDriverAndSituationIn(eq(1L), any(), argThat(pageable -> pageable.isUnpaged())))
+                .thenReturn(List.of(active));
+        when(cargoRepository.findViewsByDriverAndSituationIn(eq(1L), eq(List.of(CargoSituation.DELIVERED)),
+                argThat(pageable -> pageable.isPaged() && pageable.getPageSize() == 5)))
+                .thenReturn(List.of(delivered));
+        when(reviewRepository.getAverageRatingForDriver(1L)).thenReturn(4.5);
+
+        // Act
+        DriverDashboardResponse dashboard = driverService.getDriverDashboard();
+
+        // Assert
+        assertEquals(10_000, dashboard.getTotalDeliveries());
+        assertEquals(2, dashboard.getActiveDeliveries());
+        assertEquals(4.5, dashboard.getAverageRating());
+        assertEquals(List.of(10L), dashboard.getCurrentCargos().stream().map(CargoDTO::getId).toList());
+        assertEquals(List.of(11L), dashboard.getRecentCargos().stream().map(CargoDTO::getId).toList());
+        verify(cargoRepository, never()).findByDriver(any());
+    }
+
+    @Test
+    void getAvailableOffers_ShouldBuildOffersFromIndex_WhenIndexIsReady() {
+        // Arrange
+        Location driverLocation = new Location();
+        driverLocation.setLatitude(40.99);
+        driverLocation.setLongitude(29.03);
+        testDriver.setLocation(driverLocation);
+        testDriver.setDriverStatus(DriverStatus.ACTIVE);
+
+        CargoOfferIndex.OpenCargo openCargo = CargoOfferIndex.OpenCargo.builder()
+                .cargoId(10L)
+                .pickupLocation(LocationDTO.builder().latitude(41.0).longitude(29.04).build())
+                .deliveryLocation(LocationDTO.builder().latitude(41.05).longitude(29.1).build())
+                .totalDistance(8.0)
+                .distributorName("Test Distributor")
+                .build();
+
+        when(cargoOfferIndex.isReady()).thenReturn(true);
+        when(cargoOfferIndex.findWithin(40.99, 29.03, 10.0, null))
+                .thenReturn(List.of(new GeoGridIndex.Hit<>(10L, 41.0, 29.04, openCargo, 1.4)));
+
+        // Act
+        List<CargoOfferDTO> offers = driverService.getAvailableOffers();
+
+        // Assert
+        assertEquals(1, offers.size());
+        assertEquals(10L, offers.get(0).getCargoId());
+        assertEquals(1.4, offers.get(0).getDistanceToPickup());
+        assertEquals(40.0, offers.get(0).getEstimatedEarning());
+        verify(cargoRepository, never()).findNearbyCargos(any(), any(), any(), any(), anyInt());
+    }
+
     @Test
     void acceptOffer_ShouldAssignCargoToDriver() {
         // Arrange
+        Distributor distributor = new Distributor();
+        distributor.setId(2L);
         Cargo cargo = new Cargo();
         cargo.setId(10L);
-        cargo.setCargoSituation(CargoSituation.CREATED);
+        cargo.setCargoSituation(CargoSituation.ASSIGNED); // koşullu UPDATE sonrası okunan hali
+        cargo.setDriver(testDriver);
+        cargo.setDistributor(distributor);
 
+        when(cargoRepository.claim(eq(10L), eq(testDriver), eq(CargoSituation.CREATED), eq(CargoSituation.ASSIGNED), any()))
+                .thenReturn(1);
         when(cargoRepository.findById(10L)).thenReturn(Optional.of(cargo));
 
         // Act
-        driverService.acceptOffer(10L);
+        CargoDTO result = driverService.acceptOffer(10L);
 
         // Assert
-        verify(cargoRepository, times(1)).save(cargo);
-        assertEquals(CargoSituation.ASSIGNED, cargo.getCargoSituation());
-        assertEquals(testDriver, cargo.getDriver());
+        verify(cargoRepository, never()).save(any(Cargo.class));
+        assertEquals(CargoSituation.ASSIGNED, result.getCargoSituation());
+        assertEquals(testDriver.getId(), result.getDriverId());
+        verify(cargoOfferIndex, times(1)).remove(10L);
+        verify(distributorCargoStatsService, times(1)).cargoMoved(2L, CargoSituation.CREATED, CargoSituation.ASSIGNED);
+    }
+
+    @Test
+    void acceptOffer_ShouldRejectWithConflict_WhenAnotherDriverClaimedFirst() {
+        // Arrange
+        Cargo cargo = new Cargo();
+        cargo.setId(10L);
+        cargo.setCargoSituation(CargoSituation.ASSIGNED);
+
+        when(cargoRepository.claim(eq(10L), eq(testDriver), eq(CargoSituation.CREATED), eq(CargoSituation.ASSIGNED), any()))
+                .thenReturn(0);
+        when(cargoRepository.findById(10L)).thenReturn(Optional.of(cargo));
+
+        // Act & Assert
+        assertThrows(CargoAlreadyClaimedException.class, () -> driverService.acceptOffer(10L));
+        verify(cargoOfferIndex, never()).remove(anyLong());
+        verify(cargoTrackingHub, never()).cargoChanged(any());
+        verifyNoInteractions(distributorCargoStatsService);
     }
 
     @Test
@@ -165,18 +324,91 @@ class DriverServiceTest {
     @Test
     void updateCargoStatus_ShouldUpdateStatusCorrectly() {
         // Arrange
+        Distributor distributor = new Distributor();
+        distributor.setId(2L);
         Cargo cargo = new Cargo();
         cargo.setDriver(testDriver); // Cargo belongs to the current driver
+        cargo.setDistributor(distributor);
+        cargo.setCargoSituation(CargoSituation.ASSIGNED);
+        Cargo pickedUp = new Cargo();
+        pickedUp.setDriver(testDriver);
+        pickedUp.setDistributor(distributor);
+        pickedUp.setCargoSituation(CargoSituation.PICKED_UP); // koşullu UPDATE sonrası okunan hali
+        pickedUp.setTakingTime(LocalDateTime.now());
+
+        when(cargoRepository.findById(anyLong())).thenReturn(Optional.of(cargo), Optional.of(pickedUp));
+        when(cargoRepository.advance(eq(10L), eq(testDriver.getId()), eq(CargoSituation.ASSIGNED), eq(CargoSituation.PICKED_UP),
+                notNull(), isNull(), any())).thenReturn(1);
+
+        // Act
+        CargoDTO result = driverService.updateCargoStatus(10L, CargoSituation.PICKED_UP);
+
+        // Assert
+        verify(cargoRepository, never()).save(any(Cargo.class));
+        assertEquals(CargoSituation.PICKED_UP, result.getCargoSituation());
+        assertNotNull(result.getTakingTime());
+        verify(distributorCargoStatsService, times(1)).cargoMoved(2L, CargoSituation.ASSIGNED, CargoSituation.PICKED_UP);
+    }
+
+    @Test
+    void updateCargoStatus_ShouldRejectWithConflict_WhenCargoWasCancelledMeanwhile() {
+        // Arrange: sürücü ASSIGNED okudu, bu arada dağıtıcı kargoyu iptal etti
+        Cargo cargo = new Cargo();
+        cargo.setDriver(testDriver);
         cargo.setCargoSituation(CargoSituation.ASSIGNED);
 
         when(cargoRepository.findById(anyLong())).thenReturn(Optional.of(cargo));
+        when(cargoRepository.advance(anyLong(), anyLong(), any(), any(), any(), any(), any())).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(CargoStateChangedException.class, () -> driverService.updateCargoStatus(10L, CargoSituation.PICKED_UP));
+        verifyNoInteractions(distributorCargoStatsService);
+        verify(cargoTrackingHub, never()).cargoChanged(any());
+    }
+
+    @Test
+    void recordLocationBatch_ShouldStoreAllPointsAndMoveDriverToNewest() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        LocationPointDTO newest = new LocationPointDTO(41.02, 29.02, now);
+        LocationPointDTO oldest = new LocationPointDTO(41.00, 29.00, now.minusMinutes(2));
+        LocationPointDTO middle = new LocationPointDTO(41.01, 29.01, now.minusMinutes(1));
+        LocationBatchRequest request = new LocationBatchRequest(List.of(newest, oldest, middle));
+
+        when(driverLocationHistoryService.append(anyList())).thenReturn(3);
 
         // Act
-        driverService.updateCargoStatus(10L, CargoSituation.PICKED_UP);
+        int stored = driverService.recordLocationBatch(request);
 
         // Assert
-        verify(cargoRepository, times(1)).save(cargo);
-        assertEquals(CargoSituation.PICKED_UP, cargo.getCargoSituation());
-        assertNotNull(cargo.getTakingTime());
+        assertEquals(3, stored);
+        verify(driverLocationHistoryService, times(1)).append(List.of(
+                new HistoryPoint(1L, 41.00, 29.00, now.minusMinutes(2)),
+                new HistoryPoint(1L, 41.01, 29.01, now.minusMinutes(1)),
+                new HistoryPoint(1L, 41.02, 29.02, now)));
+        verify(driverLocationBuffer, times(1)).offerLatest(1L, 41.02, 29.02, now);
+        verifyNoMoreInteractions(driverLocationBuffer);
+    }
+
+    private static CargoRepository.SituationCount situationCount(CargoSituation situation, long total) {
+        return new CargoRepository.SituationCount() {
+            @Override
+            public CargoSituation getSituation() {
+                return situation;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+
+    private static CargoView cargoView(Long id, CargoSituation situation) {
+        return new CargoView(id, situation, null, null, null, null, null, null,
+                null, null, null, null, null, null,
+                null, null, null, null, null, null,
+                null, null, null, null, null,
+                2L, "Test", "Distributor", 1L, "Test", "Driver");
     }
-}
\ No newline at end of file
+}
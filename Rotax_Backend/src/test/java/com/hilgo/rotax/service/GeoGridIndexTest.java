@@ -0,0 +1,89 @@
+package com.hilgo.rotax.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoGridIndexTest {
+
+    private GeoGridIndex<String> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new GeoGridIndex<>(0.05);
+    }
+
+    @Test
+    void findWithin_ShouldReturnOnlyEntriesInsideRadius_SortedByDistance() {
+        // Arrange - Kadıköy merkezli noktalar
+        index.put(1L, 40.9900, 29.0300, "near");
+        index.put(2L, 41.0100, 29.0500, "closer-than-10km");
+        index.put(3L, 41.2000, 29.5000, "far");
+
+        // Act
+        List<GeoGridIndex.Hit<String>> hits = index.findWithin(40.9910, 29.0310, 10.0);
+
+        // Assert
+        assertEquals(2, hits.size());
+        assertEquals("near", hits.get(0).getValue());
+        assertEquals("closer-than-10km", hits.get(1).getValue());
+        assertTrue(hits.get(0).getDistanceKm() < hits.get(1).getDistanceKm());
+    }
+
+    @Test
+    void put_ShouldMoveEntryBetweenCells_WhenLocationChanges() {
+        // Arrange
+        index.put(1L, 40.9900, 29.0300, "driver");
+
+        // Act - başka bir şehre taşı
+        index.put(1L, 39.9334, 32.8597, "driver");
+
+        // Assert
+        assertTrue(index.findWithin(40.9900, 29.0300, 10.0).isEmpty());
+        assertEquals(1, index.findWithin(39.9334, 32.8597, 1.0).size());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void remove_ShouldDropEntryFromQueries() {
+        // Arrange
+        index.put(1L, 40.9900, 29.0300, "driver");
+
+        // Act
+        index.remove(1L);
+
+        // Assert
+        assertFalse(index.contains(1L));
+        assertTrue(index.findWithin(40.9900, 29.0300, 10.0).isEmpty());
+    }
+
+    @Test
+    void findWithin_ShouldApplyFilterBeforeReturningHits() {
+        // Arrange
+        index.put(1L, 40.9900, 29.0300, "keep");
+        index.put(2L, 40.9905, 29.0305, "skip");
+
+        // Act
+        List<GeoGridIndex.Hit<String>> hits = index.findWithin(40.9900, 29.0300, 5.0, "keep"::equals);
+
+        // Assert
+        assertEquals(1, hits.size());
+        assertEquals(1L, hits.get(0).getId());
+    }
+
+    @Test
+    void findWithin_ShouldWrapAroundAntimeridian() {
+        // Arrange
+        index.put(1L, 0.0, 179.99, "east");
+        index.put(2L, 0.0, -179.99, "west");
+
+        // Act
+        List<GeoGridIndex.Hit<String>> hits = index.findWithin(0.0, 179.999, 5.0);
+
+        // Assert
+        assertEquals(2, hits.size());
+    }
+}
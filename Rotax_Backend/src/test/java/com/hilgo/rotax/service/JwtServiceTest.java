@@ -0,0 +1,168 @@
+package com.hilgo.rotax.service;
+
+import com.hilgo.rotax.dto.AuthenticatedUser;
+import com.hilgo.rotax.entity.Driver;
+import com.hilgo.rotax.enums.Roles;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("rotax-test-secret-0123456789abcdef".getBytes());
+
+    private JwtService jwtService;
+    private UserDetails user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(SECRET);
+        user = User.withUsername("driver1").password("x").roles("DRIVER").build();
+    }
+
+    @Test
+    void parse_ShouldReturnSubjectAndExpirationInOnePass() {
+        // Arrange
+        String token = jwtService.generateToken(user);
+
+        // Act
+        Claims claims = jwtService.parse(token);
+
+        // Assert
+        assertEquals("driver1", claims.getSubject());
+        assertTrue(claims.getExpiration().after(new Date()));
+        assertTrue(jwtService.isTokenValid(claims, user));
+        assertEquals("driver1", jwtService.extractUsername(token));
+    }
+
+    @Test
+    void generateToken_ShouldEmbedAccountClaimsForPrincipal() {
+        // Arrange
+        Driver driver = new Driver();
+        driver.setId(7L);
+        driver.setUsername("driver1");
+        driver.setRole(Roles.DRIVER);
+        driver.setEnabled(false);
+        driver.setTokenVersion(3);
+
+        // Act
+        Claims claims = jwtService.parse(jwtService.generateToken(driver));
+        AuthenticatedUser principal = jwtService.toPrincipal(claims);
+
+        // Assert
+        assertEquals(new AuthenticatedUser(7L, "driver1", Roles.DRIVER, "DRIVER", 3L), principal);
+        assertTrue(jwtService.isIssuedToDisabledAccount(claims));
+        assertNull(jwtService.toPrincipal(jwtService.parse(jwtService.generateToken(user))));
+    }
+
+    @Test
+    void isTokenValid_ShouldRejectTokenOfAnotherUser() {
+        // Arrange
+        String token = jwtService.generateToken(User.withUsername("driver2").password("x").roles("DRIVER").build());
+
+        // Act & Assert
+        assertFalse(jwtService.isTokenValid(token, user));
+    }
+
+    @Test
+    void parse_ShouldRejectTamperedAndExpiredTokens() {
+        // Arrange
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        String expired = Jwts.builder()
+                .setSubject("driver1")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(key(), SignatureAlgorithm.HS256)
+                .compact();
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> jwtService.parse(tampered));
+        assertThrows(ExpiredJwtException.class, () -> jwtService.parse(expired));
+    }
+
+    @Test
+    void parse_ShouldBeSafeToShareAcrossThreads() throws Exception {
+        // Arrange
+        List<String> tokens = IntStream.range(0, 64)
+                .mapToObj(i -> jwtService.generateToken(User.withUsername("user" + i).password("x").roles("DRIVER").build()))
+                .toList();
+
+        // Act
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<String>> subjects = tokens.stream()
+                    .map(token -> executor.submit(() -> jwtService.parse(token).getSubject()))
+                    .toList();
+
+            // Assert
+            for (int i = 0; i < tokens.size(); i++) {
+                assertEquals("user" + i, subjects.get(i).get());
+            }
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "rotax.benchmark", matches = "true")
+    void benchmark_PerRequestAuthenticationCost() {
+        int rounds = Integer.getInteger("rotax.benchmark.rounds", 200_000);
+        String token = jwtService.generateToken(user);
+
+        // Isınma
+        for (int i = 0; i < 20_000; i++) {
+            perRequestBefore(token);
+            perRequestAfter(token);
+        }
+
+        long started = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            assertTrue(perRequestBefore(token));
+        }
+        double beforeNs = (System.nanoTime() - started) / (double) rounds;
+
+        started = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            assertTrue(perRequestAfter(token));
+        }
+        double afterNs = (System.nanoTime() - started) / (double) rounds;
+
+        System.out.printf("jwt auth: %d requests, before %.1f us/request (3 parses, key + parser per parse), after %.1f us/request (1 parse, shared parser), %.1fx%n",
+                rounds, beforeNs / 1000.0, afterNs / 1000.0, beforeNs / afterNs);
+    }
+
+    // Filtrenin önceki hali: extractUsername + isTokenValid (konu ve süre için iki parse daha),
+    // her parse'ta anahtar çözülüp yeni parser kuruluyordu
+    private boolean perRequestBefore(String token) {
+        String username = Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(token).getBody().getSubject();
+        String subject = Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(token).getBody().getSubject();
+        Date expiration = Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(token).getBody().getExpiration();
+        return username.equals(user.getUsername()) && subject.equals(user.getUsername()) && !expiration.before(new Date());
+    }
+
+    private boolean perRequestAfter(String token) {
+        Claims claims = jwtService.parse(token);
+        return claims.getSubject().equals(user.getUsername()) && jwtService.isTokenValid(claims, user);
+    }
+
+    private static Key key() {
+        byte[] decodedKey = Base64.getDecoder().decode(SECRET);
+        return new SecretKeySpec(decodedKey, 0, decodedKey.length, "HmacSHA256");
+    }
+}
@@ -0,0 +1,160 @@
+package com.hilgo.rotax.service;
+
+import com.hilgo.rotax.exception.LoginCapacityExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginVerificationExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private LoginVerificationExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void verify_ShouldReturnResultOfVerification() {
+        // Arrange
+        executor = new LoginVerificationExecutor(1, 4, Duration.ofSeconds(5));
+
+        // Act & Assert
+        assertEquals("ok", executor.verify(() -> "ok"));
+    }
+
+    @Test
+    void verify_ShouldRethrowAuthenticationErrorsUnwrapped() {
+        // Arrange
+        executor = new LoginVerificationExecutor(1, 4, Duration.ofSeconds(5));
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> executor.verify(() -> {
+            throw new BadCredentialsException("Bad credentials");
+        }));
+    }
+
+    @Test
+    void verify_ShouldReject_WhenQueueIsFull() throws Exception {
+        // Arrange: tek thread meşgul, tek kuyruk yeri dolu
+        executor = new LoginVerificationExecutor(1, 1, Duration.ofSeconds(5));
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            occupyWorkerAndQueueOne(callers);
+
+            // Act & Assert
+            assertThrows(LoginCapacityExceededException.class, () -> executor.verify(() -> "ok"));
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    void verify_ShouldGiveUp_WhenVerificationDoesNotFinishInTime() {
+        // Arrange
+        executor = new LoginVerificationExecutor(1, 4, Duration.ofMillis(100));
+
+        // Act & Assert
+        assertThrows(LoginCapacityExceededException.class, () -> executor.verify(this::awaitRelease));
+    }
+
+    @Test
+    void tryExecute_ShouldDeclineBackgroundWork_WhenQueueIsHalfFull() throws Exception {
+        // Arrange: thread meşgul, 2 kapasiteli kuyrukta bir giriş bekliyor
+        executor = new LoginVerificationExecutor(1, 2, Duration.ofSeconds(5));
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            occupyWorkerAndQueueOne(callers);
+
+            // Act & Assert
+            assertFalse(executor.tryExecute(() -> { }));
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+
+    /**
+     * Farklı BCrypt maliyetlerinde giriş doğrulama hızı: sınırsız (istek thread'lerinde) ve sınırlı havuzda.
+     * Çalıştırmak için: {@code mvn test -Dtest=LoginVerificationExecutorTest -Drotax.benchmark=true}
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "rotax.benchmark", matches = "true")
+    void benchmark_LoginThroughputByBcryptCost() throws Exception {
+        int logins = Integer.getInteger("rotax.benchmark.logins", 64);
+        int callers = Runtime.getRuntime().availableProcessors() * 4;
+        int poolSize = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        executor = new LoginVerificationExecutor(poolSize, logins, Duration.ofMinutes(5));
+
+        for (int cost : new int[] {8, 10, 12}) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+            String hash = encoder.encode("password123");
+            encoder.matches("password123", hash); // Isınma
+
+            double directPerSecond = run(logins, callers, () -> encoder.matches("password123", hash));
+            double boundedPerSecond = run(logins, callers, () -> executor.verify(() -> encoder.matches("password123", hash)));
+
+            System.out.printf("bcrypt cost %d: %d logins, %d callers, unbounded %.1f logins/s, bounded (%d threads) %.1f logins/s%n",
+                    cost, logins, callers, directPerSecond, poolSize, boundedPerSecond);
+        }
+    }
+
+    private double run(int logins, int callers, BooleanSupplier login) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            long started = System.nanoTime();
+            for (int i = 0; i < logins; i++) {
+                results.add(pool.submit(login::getAsBoolean));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+            return logins / ((System.nanoTime() - started) / 1_000_000_000.0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Havuzdaki tek thread'in işe başladığını ve ikinci girişin kuyruğa düştüğünü bekler
+    private void occupyWorkerAndQueueOne(ExecutorService callers) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        callers.submit(() -> executor.verify(() -> {
+            started.countDown();
+            return awaitRelease();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        callers.submit(() -> executor.verify(this::awaitRelease));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.queueSize() < 1) {
+            assertTrue(System.nanoTime() < deadline, "İkinci giriş kuyruğa alınmadı");
+            Thread.sleep(5);
+        }
+    }
+
+    private String awaitRelease() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
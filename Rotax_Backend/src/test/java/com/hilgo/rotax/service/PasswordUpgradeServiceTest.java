@@ -0,0 +1,126 @@
+package com.hilgo.rotax.service;
+
+import com.hilgo.rotax.BaseTest;
+import com.hilgo.rotax.entity.User;
+import com.hilgo.rotax.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PasswordUpgradeServiceTest extends BaseTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private LoginVerificationExecutor loginVerificationExecutor;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    private PasswordEncoder passwordEncoder;
+    private PasswordUpgradeService passwordUpgradeService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // Uygulamadaki kodlayıcının aynısı; testler hızlı olsun diye düşük maliyetle
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(5);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        passwordEncoder = encoder;
+        passwordUpgradeService = new PasswordUpgradeService(passwordEncoder, userRepository, loginVerificationExecutor, principalCache);
+
+        user = User.builder().id(7L).username("driver1").build();
+    }
+
+    @Test
+    void upgradeIfNeeded_ShouldRehashLegacyHashInBackground() {
+        // Arrange: önek olmadan, daha düşük maliyetle üretilmiş eski hash
+        String legacyHash = new BCryptPasswordEncoder(4).encode("password123");
+        user.setPassword(legacyHash);
+        when(loginVerificationExecutor.tryExecute(any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return true;
+        });
+        when(userRepository.updatePasswordIfUnchanged(eq(7L), eq(legacyHash), anyString())).thenReturn(1);
+
+        // Act
+        passwordUpgradeService.upgradeIfNeeded(user, "password123");
+
+        // Assert
+        verify(userRepository).updatePasswordIfUnchanged(eq(7L), eq(legacyHash), argThat(upgraded ->
+                upgraded.startsWith("{bcrypt}$2a$05$") && passwordEncoder.matches("password123", upgraded)));
+        verify(principalCache).invalidate("driver1");
+    }
+
+    @Test
+    void upgradeIfNeeded_ShouldDoNothing_WhenHashIsCurrent() {
+        // Arrange
+        user.setPassword(passwordEncoder.encode("password123"));
+
+        // Act
+        passwordUpgradeService.upgradeIfNeeded(user, "password123");
+
+        // Assert
+        verifyNoInteractions(loginVerificationExecutor, userRepository, principalCache);
+    }
+
+    @Test
+    void upgradeIfNeeded_ShouldNotInvalidateCache_WhenPasswordChangedMeanwhile() {
+        // Arrange
+        user.setPassword(new BCryptPasswordEncoder(4).encode("password123"));
+        when(loginVerificationExecutor.tryExecute(any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return true;
+        });
+        when(userRepository.updatePasswordIfUnchanged(anyLong(), anyString(), anyString())).thenReturn(0);
+
+        // Act
+        passwordUpgradeService.upgradeIfNeeded(user, "password123");
+
+        // Assert
+        verifyNoInteractions(principalCache);
+    }
+
+    @Test
+    void upgradeIfNeeded_ShouldScheduleOncePerUser_WhileRehashIsPending() {
+        // Arrange: havuz işi kabul etti ama henüz çalıştırmadı
+        user.setPassword(new BCryptPasswordEncoder(4).encode("password123"));
+        when(loginVerificationExecutor.tryExecute(any())).thenReturn(true);
+
+        // Act
+        passwordUpgradeService.upgradeIfNeeded(user, "password123");
+        passwordUpgradeService.upgradeIfNeeded(user, "password123");
+
+        // Assert
+        verify(loginVerificationExecutor, times(1)).tryExecute(any());
+    }
+
+    @Test
+    void upgradeIfNeeded_ShouldRetryOnNextLogin_WhenPoolIsBusy() {
+        // Arrange
+        user.setPassword(new BCryptPasswordEncoder(4).encode("password123"));
+        when(loginVerificationExecutor.tryExecute(any())).thenReturn(false);
+
+        // Act
+        passwordUpgradeService.upgradeIfNeeded(user, "password123");
+        passwordUpgradeService.upgradeIfNeeded(user, "password123");
+
+        // Assert
+        verify(loginVerificationExecutor, times(2)).tryExecute(any());
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -0,0 +1,134 @@
+package com.hilgo.rotax.service;
+
+import com.hilgo.rotax.dto.CachedUser;
+import com.hilgo.rotax.dto.PrincipalCacheStatsDTO;
+import com.hilgo.rotax.entity.User;
+import com.hilgo.rotax.enums.Roles;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<String, User> loader = username -> {
+        loads.incrementAndGet();
+        return User.builder().id(7L).username(username).password("x").role(Roles.DRIVER).enabled(true).build();
+    };
+
+    private PrincipalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PrincipalCache(2, Duration.ofMinutes(5), now::get);
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndServeRepeatedLookupsFromCache() {
+        // Act
+        UserDetails first = cache.get("driver1", loader);
+        UserDetails second = cache.get("driver1", loader);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        PrincipalCacheStatsDTO stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate());
+    }
+
+    @Test
+    void get_ShouldCacheImmutableSnapshotInsteadOfEntity() {
+        // Arrange
+        User user = loader.apply("driver1");
+
+        // Act
+        CachedUser cached = cache.get("driver1", username -> user);
+        user.setPassword("changed");
+
+        // Assert
+        assertEquals(new CachedUser(7L, "driver1", "x", true, Roles.DRIVER), cached);
+        assertEquals("ROLE_DRIVER", cached.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void get_ShouldReloadAfterTtl() {
+        // Arrange
+        cache.get("driver1", loader);
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+
+        // Act
+        cache.get("driver1", loader);
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.stats().getExpirations());
+    }
+
+    @Test
+    void get_ShouldEvictLeastRecentlyUsed_WhenFull() {
+        // Arrange
+        cache.get("driver1", loader);
+        cache.get("driver2", loader);
+        cache.get("driver1", loader); // driver2 en uzun süredir kullanılmayan kayıt olur
+
+        // Act
+        cache.get("driver3", loader);
+        cache.get("driver1", loader);
+        cache.get("driver2", loader);
+
+        // Assert
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.stats().getEvictions());
+        assertEquals(2, cache.stats().getSize());
+    }
+
+    @Test
+    void invalidate_ShouldForceReload() {
+        // Arrange
+        cache.get("driver1", loader);
+
+        // Act
+        cache.invalidate("driver1");
+        cache.get("driver1", loader);
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_DuringLoad_ShouldNotCacheStaleUser() {
+        // Act: yükleme sürerken kullanıcı güncellenip kaydı silinsin
+        cache.get("driver1", username -> {
+            cache.invalidate(username);
+            return loader.apply(username);
+        });
+        cache.get("driver1", loader);
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_ShouldNotCacheMissingUser() {
+        // Act & Assert
+        Function<String, User> missing = username -> {
+            loads.incrementAndGet();
+            throw new UsernameNotFoundException("User not found");
+        };
+        assertThrows(UsernameNotFoundException.class, () -> cache.get("ghost", missing));
+        assertThrows(UsernameNotFoundException.class, () -> cache.get("ghost", missing));
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.stats().getSize());
+    }
+}
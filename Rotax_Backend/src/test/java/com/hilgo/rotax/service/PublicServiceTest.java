@@ -18,10 +18,12 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class PublicServiceTest extends BaseTest {
@@ -32,6 +34,9 @@ class PublicServiceTest extends BaseTest {
     @Mock
     private ReviewRepository reviewRepository;
 
+    @Mock
+    private DriverLocationBuffer driverLocationBuffer;
+
     @InjectMocks
     private PublicService publicService;
 
@@ -50,7 +55,6 @@ class PublicServiceTest extends BaseTest {
 
         // Setup test location
         testLocation = new Location();
-        testLocation.setId(1L);
         testLocation.setLatitude(40.7128);
         testLocation.setLongitude(-74.0060);
         testLocation.setAddress("123 Test St");
@@ -70,11 +74,16 @@ class PublicServiceTest extends BaseTest {
         testCargo.setDescription("Test cargo description");
 
         // Setup repository mocks
-        when(cargoRepository.findByVerificationCode("ABC123")).thenReturn(Optional.of(testCargo));
+        // trackCargo projeksiyon sorgusunu kullanır; entity stub'ı yalnızca yazma yollarında gerekir
+        lenient().when(cargoRepository.findByVerificationCode("ABC123")).thenReturn(Optional.of(testCargo));
     }
 
     @Test
     void trackCargo_ShouldReturnTrackingInfo_WhenCargoExists() {
+        // Arrange
+        when(cargoRepository.findTrackingViewByVerificationCode("ABC123"))
+                .thenReturn(Optional.of(PublicService.toTrackingView(testCargo)));
+
         // Act
         TrackingResponse response = publicService.trackCargo("ABC123");
 
@@ -86,17 +95,18 @@ class PublicServiceTest extends BaseTest {
         assertEquals("1234567890", response.getDriverPhone());
         assertNotNull(response.getCurrentLocation());
         assertNotNull(response.getDestinationLocation());
-        verify(cargoRepository).findByVerificationCode("ABC123");
+        verify(cargoRepository).findTrackingViewByVerificationCode("ABC123");
+        verify(cargoRepository, never()).findByVerificationCode(any());
     }
 
     @Test
     void trackCargo_ShouldThrowException_WhenCargoDoesNotExist() {
         // Arrange
-        when(cargoRepository.findByVerificationCode("XYZ789")).thenReturn(Optional.empty());
+        when(cargoRepository.findTrackingViewByVerificationCode("XYZ789")).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> publicService.trackCargo("XYZ789"));
-        verify(cargoRepository).findByVerificationCode("XYZ789");
+        verify(cargoRepository).findTrackingViewByVerificationCode("XYZ789");
     }
 
     @Test
@@ -111,9 +121,9 @@ class PublicServiceTest extends BaseTest {
         // Assert
         assertNotNull(response);
         assertEquals("Delivery note added successfully", response.getMessage());
-        assertEquals("New delivery note", testCargo.getDescription());
         verify(cargoRepository).findByVerificationCode("ABC123");
-        verify(cargoRepository).save(testCargo);
+        verify(cargoRepository).updateDescription(eq(1L), eq("New delivery note"), any(LocalDateTime.class));
+        verify(cargoRepository, never()).save(any(Cargo.class));
     }
 
     @Test